@@ -0,0 +1,44 @@
+package base;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Body formatting done for every logged exchange: request body truncation and decoding of the logged
+    prefix of the response bytes, for bodies below and above LOG_HTTP_MAX_BODY_CHARS.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Slf4JLoggingFilterBenchmark {
+    @Param({"200", "20000"})
+    private int bodySize;
+
+    private String requestBody;
+    private byte[] responseBody;
+
+    @Setup
+    public void setup() {
+        StringBuilder body = new StringBuilder(bodySize);
+        while (body.length() < bodySize) {
+            body.append("{\"firstName\":\"George\",\"lastName\":\"Franklin\",\"city\":\"Madison\"},");
+        }
+        requestBody = body.substring(0, bodySize);
+        responseBody = requestBody.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String truncateRequestBody() {
+        return Slf4JLoggingFilter.truncate(requestBody);
+    }
+
+    @Benchmark
+    public String decodeResponseBody() {
+        return Slf4JLoggingFilter.decode(responseBody);
+    }
+}
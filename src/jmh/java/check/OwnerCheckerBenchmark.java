@@ -0,0 +1,79 @@
+package check;
+
+import data.OwnerFactory;
+import mapper.OwnerMapper;
+import model.Owner;
+import model.OwnerRecord;
+import org.assertj.core.api.SoftAssertions;
+import org.openjdk.jmh.annotations.*;
+import util.JsonUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static db.DatabaseConstants.OwnerTable.*;
+
+/*
+    Comparison of an owner with expected data: database row through soft assertions, as a map and typed,
+    and API response bytes through the streaming checker.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OwnerCheckerBenchmark {
+    private Map<String, Object> expected;
+    private Map<String, Object> row;
+    private byte[] response;
+    private OwnerRecord expectedRecord;
+    private OwnerRecord rowRecord;
+
+    @Setup
+    public void setup() throws Exception {
+        expected = OwnerFactory.getRandomOwnerTestData();
+        expected.put(Owner.FIELD_ID, 1);
+        row = new HashMap<>();
+        row.put(ID_COL_NAME, 1);
+        row.put(FIRSTNAME_COL_NAME, expected.get(Owner.FIELD_FIRSTNAME));
+        row.put(LASTNAME_COL_NAME, expected.get(Owner.FIELD_LASTNAME));
+        row.put(ADDRESS_COL_NAME, expected.get(Owner.FIELD_ADDRESS));
+        row.put(CITY_COL_NAME, expected.get(Owner.FIELD_CITY));
+        row.put(TELEPHONE_COL_NAME, expected.get(Owner.FIELD_TELEPHONE));
+        Map<String, Object> body = new HashMap<>(expected);
+        body.put(Owner.FIELD_PETS, List.of());
+        response = JsonUtils.MAPPER.writeValueAsBytes(body);
+        expectedRecord = OwnerMapper.toRecord(expected);
+        //equal but not the same instances, as a row read from the database would be
+        rowRecord = new OwnerRecord(1, new String((String) expected.get(Owner.FIELD_FIRSTNAME)),
+                new String((String) expected.get(Owner.FIELD_LASTNAME)), new String((String) expected.get(Owner.FIELD_ADDRESS)),
+                new String((String) expected.get(Owner.FIELD_CITY)), new String((String) expected.get(Owner.FIELD_TELEPHONE)));
+    }
+
+    @Benchmark
+    public SoftAssertions assertOwnerDbData() {
+        SoftAssertions softly = new SoftAssertions();
+        OwnerChecker.assertOwnerDbData(row, expected, softly);
+        return softly;
+    }
+
+    @Benchmark
+    public SoftAssertions assertOwnerDbDataTyped() {
+        SoftAssertions softly = new SoftAssertions();
+        OwnerChecker.assertOwnerDbData(rowRecord, expectedRecord, softly);
+        return softly;
+    }
+
+    @Benchmark
+    public int compareTyped() {
+        return OwnerChecker.compare(rowRecord, expectedRecord);
+    }
+
+    @Benchmark
+    public StreamingOwnerChecker.Result streamingCheckOwner() {
+        return StreamingOwnerChecker.checkOwner(response, expected);
+    }
+}
@@ -0,0 +1,49 @@
+package data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static model.Owner.FIELD_FIRSTNAME;
+
+/*
+    Cost of test data for a single request: owner taken from the pool as map and as pre-encoded payload,
+    single field patch of a payload (what negative test data and updates do instead of a deep copy of the map)
+    and encoding of a patched payload to request bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OwnerFactoryBenchmark {
+    private OwnerPayload payload;
+
+    @Setup
+    public void setup() {
+        //first call generates the pool, it's not a part of measurements
+        payload = OwnerFactory.getRandomOwnerPayload();
+    }
+
+    @Benchmark
+    public Map<String, Object> randomOwnerTestData() {
+        return OwnerFactory.getRandomOwnerTestData();
+    }
+
+    @Benchmark
+    public OwnerPayload randomOwnerPayload() {
+        return OwnerFactory.getRandomOwnerPayload();
+    }
+
+    @Benchmark
+    public OwnerPayload payloadWithField() {
+        return payload.with(FIELD_FIRSTNAME, "Benchmark");
+    }
+
+    @Benchmark
+    public byte[] patchedPayloadBytes() {
+        return payload.with(FIELD_FIRSTNAME, "Benchmark").bytes();
+    }
+}
@@ -0,0 +1,51 @@
+package mapper;
+
+import data.OwnerFactory;
+import model.Owner;
+import model.OwnerRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static db.DatabaseConstants.OwnerTable.*;
+
+/*
+    Mapping of an owners table row to the model: as returned by JdbcTemplate.queryForMap() (validating setters)
+    and as a typed OwnerRecord from OwnerRowMapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OwnerMapperBenchmark {
+    private Map<String, Object> row;
+    private OwnerRecord record;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> data = OwnerFactory.getRandomOwnerTestData();
+        row = new HashMap<>();
+        row.put(ID_COL_NAME, 1);
+        row.put(FIRSTNAME_COL_NAME, data.get(Owner.FIELD_FIRSTNAME));
+        row.put(LASTNAME_COL_NAME, data.get(Owner.FIELD_LASTNAME));
+        row.put(ADDRESS_COL_NAME, data.get(Owner.FIELD_ADDRESS));
+        row.put(CITY_COL_NAME, data.get(Owner.FIELD_CITY));
+        row.put(TELEPHONE_COL_NAME, data.get(Owner.FIELD_TELEPHONE));
+        data.put(Owner.FIELD_ID, 1);
+        record = OwnerMapper.toRecord(data);
+    }
+
+    @Benchmark
+    public Owner fromDbKeyValues() {
+        return OwnerMapper.fromDbKeyValues(row);
+    }
+
+    @Benchmark
+    public Owner fromRecord() {
+        return OwnerMapper.fromRecord(record);
+    }
+}
@@ -0,0 +1,60 @@
+package model;
+
+import data.OwnerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static model.Owner.*;
+
+/*
+    Owner setters with length and pattern validation against the no-validation setters as baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OwnerBenchmark {
+    private String firstName;
+    private String lastName;
+    private String address;
+    private String city;
+    private String telephone;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> data = OwnerFactory.getRandomOwnerTestData();
+        firstName = (String) data.get(FIELD_FIRSTNAME);
+        lastName = (String) data.get(FIELD_LASTNAME);
+        address = (String) data.get(FIELD_ADDRESS);
+        city = (String) data.get(FIELD_CITY);
+        telephone = (String) data.get(FIELD_TELEPHONE);
+    }
+
+    @Benchmark
+    public Owner validatedSetters() {
+        Owner owner = new Owner();
+        owner.setFirstName(firstName);
+        owner.setLastName(lastName);
+        owner.setAddress(address);
+        owner.setCity(city);
+        owner.setTelephone(telephone);
+        owner.setId(1);
+        return owner;
+    }
+
+    @Benchmark
+    public Owner unvalidatedSetters() {
+        Owner owner = new Owner();
+        owner.setFirstNameNoValidation(firstName);
+        owner.setLastNameNoValidation(lastName);
+        owner.setAddressNoValidation(address);
+        owner.setCityNoValidation(city);
+        owner.setTelephoneNoValidation(telephone);
+        owner.setIdNoValidation(1);
+        return owner;
+    }
+}
@@ -0,0 +1,56 @@
+package util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import data.OwnerFactory;
+import model.Owner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+
+/*
+    Validation of an owner response against owner.json: with the schema compiled once by SchemaRegistry
+    (parsing included and excluded) and with REST Assured's matcher, which loads the schema on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaRegistryBenchmark {
+    private JsonSchema schema;
+    private String response;
+    private JsonNode responseNode;
+
+    @Setup
+    public void setup() throws Exception {
+        schema = SchemaRegistry.getSchema(ValidationUtils.OWNER_SCHEMA);
+        Map<String, Object> body = OwnerFactory.getRandomOwnerTestData();
+        body.put(Owner.FIELD_ID, 1);
+        body.put(Owner.FIELD_PETS, List.of());
+        response = JsonUtils.MAPPER.writeValueAsString(body);
+        responseNode = JsonLoader.fromString(response);
+    }
+
+    @Benchmark
+    public boolean registryMatcher() {
+        return SchemaRegistry.matchesSchema(ValidationUtils.OWNER_SCHEMA).matches(response);
+    }
+
+    @Benchmark
+    public ProcessingReport validateParsed() throws Exception {
+        return schema.validate(responseNode);
+    }
+
+    @Benchmark
+    public boolean restAssuredMatcher() {
+        return matchesJsonSchemaInClasspath(ValidationUtils.OWNER_SCHEMA).matches(response);
+    }
+}
@@ -1,264 +1,47 @@
 package api;
 
 import base.ApiTestBase;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import db.DatabaseConstants;
-import io.restassured.builder.ResponseSpecBuilder;
-import io.restassured.module.jsv.JsonSchemaValidator;
-import io.restassured.response.Response;
-import io.restassured.specification.ResponseSpecification;
-import mapper.OwnerMapper;
-import model.Owner;
-import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 import util.DatabaseUtils;
-import util.ValidationUtils;
 
-import java.sql.SQLException;
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
-
-import static base.ApiConstants.*;
-import static check.OwnerChecker.assertOwnerData;
-import static check.OwnerChecker.assertOwnerDbData;
-import static config.ApiConfig.RESPONSE_TIME_THRESHOLD;
-import static data.OwnerFactory.getOwnerDataFromDatabase;
-import static data.OwnerFactory.getRandomOwnerTestData;
-import static io.restassured.RestAssured.given;
-import static model.Owner.FIELD_ID;
-import static net.logstash.logback.argument.StructuredArguments.kv;
-import static org.hamcrest.Matchers.lessThan;
-
-@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
-//using TestMethodOrder for ordering tests so that warmup always runs first
 public class CrudOwnerWorkflowTests extends ApiTestBase {
-    private final static Logger logger = LoggerFactory.getLogger(CrudOwnerWorkflowTests.class);
 
-    private final static ObjectMapper mapper = new ObjectMapper();
+    //test logic lives in OwnerFlows so that load scenarios can reuse it
+    private final OwnerFlows flows = new OwnerFlows(requestSpec, responseSpec);
 
-    @BeforeEach
-    @AfterEach
-    public void cleanup() throws SQLException {
-        DatabaseUtils.cleanDatabase();
+    //without warmup the first test in the suite would accumulate JIT and connection warmup time
+    @BeforeAll
+    public static void warmUpEndpoints() {
+        new OwnerFlows(requestSpec, responseSpec).warmupFlows().forEach(ApiTestBase::warmUp);
     }
 
-    @Test
-    @Order(1)
-    //warmup test running first ensures that we get more accurate execution times for our actual tests
-    //without warmup the first test in suit will accumulate that warmup time
-    public void warmupTest() throws Exception {
-        executeWithLogging(this::warmupTestLogic, "warmupTest");
+    @BeforeEach
+    public void prepareDatabase() {
+        DatabaseUtils.resetBeforeTest();
     }
 
-    private void warmupTestLogic() throws JsonProcessingException {
-        Map<String, Object> createOwnerData = getRandomOwnerTestData();
-        String body = mapper.writeValueAsString(createOwnerData);
-        Response response =
-                given()
-                        .spec(requestSpec)
-                        .body(body)
-                        .when()
-                        .post(CREATE_PATH)
-                        .then()
-                        .spec(responseSpec)
-                        .statusCode(201)
-                        .body(JsonSchemaValidator.matchesJsonSchemaInClasspath(ValidationUtils.OWNER_SCHEMA))
-                        .extract().response();
-        Owner owner = response.jsonPath().getObject("", Owner.class);
-
-        SoftAssertions softly = new SoftAssertions();
-        softly.assertThat(owner.getFirstName()).isEqualTo(createOwnerData.get(Owner.FIELD_FIRSTNAME));
-        softly.assertThat(owner.getLastName()).isEqualTo(createOwnerData.get(Owner.FIELD_LASTNAME));
-        softly.assertThat(owner.getAddress()).isEqualTo(createOwnerData.get(Owner.FIELD_ADDRESS));
-        softly.assertThat(owner.getCity()).isEqualTo(createOwnerData.get(Owner.FIELD_CITY));
-        softly.assertThat(owner.getTelephone()).isEqualTo(createOwnerData.get(Owner.FIELD_TELEPHONE));
-
-        int ownerId = owner.getId();
-        logger.info("Warmup: Owner with id {} created", ownerId, kv(Owner.FIELD_ID, ownerId));
-        MDC.put(Owner.FIELD_ID, String.valueOf(ownerId));
-
-        createOwnerData.put(Owner.FIELD_ID, ownerId);
-        assertOwnerDbData(getOwnerDataFromDatabase(ownerId), createOwnerData, softly);
-        softly.assertAll();
+    @AfterEach
+    public void cleanupDatabase() {
+        DatabaseUtils.resetAfterTest();
     }
 
     @Test
-    @Order(2)
     public void createReadWorkflowTest() throws Exception {
-        executeWithLogging(this::createReadWorkflowTestLogic, "createReadWorkflowTest");
-    }
-
-    private void createReadWorkflowTestLogic() throws JsonProcessingException {
-        SoftAssertions softly = new SoftAssertions();
-
-        Owner owner = createOwnerWithApi(softly);
-        readOwnerWithApi(owner, softly);
-
-        softly.assertAll();
+        executeWithLogging(flows::createReadWorkflow, "createReadWorkflowTest");
     }
 
     @Test
-    @Order(2)
     public void createUpdateWorkflowTest() throws Exception {
-        executeWithLogging(this::createUpdateWorkflowTestLogic, "createUpdateWorkflowTest");
-    }
-
-    private void createUpdateWorkflowTestLogic() throws JsonProcessingException {
-        SoftAssertions softly = new SoftAssertions();
-
-        createUpdateLogic(softly);
-
-        softly.assertAll();
+        executeWithLogging(flows::createUpdateWorkflow, "createUpdateWorkflowTest");
     }
 
     @Test
-    @Order(2)
     public void createDeleteWorkflowTest() throws Exception {
-        executeWithLogging(this::createDeleteWorkflowTestLogic, "createDeleteWorkflowTest");
-    }
-
-    private void createDeleteWorkflowTestLogic() throws JsonProcessingException {
-        SoftAssertions softly = new SoftAssertions();
-
-        Owner owner = createOwnerWithApi(softly);
-
-        ResponseSpecification noContentResponse = new ResponseSpecBuilder()
-                .expectResponseTime(lessThan(RESPONSE_TIME_THRESHOLD), TimeUnit.MILLISECONDS)
-                .build();
-
-        Response response =
-                given()
-                        .spec(requestSpec)
-                        .pathParam("ownerId", owner.getId())
-                        .when()
-                        .delete(DELETE_PATH)
-                        .then()
-                        .spec(noContentResponse)
-                        //.statusCode(200) //according to Swagger it should be 200 OK with response body, but in reality it's 204 with no body
-                        .statusCode(204)
-                        //.body(JsonSchemaValidator.matchesJsonSchemaInClasspath(ValidationUtils.OWNER_SCHEMA))
-                        .extract().response();
-        //Map<String, Object> ownerData = response.jsonPath().getMap("");
-
-        Map<String, Object> deleted = getOwnerDataFromDatabase(owner.getId());
-        softly.assertThat(deleted).hasSize(0);
-
-        softly.assertAll();
+        executeWithLogging(flows::createDeleteWorkflow, "createDeleteWorkflowTest");
     }
 
     @Test
-    @Order(2)
     public void updateReadWorkflowTest() throws Exception {
-        executeWithLogging(this::updateReadWorkflowTestLogic, "updateReadWorkflowTest");
-    }
-
-    private void updateReadWorkflowTestLogic() throws JsonProcessingException {
-        SoftAssertions softly = new SoftAssertions();
-
-        Owner updatedOwner = createUpdateLogic(softly);
-        readOwnerWithApi(updatedOwner, softly);
-
-        softly.assertAll();
-    }
-
-    private Owner createOwnerWithApi(SoftAssertions softly) throws JsonProcessingException {
-        Map<String, Object> ownerData = getRandomOwnerTestData();
-        String body = mapper.writeValueAsString(ownerData);
-        Response response =
-                given()
-                        .spec(requestSpec)
-                        .body(body)
-                        .when()
-                        .post(CREATE_PATH)
-                        .then()
-                        .spec(responseSpec)
-                        .statusCode(201)
-                        .body(JsonSchemaValidator.matchesJsonSchemaInClasspath(ValidationUtils.OWNER_SCHEMA))
-                        .extract().response();
-        Owner owner = response.jsonPath().getObject("", Owner.class);
-
-        softly.assertThat(owner.getFirstName()).isEqualTo(ownerData.get(Owner.FIELD_FIRSTNAME));
-        softly.assertThat(owner.getLastName()).isEqualTo(ownerData.get(Owner.FIELD_LASTNAME));
-        softly.assertThat(owner.getAddress()).isEqualTo(ownerData.get(Owner.FIELD_ADDRESS));
-        softly.assertThat(owner.getCity()).isEqualTo(ownerData.get(Owner.FIELD_CITY));
-        softly.assertThat(owner.getTelephone()).isEqualTo(ownerData.get(Owner.FIELD_TELEPHONE));
-
-        int ownerId = owner.getId();
-        logger.info("Owner with id {} created", ownerId);
-
-        return owner;
-    }
-
-    private void readOwnerWithApi(Owner owner, SoftAssertions softly) {
-        Response response =
-                given()
-                        .spec(requestSpec)
-                        .pathParam("ownerId", owner.getId())
-                        .when()
-                        .get(READ_PATH)
-                        .then()
-                        .spec(responseSpec)
-                        .statusCode(200)
-                        .body(JsonSchemaValidator.matchesJsonSchemaInClasspath(ValidationUtils.OWNER_SCHEMA))
-                        .extract().response();
-        Map<String, Object> ownerData = response.jsonPath().getMap("");
-
-        assertOwnerData(ownerData, owner, softly);
-    }
-
-    private Map<String, Object> updateOwnerWithApi(
-            int id,
-            Map<String, Object> updateOwnerData,
-            SoftAssertions softly,
-            boolean assertDb) throws JsonProcessingException {
-        String body = mapper.writeValueAsString(updateOwnerData);
-
-        updateOwnerData.put(FIELD_ID, id);
-
-        Response response =
-                given()
-                        .spec(requestSpec)
-                        .pathParam("ownerId", id)
-                        .body(body)
-                        .when()
-                        .put(UPDATE_PATH)
-                        .then()
-                        .spec(responseSpec)
-                        //.statusCode(200) //according to Swagger it should be 200 OK with response body, but in reality it's 204 with no body
-                        .statusCode(204)
-                        //.body(JsonSchemaValidator.matchesJsonSchemaInClasspath(ValidationUtils.OWNER_SCHEMA))
-                        .extract().response();
-        //Map<String, Object> ownerData = response.jsonPath().getMap("");
-
-        //assertOwnerData(ownerData, updateOwnerData, softly);
-        Map<String, Object> updatedOwnerDbData = getOwnerDataFromDatabase(id);
-        if (assertDb) {
-            assertOwnerDbData(updatedOwnerDbData, updateOwnerData, softly);
-        }
-
-        return updatedOwnerDbData;
-    }
-
-    private Owner createUpdateLogic(SoftAssertions softly) throws JsonProcessingException {
-        Owner owner = createOwnerWithApi(softly);
-        Map<String, Object> updateData = getRandomOwnerTestData();
-        //actually according to Swagger, update should return body with updated entity, but in reality it's 204 with no body
-        Map<String, Object> updatedOwnerDbData = updateOwnerWithApi(owner.getId(), updateData, softly, false);
-
-        Optional<Integer> idFromUpdate = Optional.ofNullable((Integer) updatedOwnerDbData.get(DatabaseConstants.OwnerTable.ID_COL_NAME));
-        if (idFromUpdate.isEmpty()) {
-            softly.fail("No id of updated owner was returned from database!");
-        }
-
-        softly.assertThat(idFromUpdate.orElse(-1)).isEqualTo(owner.getId());
-
-        assertOwnerDbData(updatedOwnerDbData, updateData, softly);
-
-        return OwnerMapper.fromDbKeyValues(updatedOwnerDbData);
+        executeWithLogging(flows::updateReadWorkflow, "updateReadWorkflowTest");
     }
 }
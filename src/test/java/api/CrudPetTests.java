@@ -0,0 +1,26 @@
+package api;
+
+import org.junit.jupiter.api.Test;
+
+public class CrudPetTests extends PetCrudTestBase {
+
+    @Test
+    public void createPet() throws Exception {
+        executeWithLogging(flows::createPet, "createPet");
+    }
+
+    @Test
+    public void readPet() throws Exception {
+        executeWithLogging(flows::readPet, "readPet");
+    }
+
+    @Test
+    public void updatePet() throws Exception {
+        executeWithLogging(flows::updatePet, "updatePet");
+    }
+
+    @Test
+    public void deletePet() throws Exception {
+        executeWithLogging(flows::deletePet, "deletePet");
+    }
+}
@@ -0,0 +1,26 @@
+package api;
+
+import org.junit.jupiter.api.Test;
+
+public class CrudPetTypeTests extends PetCrudTestBase {
+
+    @Test
+    public void createPetType() throws Exception {
+        executeWithLogging(flows::createPetType, "createPetType");
+    }
+
+    @Test
+    public void readPetType() throws Exception {
+        executeWithLogging(flows::readPetType, "readPetType");
+    }
+
+    @Test
+    public void updatePetType() throws Exception {
+        executeWithLogging(flows::updatePetType, "updatePetType");
+    }
+
+    @Test
+    public void deletePetType() throws Exception {
+        executeWithLogging(flows::deletePetType, "deletePetType");
+    }
+}
@@ -0,0 +1,26 @@
+package api;
+
+import org.junit.jupiter.api.Test;
+
+public class CrudVisitTests extends PetCrudTestBase {
+
+    @Test
+    public void createVisit() throws Exception {
+        executeWithLogging(flows::createVisit, "createVisit");
+    }
+
+    @Test
+    public void readVisit() throws Exception {
+        executeWithLogging(flows::readVisit, "readVisit");
+    }
+
+    @Test
+    public void updateVisit() throws Exception {
+        executeWithLogging(flows::updateVisit, "updateVisit");
+    }
+
+    @Test
+    public void deleteVisit() throws Exception {
+        executeWithLogging(flows::deleteVisit, "deleteVisit");
+    }
+}
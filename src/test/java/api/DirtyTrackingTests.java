@@ -0,0 +1,79 @@
+package api;
+
+import base.ApiTestBase;
+import base.DirtyTrackingFilter;
+import base.TestLogic;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import util.DatabaseUtils;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    With the 'dirty' and 'rollback' reset strategies rows the application writes are removed only from tables
+    DirtyTrackingFilter marks, so every write flow is run with a filter recording the tables its requests mark
+ */
+public class DirtyTrackingTests extends ApiTestBase {
+    private final Set<String> marked = ConcurrentHashMap.newKeySet();
+    private final RequestSpecification recordingSpec = new RequestSpecBuilder()
+            .addRequestSpecification(requestSpec)
+            .addFilter(new DirtyTrackingFilter(tables -> marked.addAll(Arrays.asList(tables))))
+            .build();
+    private final OwnerFlows ownerFlows = new OwnerFlows(recordingSpec, responseSpec);
+    private final PetFlows petFlows = new PetFlows(recordingSpec, responseSpec);
+
+    @BeforeEach
+    public void prepareDatabase() {
+        DatabaseUtils.resetBeforeTest();
+    }
+
+    @AfterEach
+    public void cleanupDatabase() {
+        DatabaseUtils.resetAfterTest();
+    }
+
+    @ParameterizedTest(name = "{0} marks {1}")
+    @CsvSource({
+            "createOwner, owners pets visits",
+            "updateOwner, owners pets visits",
+            "deleteOwner, owners pets visits",
+            "createPet, owners pets visits",
+            "updatePet, owners pets visits",
+            "deletePet, pets visits",
+            "createVisit, owners pets visits",
+            "updateVisit, visits",
+            "deleteVisit, visits",
+            "createPetType, types",
+            "updatePetType, types",
+            "deletePetType, types"})
+    public void writeMarksTables(String flow, String tables) throws Exception {
+        executeWithLogging(writeFlow(flow), flow);
+        assertThat(marked).as("Tables marked by %s", flow).containsExactlyInAnyOrder(tables.split(" "));
+    }
+
+    private TestLogic writeFlow(String flow) {
+        return switch (flow) {
+            case "createOwner" -> ownerFlows::createOwner;
+            case "updateOwner" -> ownerFlows::updateOwner;
+            case "deleteOwner" -> ownerFlows::deleteOwner;
+            case "createPet" -> petFlows::createPet;
+            case "updatePet" -> petFlows::updatePet;
+            case "deletePet" -> petFlows::deletePet;
+            case "createVisit" -> petFlows::createVisit;
+            case "updateVisit" -> petFlows::updateVisit;
+            case "deleteVisit" -> petFlows::deleteVisit;
+            case "createPetType" -> petFlows::createPetType;
+            case "updatePetType" -> petFlows::updatePetType;
+            case "deletePetType" -> petFlows::deletePetType;
+            default -> throw new IllegalArgumentException("Unknown write flow '%s'".formatted(flow));
+        };
+    }
+}
@@ -0,0 +1,409 @@
+package api;
+
+import base.TestLogic;
+import check.AsyncOwnerVerifier;
+import check.StreamingOwnerChecker;
+import data.OwnerPayload;
+import io.restassured.builder.ResponseSpecBuilder;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.ResponseSpecification;
+import mapper.OwnerMapper;
+import model.Owner;
+import model.OwnerRecord;
+import org.assertj.core.api.SoftAssertions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import util.SchemaRegistry;
+import util.ValidationUtils;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static base.ApiConstants.*;
+import static check.OwnerChecker.*;
+import static check.StreamingOwnerChecker.assertOwner;
+import static config.ApiConfig.*;
+import static data.OwnerFactory.*;
+import static io.restassured.RestAssured.given;
+import static model.Owner.FIELD_ID;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+import static org.hamcrest.Matchers.lessThan;
+
+/*
+    Owner CRUD operations and workflows shared by CrudOwnerTests, CrudOwnerWorkflowTests and load scenarios.
+    Every method is a complete, self-contained flow: prepares its own data, calls the API and verifies the result.
+ */
+public class OwnerFlows {
+    private final static Logger logger = LoggerFactory.getLogger(OwnerFlows.class);
+    //owners seeded for the listing flow
+    private final static int LIST_OWNERS = 3;
+
+    private final RequestSpecification requestSpec;
+    private final ResponseSpecification responseSpec;
+    private final ResponseSpecification noContentResponse;
+    //set in load runs: database state after writes is checked in batches off the request path, see AsyncOwnerVerifier
+    private final AsyncOwnerVerifier verifier;
+
+    public OwnerFlows(RequestSpecification requestSpec, ResponseSpecification responseSpec) {
+        this(requestSpec, responseSpec, null);
+    }
+
+    public OwnerFlows(RequestSpecification requestSpec, ResponseSpecification responseSpec, AsyncOwnerVerifier verifier) {
+        this.requestSpec = requestSpec;
+        this.responseSpec = responseSpec;
+        this.verifier = verifier;
+        this.noContentResponse = new ResponseSpecBuilder()
+                .expectResponseTime(lessThan(RESPONSE_TIME_THRESHOLD), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    //warmup
+
+    //owner endpoints (as LatencyFilter names them) with the CRUD flow measuring each of them
+    public Map<String, TestLogic> warmupFlows() {
+        Map<String, TestLogic> flows = new LinkedHashMap<>();
+        flows.put("POST " + CREATE_PATH, this::createOwner);
+        flows.put("GET " + READ_PATH, this::readOwner);
+        flows.put("PUT " + UPDATE_PATH, this::updateOwner);
+        flows.put("DELETE " + DELETE_PATH, this::deleteOwner);
+        return flows;
+    }
+
+    //CRUD
+
+    public void createOwner() {
+        OwnerPayload payload = getRandomOwnerPayload();
+        Map<String, Object> createOwnerData = payload.toMap();
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .body(payload.bytes())
+                        .when()
+                        .post(CREATE_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(201)
+                        .extract().response();
+
+        //schema constraints and field values are checked in one pass over the response body
+        SoftAssertions softly = new SoftAssertions();
+        int ownerId = assertOwner(response.asByteArray(), createOwnerData, softly).id();
+        softly.assertThat(ownerId).as("Created owner id").isNotNegative();
+
+        logger.info("Owner with id {} created", ownerId, kv(Owner.FIELD_ID, ownerId));
+        MDC.put(Owner.FIELD_ID, String.valueOf(ownerId));
+
+        createOwnerData.put(Owner.FIELD_ID, ownerId);
+        verifyOwnerInDatabase(ownerId, createOwnerData, softly);
+        softly.assertAll();
+    }
+
+    public void readOwner() {
+        Map<String, Object> readOwnerData = getRandomOwnerTestData();
+        int ownerId = createOwnerInDatabase(readOwnerData);
+        readOwnerData.put(Owner.FIELD_ID, ownerId);
+        checkOwnerData(getOwnerRecordFromDatabase(ownerId), OwnerMapper.toRecord(readOwnerData));
+
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", ownerId)
+                        .when()
+                        .get(READ_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(200)
+                        .extract().response();
+
+        SoftAssertions softly = new SoftAssertions();
+        assertOwner(response.asByteArray(), readOwnerData, softly);
+        softly.assertAll();
+    }
+
+    /*
+        Owners seeded in the database are listed by GET /owners. With compareValues they are compared by id,
+        otherwise the listing is checked with no expected owners - against schema only.
+        Owners of tests running in parallel may be listed too, they are checked against schema only either way
+     */
+    public void listOwners(boolean compareValues) {
+        Map<Integer, Map<String, Object>> expectedById = new HashMap<>();
+        for (int i = 0; i < LIST_OWNERS; i++) {
+            Map<String, Object> ownerData = getRandomOwnerTestData();
+            int ownerId = createOwnerInDatabase(ownerData);
+            ownerData.put(Owner.FIELD_ID, ownerId);
+            expectedById.put(ownerId, ownerData);
+        }
+
+        byte[] body =
+                given()
+                        .spec(requestSpec)
+                        .when()
+                        .get(LIST_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(200)
+                        .extract().asByteArray();
+
+        StreamingOwnerChecker.Result result = StreamingOwnerChecker.checkOwners(body, compareValues ? expectedById : Map.of());
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(result.violations()).as("Owner listing violations").isEmpty();
+        softly.assertThat(result.count()).as("Owners listed").isGreaterThanOrEqualTo(LIST_OWNERS);
+        softly.assertAll();
+    }
+
+    public void updateOwner() {
+        Map<String, Object> readOwnerData = getRandomOwnerTestData();
+        int ownerId = createOwnerInDatabase(readOwnerData);
+        readOwnerData.put(Owner.FIELD_ID, ownerId);
+        checkOwnerData(getOwnerRecordFromDatabase(ownerId), OwnerMapper.toRecord(readOwnerData));
+        OwnerPayload payload = getRandomOwnerPayload();
+        Map<String, Object> updateOwnerData = payload.toMap();
+
+        updateOwnerData.put(Owner.FIELD_ID, ownerId);
+
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", ownerId)
+                        .body(payload.bytes())
+                        .when()
+                        .put(UPDATE_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        //.statusCode(200) //according to Swagger it should be 200 OK with response body, but in reality it's 204 with no body
+                        .statusCode(204)
+                        //.body(SchemaRegistry.matchesSchema(ValidationUtils.OWNER_SCHEMA))
+                        .extract().response();
+        //Map<String, Object> ownerData = response.jsonPath().getMap("");
+
+        SoftAssertions softly = new SoftAssertions();
+        //assertOwnerData(ownerData, updateOwnerData, softly);
+        verifyOwnerInDatabase(ownerId, updateOwnerData, softly);
+        softly.assertAll();
+    }
+
+    public void deleteOwner() {
+        Map<String, Object> deleteOwnerData = getRandomOwnerTestData();
+        int ownerId = createOwnerInDatabase(deleteOwnerData);
+        deleteOwnerData.put(Owner.FIELD_ID, ownerId);
+        checkOwnerData(getOwnerRecordFromDatabase(ownerId), OwnerMapper.toRecord(deleteOwnerData));
+
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", ownerId)
+                        .when()
+                        .delete(DELETE_PATH)
+                        .then()
+                        .spec(noContentResponse)
+                        //.statusCode(200) //according to Swagger it should be 200 OK with response body, but in reality it's 204 with no body
+                        .statusCode(204)
+                        //.body(SchemaRegistry.matchesSchema(ValidationUtils.OWNER_SCHEMA))
+                        .extract().response();
+        //Map<String, Object> ownerData = response.jsonPath().getMap("");
+
+        SoftAssertions softly = new SoftAssertions();
+        //assertOwnerData(ownerData, deleteOwnerData, softly);
+        verifyOwnerDeleted(ownerId, softly);
+        softly.assertAll();
+    }
+
+    public void createOwnerError(OwnerPayload payload, int expectedCode) {
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .body(payload.bytes())
+                        .when()
+                        .post(CREATE_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(400)
+                        .body(SchemaRegistry.matchesSchema(ValidationUtils.API_PROBLEM_SCHEMA))
+                        .extract().response();
+
+        Map<String, Object> message = response.jsonPath().getMap("");
+
+        SoftAssertions softly = new SoftAssertions();
+
+        softly.assertThat(message.get("type")).isEqualTo( BASE_URL + BASE_API_PATH + CREATE_PATH);
+        softly.assertThat(message.get("status")).isEqualTo(expectedCode);
+
+        softly.assertAll();
+    }
+
+    //workflows
+
+    public void createReadWorkflow() {
+        SoftAssertions softly = new SoftAssertions();
+
+        Owner owner = createOwnerWithApi(softly);
+        readOwnerWithApi(owner, softly);
+
+        softly.assertAll();
+    }
+
+    public void createUpdateWorkflow() {
+        SoftAssertions softly = new SoftAssertions();
+
+        createUpdateLogic(softly);
+
+        softly.assertAll();
+    }
+
+    public void createDeleteWorkflow() {
+        SoftAssertions softly = new SoftAssertions();
+
+        Owner owner = createOwnerWithApi(softly);
+
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", owner.getId())
+                        .when()
+                        .delete(DELETE_PATH)
+                        .then()
+                        .spec(noContentResponse)
+                        //.statusCode(200) //according to Swagger it should be 200 OK with response body, but in reality it's 204 with no body
+                        .statusCode(204)
+                        //.body(SchemaRegistry.matchesSchema(ValidationUtils.OWNER_SCHEMA))
+                        .extract().response();
+        //Map<String, Object> ownerData = response.jsonPath().getMap("");
+
+        verifyOwnerDeleted(owner.getId(), softly);
+
+        softly.assertAll();
+    }
+
+    public void updateReadWorkflow() {
+        SoftAssertions softly = new SoftAssertions();
+
+        Owner updatedOwner = createUpdateLogic(softly);
+        readOwnerWithApi(updatedOwner, softly);
+
+        softly.assertAll();
+    }
+
+    private Owner createOwnerWithApi(SoftAssertions softly) {
+        OwnerPayload payload = getRandomOwnerPayload();
+        Map<String, Object> ownerData = payload.toMap();
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .body(payload.bytes())
+                        .when()
+                        .post(CREATE_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(201)
+                        .body(SchemaRegistry.matchesSchema(ValidationUtils.OWNER_SCHEMA))
+                        .extract().response();
+        Owner owner = response.jsonPath().getObject("", Owner.class);
+
+        softly.assertThat(owner.getFirstName()).isEqualTo(ownerData.get(Owner.FIELD_FIRSTNAME));
+        softly.assertThat(owner.getLastName()).isEqualTo(ownerData.get(Owner.FIELD_LASTNAME));
+        softly.assertThat(owner.getAddress()).isEqualTo(ownerData.get(Owner.FIELD_ADDRESS));
+        softly.assertThat(owner.getCity()).isEqualTo(ownerData.get(Owner.FIELD_CITY));
+        softly.assertThat(owner.getTelephone()).isEqualTo(ownerData.get(Owner.FIELD_TELEPHONE));
+
+        int ownerId = owner.getId();
+        logger.info("Owner with id {} created", ownerId);
+
+        return owner;
+    }
+
+    private void readOwnerWithApi(Owner owner, SoftAssertions softly) {
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", owner.getId())
+                        .when()
+                        .get(READ_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(200)
+                        .extract().response();
+
+        assertOwner(response.asByteArray(), owner, softly);
+    }
+
+    private OwnerRecord updateOwnerWithApi(
+            int id,
+            OwnerPayload payload,
+            Map<String, Object> updateOwnerData,
+            SoftAssertions softly,
+            boolean assertDb) {
+        updateOwnerData.put(FIELD_ID, id);
+
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", id)
+                        .body(payload.bytes())
+                        .when()
+                        .put(UPDATE_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        //.statusCode(200) //according to Swagger it should be 200 OK with response body, but in reality it's 204 with no body
+                        .statusCode(204)
+                        //.body(SchemaRegistry.matchesSchema(ValidationUtils.OWNER_SCHEMA))
+                        .extract().response();
+        //Map<String, Object> ownerData = response.jsonPath().getMap("");
+
+        //assertOwnerData(ownerData, updateOwnerData, softly);
+        if (verifier != null) {
+            verifier.expectOwner(id, updateOwnerData);
+            return null;
+        }
+        OwnerRecord updatedOwner = getOwnerRecordFromDatabase(id);
+        if (assertDb) {
+            assertOwnerDbData(updatedOwner, OwnerMapper.toRecord(updateOwnerData), softly);
+        }
+
+        return updatedOwner;
+    }
+
+    private Owner createUpdateLogic(SoftAssertions softly) {
+        Owner owner = createOwnerWithApi(softly);
+        OwnerPayload payload = getRandomOwnerPayload();
+        Map<String, Object> updateData = payload.toMap();
+        //actually according to Swagger, update should return body with updated entity, but in reality it's 204 with no body
+        OwnerRecord updatedOwner = updateOwnerWithApi(owner.getId(), payload, updateData, softly, false);
+        if (verifier != null) {
+            //database isn't read on the request path, the owner is what the update sent
+            return OwnerMapper.fromApiKeyValues(updateData);
+        }
+
+        if (updatedOwner == null) {
+            softly.fail("No id of updated owner was returned from database!");
+            //the rest of the workflow goes on with what the update sent
+            return OwnerMapper.fromApiKeyValues(updateData);
+        }
+
+        softly.assertThat(updatedOwner.id()).isEqualTo(owner.getId());
+
+        assertOwnerDbData(updatedOwner, OwnerMapper.toRecord(updateData), softly);
+
+        return OwnerMapper.fromRecord(updatedOwner);
+    }
+
+    //database state after a write, checked right away or handed over to the verifier
+    private void verifyOwnerInDatabase(int ownerId, Map<String, Object> expectedData, SoftAssertions softly) {
+        if (verifier != null) {
+            verifier.expectOwner(ownerId, expectedData);
+        } else {
+            assertOwnerDbData(getOwnerRecordFromDatabase(ownerId), OwnerMapper.toRecord(expectedData), softly);
+        }
+    }
+
+    private void verifyOwnerDeleted(int ownerId, SoftAssertions softly) {
+        if (verifier != null) {
+            verifier.expectDeleted(ownerId);
+        } else {
+            softly.assertThat(getOwnerRecordFromDatabase(ownerId)).as("Owner %d should be deleted", ownerId).isNull();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package api;
+
+import base.ApiTestBase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.DatabaseUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static config.DataConfig.GRAPH_READS;
+import static config.DataConfig.GRAPH_SHAPES;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Nested resources of an owner: GET /owners/{ownerId} returns the owner with all pets and their visits,
+    so latency and payload size grow with the graph. Every shape of DATA_GRAPH_SHAPES ("<pets>x<visits per pet>")
+    is read DATA_GRAPH_READS times and checked in full, the scaling summary is logged after the suite
+ */
+public class OwnerGraphTests extends ApiTestBase {
+    private final static Logger logger = LoggerFactory.getLogger(OwnerGraphTests.class);
+
+    //reads of every shape, ordered by pets and visits for the summary
+    private final static Map<String, List<PetFlows.GraphRead>> reads = new ConcurrentSkipListMap<>();
+
+    private final PetFlows flows = new PetFlows(requestSpec, responseSpec);
+
+    @BeforeAll
+    public static void warmUpEndpoints() {
+        new OwnerFlows(requestSpec, responseSpec).warmupFlows().forEach(ApiTestBase::warmUp);
+    }
+
+    @BeforeEach
+    public void prepareDatabase() {
+        DatabaseUtils.resetBeforeTest();
+    }
+
+    @AfterEach
+    public void cleanupDatabase() {
+        DatabaseUtils.resetAfterTest();
+    }
+
+    static Stream<Arguments> graphShapes() {
+        return Arrays.stream(GRAPH_SHAPES.split(","))
+                .map(String::trim)
+                .filter(shape -> !shape.isEmpty())
+                .map(shape -> {
+                    String[] parts = shape.split("x");
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Graph shape '%s' is not <pets>x<visits per pet>".formatted(shape));
+                    }
+                    return Arguments.of(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+                });
+    }
+
+    @ParameterizedTest(name = "pets={0}, visits per pet={1}")
+    @MethodSource("graphShapes")
+    public void readOwnerGraph(int pets, int visitsPerPet) throws Exception {
+        executeWithLogging(() -> {
+            List<PetFlows.GraphRead> shapeReads = new ArrayList<>(GRAPH_READS);
+            for (int i = 0; i < GRAPH_READS; i++) {
+                shapeReads.add(flows.readOwnerGraph(pets, visitsPerPet));
+            }
+            //zero padded key keeps the summary sorted by size of the graph
+            if (!shapeReads.isEmpty()) {
+                reads.put("%06d-%06d".formatted(pets, visitsPerPet), shapeReads);
+            }
+        }, "readOwnerGraph");
+    }
+
+    @Test
+    public void createOwnerGraphWorkflow() throws Exception {
+        executeWithLogging(flows::createOwnerGraphWorkflow, "createOwnerGraphWorkflow");
+    }
+
+    @AfterAll
+    public static void logScaling() {
+        if (reads.isEmpty()) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder("Owner graph scaling (GET /owners/{ownerId}):");
+        for (List<PetFlows.GraphRead> shapeReads : reads.values()) {
+            PetFlows.GraphRead first = shapeReads.get(0);
+            long[] durations = shapeReads.stream().mapToLong(PetFlows.GraphRead::durationNs).sorted().toArray();
+            long p50Us = TimeUnit.NANOSECONDS.toMicros(durations[(durations.length - 1) / 2]);
+            long maxUs = TimeUnit.NANOSECONDS.toMicros(durations[durations.length - 1]);
+            summary.append("%n  pets=%-4d visits/pet=%-4d p50=%8d us  max=%8d us  payload=%8d bytes"
+                    .formatted(first.pets(), first.visitsPerPet(), p50Us, maxUs, first.payloadBytes()));
+            logger.info("Owner graph shape",
+                    kv("graph_pets", first.pets()),
+                    kv("graph_visits_per_pet", first.visitsPerPet()),
+                    kv("graph_reads", durations.length),
+                    kv("graph_read_p50_us", p50Us),
+                    kv("graph_read_max_us", maxUs),
+                    kv("graph_payload_bytes", first.payloadBytes()));
+        }
+        logger.info(summary.toString());
+    }
+}
@@ -0,0 +1,185 @@
+package api;
+
+import base.ApiTestBase;
+import check.StreamingOwnerChecker;
+import data.OwnerFactory;
+import data.OwnerSeeder;
+import io.restassured.builder.ResponseSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.ResponseSpecification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import perf.TestTimings;
+import util.DatabaseUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static base.ApiConstants.LIST_PATH;
+import static config.ApiConfig.STUB_ENABLED;
+import static config.PerfConfig.*;
+import static db.DatabaseConstants.OwnerTable.LASTNAME_COL_NAME;
+import static io.restassured.RestAssured.given;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/*
+    GET /owners and last name search against growing datasets. For every size of PERF_BENCH_SIZES the database
+    is seeded with OwnerSeeder, then the listing and a search for every prefix length of PERF_BENCH_SEARCH_PREFIXES
+    (narrower prefixes - larger result sets, PetClinic-REST has no paging) are requested PERF_BENCH_READS times.
+    Latency, response bytes, returned owners and server-side time of the equivalent SQL are reported per size, along with
+    how latency grows from one size to the next: about 1 per owner returned is linear, well above it points at N+1 queries,
+    search latency growing while its result set doesn't - at a missing index.
+    Skipped unless PERF_BENCH_ENABLED is set, seeding 100k owners takes a while.
+ */
+public class OwnerListBenchmarkTests extends ApiTestBase {
+    private final static Logger logger = LoggerFactory.getLogger(OwnerListBenchmarkTests.class);
+
+    //roughly what PetClinic-REST loads in one go for owners (pets and visits are fetched eagerly)
+    private final static String LIST_SQL = """
+            SELECT o.*, p.*, v.* FROM owners o
+            LEFT JOIN pets p ON p.owner_id = o.id
+            LEFT JOIN visits v ON v.pet_id = p.id""";
+    private final static String SEARCH_SQL = LIST_SQL + "\nWHERE o." + LASTNAME_COL_NAME + " LIKE ?";
+
+    //measurements of one endpoint at one dataset size
+    private record Measurement(String endpoint, int size, long p50Ns, long maxNs, int bytes, int owners, double queryMs) {
+    }
+
+    //large listings take longer than single-owner calls, so no response time limit here
+    private final static ResponseSpecification listResponse = new ResponseSpecBuilder()
+            .expectStatusCode(200)
+            .expectContentType(ContentType.JSON)
+            .build();
+
+    @BeforeEach
+    public void prepareDatabase() {
+        DatabaseUtils.resetBeforeTest();
+    }
+
+    @AfterEach
+    public void cleanupDatabase() {
+        DatabaseUtils.resetAfterTest();
+    }
+
+    @Test
+    public void ownerListBenchmark() throws Exception {
+        assumeTrue(BENCH_ENABLED, "List/search benchmark is disabled, set PERF_BENCH_ENABLED=true to run it");
+        executeWithLogging(this::ownerListBenchmarkLogic, "ownerListBenchmark");
+    }
+
+    private void ownerListBenchmarkLogic() {
+        int[] sizes = Arrays.stream(BENCH_SIZES.split(",")).map(String::trim).filter(size -> !size.isEmpty())
+                .mapToInt(Integer::parseInt).sorted().toArray();
+        int[] prefixLengths = Arrays.stream(BENCH_SEARCH_PREFIXES.split(",")).map(String::trim)
+                .filter(length -> !length.isEmpty()).mapToInt(Integer::parseInt).toArray();
+        Map<String, List<Measurement>> byEndpoint = new LinkedHashMap<>();
+
+        int seeded = 0;
+        String lastName = null;
+        for (int size : sizes) {
+            //datasets grow incrementally, every size adds only the owners missing to it
+            OwnerSeeder.SeedResult seed = OwnerSeeder.seedOwners(size - seeded, BENCH_PETS, BENCH_VISITS);
+            if (lastName == null && seed.ownerIds().length > 0) {
+                lastName = OwnerFactory.getOwnerRecordFromDatabase(seed.ownerIds()[0]).lastName();
+            }
+            seeded = size;
+
+            Measurement list = measure("GET " + LIST_PATH, size, null, size);
+            byEndpoint.computeIfAbsent(list.endpoint(), k -> new ArrayList<>()).add(list);
+            if (lastName == null) {
+                continue;
+            }
+            for (int length : prefixLengths) {
+                String prefix = lastName.substring(0, Math.min(length, lastName.length()));
+                Measurement search = measure("GET " + LIST_PATH + "?lastName=[" + length + "]", size, prefix,
+                        OwnerFactory.countOwnersByLastNamePrefix(prefix));
+                byEndpoint.computeIfAbsent(search.endpoint(), k -> new ArrayList<>()).add(search);
+            }
+        }
+        logScaling(byEndpoint);
+    }
+
+    private Measurement measure(String endpoint, int size, String lastNamePrefix, int expectedOwners) {
+        String timingName = "%s [owners=%d]".formatted(endpoint, size);
+        long[] durations = new long[BENCH_READS];
+        byte[] body = new byte[0];
+        for (int i = 0; i < BENCH_READS; i++) {
+            RequestSpecification request = given().spec(requestSpec);
+            if (lastNamePrefix != null) {
+                request.queryParam("lastName", lastNamePrefix);
+            }
+            long start = System.nanoTime();
+            body = request
+                    .when()
+                    .get(LIST_PATH)
+                    .then()
+                    .spec(listResponse)
+                    .extract().asByteArray();
+            durations[i] = System.nanoTime() - start;
+            TestTimings.global().record(timingName, durations[i]);
+        }
+
+        //schema of every owner, values of seeded data aren't kept around
+        StreamingOwnerChecker.Result result = StreamingOwnerChecker.checkOwners(body, null);
+        assertThat(result.violations()).as(timingName + " violations").isEmpty();
+        assertThat(result.count()).as(timingName + " owners").isEqualTo(expectedOwners);
+
+        double queryMs = STUB_ENABLED ? Double.NaN : lastNamePrefix == null
+                ? DatabaseUtils.explainAnalyzeMs(LIST_SQL)
+                : DatabaseUtils.explainAnalyzeMs(SEARCH_SQL, lastNamePrefix + "%");
+        Arrays.sort(durations);
+        Measurement measurement = new Measurement(endpoint, size, durations.length == 0 ? 0 : durations[(durations.length - 1) / 2],
+                durations.length == 0 ? 0 : durations[durations.length - 1], body.length, result.count(), queryMs);
+        logger.info("{}: p50 {} ms, {} bytes, {} owners", timingName, TimeUnit.NANOSECONDS.toMillis(measurement.p50Ns()),
+                measurement.bytes(), measurement.owners(),
+                kv("bench_endpoint", endpoint),
+                kv("bench_size", size),
+                kv("bench_p50_ms", measurement.p50Ns() / 1e6),
+                kv("bench_max_ms", measurement.maxNs() / 1e6),
+                kv("bench_response_bytes", measurement.bytes()),
+                kv("bench_owners_returned", measurement.owners()),
+                kv("bench_query_ms", queryMs));
+        return measurement;
+    }
+
+    /*
+        Growth is the exponent k of latency ~ returned owners^k between consecutive sizes, so it doesn't depend on how
+        far apart the sizes are; searches returning the same owners at both sizes get none (their latency should stay flat)
+     */
+    private static void logScaling(Map<String, List<Measurement>> byEndpoint) {
+        StringBuilder summary = new StringBuilder("Owner list/search scaling:");
+        for (Map.Entry<String, List<Measurement>> entry : byEndpoint.entrySet()) {
+            summary.append("%n  %s".formatted(entry.getKey()));
+            Measurement previous = null;
+            for (Measurement measurement : entry.getValue()) {
+                double growth = previous == null || previous.owners() == measurement.owners()
+                        || previous.owners() == 0 || previous.p50Ns() == 0 ? Double.NaN
+                        : Math.log((double) measurement.p50Ns() / previous.p50Ns())
+                        / Math.log((double) measurement.owners() / previous.owners());
+                summary.append("%n    owners=%-8d returned=%-8d p50=%9.2f ms  max=%9.2f ms  bytes=%-10d query=%8.2f ms  growth=%5.2f"
+                        .formatted(measurement.size(), measurement.owners(), measurement.p50Ns() / 1e6, measurement.maxNs() / 1e6,
+                                measurement.bytes(), measurement.queryMs(), growth));
+                logger.info("Owner list scaling",
+                        kv("bench_endpoint", measurement.endpoint()),
+                        kv("bench_size", measurement.size()),
+                        kv("bench_owners_returned", measurement.owners()),
+                        kv("bench_p50_ms", measurement.p50Ns() / 1e6),
+                        kv("bench_response_bytes", measurement.bytes()),
+                        kv("bench_query_ms", measurement.queryMs()),
+                        kv("bench_growth", growth));
+                previous = measurement;
+            }
+        }
+        logger.info(summary.toString());
+    }
+}
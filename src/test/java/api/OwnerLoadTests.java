@@ -0,0 +1,108 @@
+package api;
+
+import base.ApiTestBase;
+import base.PooledHttpClient;
+import base.TestLogic;
+import check.AsyncOwnerVerifier;
+import config.ApiConfig;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+import load.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import perf.LatencyRecorder;
+import perf.LatencySla;
+import perf.SlaEvaluator;
+import util.DatabaseUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static config.ApiConfig.LATENCY_SLA;
+import static config.ApiConfig.LATENCY_SLA_MIN_SAMPLES;
+import static config.LoadConfig.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/*
+    Fires the owner CRUD flows and workflows as weighted scenarios at PetClinic-REST.
+    Skipped unless LOAD_ENABLED is set, profile and scenario weights are taken from LoadConfig.
+ */
+public class OwnerLoadTests extends ApiTestBase {
+
+    @BeforeEach
+    public void prepareDatabase() {
+        DatabaseUtils.resetBeforeTest();
+    }
+
+    @AfterEach
+    public void cleanupDatabase() {
+        DatabaseUtils.resetAfterTest();
+    }
+
+    @Test
+    public void ownerLoad() throws Exception {
+        assumeTrue(ENABLED, "Load run is disabled, set LOAD_ENABLED=true to run it");
+        executeWithLogging(this::ownerLoadLogic, "ownerLoad");
+    }
+
+    private void ownerLoadLogic() throws InterruptedException {
+        LoadStats stats = new LoadStats();
+        //pool of its own, sized for the load, the shared one of the tests stays as configured
+        PooledHttpClient loadHttpClient = new PooledHttpClient("load", HTTP_MAX_CONNECTIONS, HTTP_MAX_CONNECTIONS,
+                HTTP_LEASE_TIMEOUT_MS, ApiConfig.HTTP_KEEP_ALIVE_MS, ApiConfig.HTTP_IDLE_EVICT_MS,
+                ApiConfig.HTTP_CONNECT_TIMEOUT_MS, ApiConfig.HTTP_SOCKET_TIMEOUT_MS);
+        AsyncOwnerVerifier verifier = VERIFY_ASYNC
+                ? new AsyncOwnerVerifier(VERIFY_BATCH_SIZE, VERIFY_INTERVAL_MS, VERIFY_DELAY_MS)
+                : null;
+        try {
+            RequestSpecification loadSpec = new RequestSpecBuilder()
+                    .addRequestSpecification(requestSpec)
+                    .setConfig(loadHttpClient.getConfig())
+                    .addFilter(new EndpointStatsFilter(stats))
+                    .build();
+            runScenarios(stats, new OwnerFlows(loadSpec, responseSpec, verifier), new PetFlows(loadSpec, responseSpec));
+        } finally {
+            loadHttpClient.shutdown();
+            if (verifier != null) {
+                verifier.close();
+            }
+        }
+        //mismatches found off the request path fail the run only once it's over
+        if (verifier != null) {
+            verifier.assertAll();
+        }
+    }
+
+    private void runScenarios(LoadStats stats, OwnerFlows flows, PetFlows petFlows) throws InterruptedException {
+
+        Map<String, TestLogic> available = Map.of(
+                "create", flows::createOwner,
+                "read", flows::readOwner,
+                "update", flows::updateOwner,
+                "delete", flows::deleteOwner,
+                "createRead", flows::createReadWorkflow,
+                "createUpdate", flows::createUpdateWorkflow,
+                "createDelete", flows::createDeleteWorkflow,
+                "updateRead", flows::updateReadWorkflow,
+                "graphRead", petFlows::readOwnerGraph,
+                "createGraph", petFlows::createOwnerGraphWorkflow);
+        List<Scenario> scenarios = new ArrayList<>();
+        for (Map.Entry<String, Integer> weight : Scenario.parseWeights(SCENARIOS).entrySet()) {
+            TestLogic logic = available.get(weight.getKey());
+            if (logic == null) {
+                throw new IllegalArgumentException("Unknown load scenario '%s', available: %s".formatted(weight.getKey(), available.keySet()));
+            }
+            scenarios.add(new Scenario(weight.getKey(), weight.getValue(), logic));
+        }
+
+        LoadReport report = new LoadRunner(scenarios, LoadProfile.fromConfig(), stats).run();
+
+        assertThat(report.getErrorRate(LoadPhase.STEADY))
+                .as("Steady state error rate")
+                .isLessThanOrEqualTo(MAX_ERROR_RATE);
+        SlaEvaluator.assertSlas(LatencyRecorder.global(), LatencySla.parse(LATENCY_SLA, LATENCY_SLA_MIN_SAMPLES));
+    }
+}
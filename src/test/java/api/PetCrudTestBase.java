@@ -0,0 +1,33 @@
+package api;
+
+import base.ApiTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import util.DatabaseUtils;
+
+/*
+    Lifecycle shared by CrudPetTests, CrudVisitTests and CrudPetTypeTests: endpoints of PetFlows are warmed up
+    before the suite and the database is reset around every test, suites only map their tests to flows
+ */
+abstract class PetCrudTestBase extends ApiTestBase {
+
+    //test logic lives in PetFlows so that load scenarios can reuse it
+    protected final PetFlows flows = new PetFlows(requestSpec, responseSpec);
+
+    //warmup is done once per endpoint, suites after the first one find their endpoints warm already
+    @BeforeAll
+    public static void warmUpEndpoints() {
+        new PetFlows(requestSpec, responseSpec).warmupFlows().forEach(ApiTestBase::warmUp);
+    }
+
+    @BeforeEach
+    public void prepareDatabase() {
+        DatabaseUtils.resetBeforeTest();
+    }
+
+    @AfterEach
+    public void cleanupDatabase() {
+        DatabaseUtils.resetAfterTest();
+    }
+}
@@ -0,0 +1,483 @@
+package api;
+
+import base.TestLogic;
+import data.DataScope;
+import data.OwnerPayload;
+import io.restassured.builder.ResponseSpecBuilder;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.ResponseSpecification;
+import model.Owner;
+import model.Pet;
+import model.PetType;
+import model.Visit;
+import org.assertj.core.api.SoftAssertions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import perf.MetricsRegistry;
+import perf.TestTimings;
+import util.JsonUtils;
+import util.SchemaRegistry;
+import util.ValidationUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static base.ApiConstants.*;
+import static check.PetChecker.*;
+import static check.StreamingOwnerChecker.assertOwner;
+import static config.ApiConfig.RESPONSE_TIME_THRESHOLD;
+import static config.DataConfig.GRAPH_PETS;
+import static config.DataConfig.GRAPH_VISITS;
+import static data.OwnerFactory.*;
+import static data.PetFactory.*;
+import static io.restassured.RestAssured.given;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+import static org.hamcrest.Matchers.lessThan;
+
+/*
+    Pet, visit and pet type CRUD operations and nested-resource workflows shared by the pet suites, OwnerGraphTests
+    and load scenarios. Like OwnerFlows, every method is a complete, self-contained flow.
+ */
+public class PetFlows {
+    private final static Logger logger = LoggerFactory.getLogger(PetFlows.class);
+
+    private final RequestSpecification requestSpec;
+    private final ResponseSpecification responseSpec;
+    private final ResponseSpecification noContentResponse;
+
+    //latency and body size of one GET /owners/{ownerId} of an owner graph
+    public record GraphRead(int pets, int visitsPerPet, long durationNs, int payloadBytes) {
+    }
+
+    public PetFlows(RequestSpecification requestSpec, ResponseSpecification responseSpec) {
+        this.requestSpec = requestSpec;
+        this.responseSpec = responseSpec;
+        this.noContentResponse = new ResponseSpecBuilder()
+                .expectResponseTime(lessThan(RESPONSE_TIME_THRESHOLD), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    //first request of every endpoint pays for class loading and JIT, see ApiTestBase.warmUp()
+    public Map<String, TestLogic> warmupFlows() {
+        Map<String, TestLogic> flows = new LinkedHashMap<>();
+        flows.put("POST " + OWNER_PETS_PATH, this::createPet);
+        flows.put("GET " + OWNER_PET_PATH, this::readPet);
+        flows.put("PUT " + OWNER_PET_PATH, this::updatePet);
+        flows.put("DELETE " + PET_PATH, this::deletePet);
+        flows.put("POST " + PET_VISITS_PATH, this::createVisit);
+        flows.put("GET " + VISIT_PATH, this::readVisit);
+        flows.put("PUT " + VISIT_PATH, this::updateVisit);
+        flows.put("DELETE " + VISIT_PATH, this::deleteVisit);
+        flows.put("POST " + PET_TYPES_PATH, this::createPetType);
+        flows.put("GET " + PET_TYPE_PATH, this::readPetType);
+        flows.put("PUT " + PET_TYPE_PATH, this::updatePetType);
+        flows.put("DELETE " + PET_TYPE_PATH, this::deletePetType);
+        return flows;
+    }
+
+    //pets
+
+    public void createPet() {
+        int ownerId = createOwnerInDatabase(getRandomOwnerTestData());
+        Map<String, Object> petType = preparePetType();
+        Map<String, Object> payload = toPetPayload(getRandomPetTestData(), petType);
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", ownerId)
+                        .body(JsonUtils.toBytes(payload))
+                        .when()
+                        .post(OWNER_PETS_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(201)
+                        .body(SchemaRegistry.matchesSchema(ValidationUtils.PET_SCHEMA))
+                        .extract().response();
+
+        Map<String, Object> expected = new HashMap<>(payload);
+        expected.put(Pet.FIELD_OWNERID, ownerId);
+        expected.put(Pet.FIELD_VISITS, List.of());
+        SoftAssertions softly = new SoftAssertions();
+        Map<String, Object> pet = JsonUtils.toMap(response.asByteArray());
+        assertPetData(pet, expected, softly);
+        expected.put(Pet.FIELD_ID, pet.get(Pet.FIELD_ID));
+        assertPetDbData(getPetDataFromDatabase((int) pet.get(Pet.FIELD_ID)), expected, softly);
+        softly.assertAll();
+    }
+
+    public void readPet() {
+        Map<String, Object> expected = preparePet();
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", expected.get(Pet.FIELD_OWNERID))
+                        .pathParam("petId", expected.get(Pet.FIELD_ID))
+                        .when()
+                        .get(OWNER_PET_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(200)
+                        .body(SchemaRegistry.matchesSchema(ValidationUtils.PET_SCHEMA))
+                        .extract().response();
+
+        SoftAssertions softly = new SoftAssertions();
+        assertPetData(JsonUtils.toMap(response.asByteArray()), expected, softly);
+        softly.assertAll();
+    }
+
+    public void updatePet() {
+        Map<String, Object> prepared = preparePet();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> payload = toPetPayload(getRandomPetTestData(), (Map<String, Object>) prepared.get(Pet.FIELD_TYPE));
+        given()
+                .spec(requestSpec)
+                .pathParam("ownerId", prepared.get(Pet.FIELD_OWNERID))
+                .pathParam("petId", prepared.get(Pet.FIELD_ID))
+                .body(JsonUtils.toBytes(payload))
+                .when()
+                .put(OWNER_PET_PATH)
+                .then()
+                .spec(responseSpec)
+                //same as owners, 204 without body instead of 200 from Swagger
+                .statusCode(204);
+
+        Map<String, Object> expected = new HashMap<>(payload);
+        expected.put(Pet.FIELD_ID, prepared.get(Pet.FIELD_ID));
+        expected.put(Pet.FIELD_OWNERID, prepared.get(Pet.FIELD_OWNERID));
+        SoftAssertions softly = new SoftAssertions();
+        assertPetDbData(getPetDataFromDatabase((int) prepared.get(Pet.FIELD_ID)), expected, softly);
+        softly.assertAll();
+    }
+
+    public void deletePet() {
+        Map<String, Object> prepared = preparePet();
+        given()
+                .spec(requestSpec)
+                .pathParam("petId", prepared.get(Pet.FIELD_ID))
+                .when()
+                .delete(PET_PATH)
+                .then()
+                .spec(noContentResponse)
+                .statusCode(204);
+
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(getPetDataFromDatabase((int) prepared.get(Pet.FIELD_ID))).hasSize(0);
+        softly.assertAll();
+    }
+
+    //visits
+
+    public void createVisit() {
+        Map<String, Object> pet = preparePet();
+        Map<String, Object> payload = getRandomVisitTestData();
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", pet.get(Pet.FIELD_OWNERID))
+                        .pathParam("petId", pet.get(Pet.FIELD_ID))
+                        .body(JsonUtils.toBytes(payload))
+                        .when()
+                        .post(PET_VISITS_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(201)
+                        .body(SchemaRegistry.matchesSchema(ValidationUtils.VISIT_SCHEMA))
+                        .extract().response();
+
+        Map<String, Object> expected = new HashMap<>(payload);
+        expected.put(Visit.FIELD_PETID, pet.get(Pet.FIELD_ID));
+        SoftAssertions softly = new SoftAssertions();
+        Map<String, Object> visit = JsonUtils.toMap(response.asByteArray());
+        assertVisitData(visit, expected, softly);
+        expected.put(Visit.FIELD_ID, visit.get(Visit.FIELD_ID));
+        assertVisitDbData(getVisitDataFromDatabase((int) visit.get(Visit.FIELD_ID)), expected, softly);
+        softly.assertAll();
+    }
+
+    public void readVisit() {
+        Map<String, Object> expected = prepareVisit();
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("visitId", expected.get(Visit.FIELD_ID))
+                        .when()
+                        .get(VISIT_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(200)
+                        .body(SchemaRegistry.matchesSchema(ValidationUtils.VISIT_SCHEMA))
+                        .extract().response();
+
+        SoftAssertions softly = new SoftAssertions();
+        assertVisitData(JsonUtils.toMap(response.asByteArray()), expected, softly);
+        softly.assertAll();
+    }
+
+    public void updateVisit() {
+        Map<String, Object> prepared = prepareVisit();
+        Map<String, Object> payload = getRandomVisitTestData();
+        given()
+                .spec(requestSpec)
+                .pathParam("visitId", prepared.get(Visit.FIELD_ID))
+                .body(JsonUtils.toBytes(payload))
+                .when()
+                .put(VISIT_PATH)
+                .then()
+                .spec(responseSpec)
+                .statusCode(204);
+
+        Map<String, Object> expected = new HashMap<>(payload);
+        expected.put(Visit.FIELD_ID, prepared.get(Visit.FIELD_ID));
+        expected.put(Visit.FIELD_PETID, prepared.get(Visit.FIELD_PETID));
+        SoftAssertions softly = new SoftAssertions();
+        assertVisitDbData(getVisitDataFromDatabase((int) prepared.get(Visit.FIELD_ID)), expected, softly);
+        softly.assertAll();
+    }
+
+    public void deleteVisit() {
+        Map<String, Object> prepared = prepareVisit();
+        given()
+                .spec(requestSpec)
+                .pathParam("visitId", prepared.get(Visit.FIELD_ID))
+                .when()
+                .delete(VISIT_PATH)
+                .then()
+                .spec(noContentResponse)
+                .statusCode(204);
+
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(getVisitDataFromDatabase((int) prepared.get(Visit.FIELD_ID))).hasSize(0);
+        softly.assertAll();
+    }
+
+    //pet types
+
+    public void createPetType() {
+        Map<String, Object> payload = getRandomPetTypeTestData();
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .body(JsonUtils.toBytes(payload))
+                        .when()
+                        .post(PET_TYPES_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(201)
+                        .body(SchemaRegistry.matchesSchema(ValidationUtils.PET_TYPE_SCHEMA))
+                        .extract().response();
+
+        Map<String, Object> expected = new HashMap<>(payload);
+        SoftAssertions softly = new SoftAssertions();
+        Map<String, Object> petType = JsonUtils.toMap(response.asByteArray());
+        //created by the application, registered for scoped cleanup like types seeded through the database
+        DataScope.trackPetType((int) petType.get(PetType.FIELD_ID));
+        assertPetTypeData(petType, expected, softly);
+        expected.put(PetType.FIELD_ID, petType.get(PetType.FIELD_ID));
+        assertPetTypeDbData(getPetTypeDataFromDatabase((int) petType.get(PetType.FIELD_ID)), expected, softly);
+        softly.assertAll();
+    }
+
+    public void readPetType() {
+        Map<String, Object> expected = preparePetType();
+        Response response =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("petTypeId", expected.get(PetType.FIELD_ID))
+                        .when()
+                        .get(PET_TYPE_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(200)
+                        .body(SchemaRegistry.matchesSchema(ValidationUtils.PET_TYPE_SCHEMA))
+                        .extract().response();
+
+        SoftAssertions softly = new SoftAssertions();
+        assertPetTypeData(JsonUtils.toMap(response.asByteArray()), expected, softly);
+        softly.assertAll();
+    }
+
+    public void updatePetType() {
+        Map<String, Object> prepared = preparePetType();
+        Map<String, Object> payload = getRandomPetTypeTestData();
+        given()
+                .spec(requestSpec)
+                .pathParam("petTypeId", prepared.get(PetType.FIELD_ID))
+                .body(JsonUtils.toBytes(payload))
+                .when()
+                .put(PET_TYPE_PATH)
+                .then()
+                .spec(responseSpec)
+                .statusCode(204);
+
+        Map<String, Object> expected = new HashMap<>(payload);
+        expected.put(PetType.FIELD_ID, prepared.get(PetType.FIELD_ID));
+        SoftAssertions softly = new SoftAssertions();
+        assertPetTypeDbData(getPetTypeDataFromDatabase((int) prepared.get(PetType.FIELD_ID)), expected, softly);
+        softly.assertAll();
+    }
+
+    public void deletePetType() {
+        Map<String, Object> prepared = preparePetType();
+        given()
+                .spec(requestSpec)
+                .pathParam("petTypeId", prepared.get(PetType.FIELD_ID))
+                .when()
+                .delete(PET_TYPE_PATH)
+                .then()
+                .spec(noContentResponse)
+                .statusCode(204);
+
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(getPetTypeDataFromDatabase((int) prepared.get(PetType.FIELD_ID))).hasSize(0);
+        softly.assertAll();
+    }
+
+    //nested-resource workflows
+
+    //owner graph of DATA_GRAPH_PETS pets with DATA_GRAPH_VISITS visits each, built through the API and read back
+    public void createOwnerGraphWorkflow() {
+        SoftAssertions softly = new SoftAssertions();
+        OwnerPayload ownerPayload = getRandomOwnerPayload();
+        Map<String, Object> owner = new HashMap<>(ownerPayload.toMap());
+        Response ownerResponse =
+                given()
+                        .spec(requestSpec)
+                        .body(ownerPayload.bytes())
+                        .when()
+                        .post(CREATE_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(201)
+                        .extract().response();
+        int ownerId = assertOwner(ownerResponse.asByteArray(), owner, softly).id();
+        owner.put(Owner.FIELD_ID, ownerId);
+
+        Map<String, Object> petType = preparePetType();
+        List<Map<String, Object>> pets = new ArrayList<>(GRAPH_PETS);
+        for (int p = 0; p < GRAPH_PETS; p++) {
+            Map<String, Object> pet = new LinkedHashMap<>(toPetPayload(getRandomPetTestData(), petType));
+            Map<String, Object> createdPet = JsonUtils.toMap(
+                    given()
+                            .spec(requestSpec)
+                            .pathParam("ownerId", ownerId)
+                            .body(JsonUtils.toBytes(pet))
+                            .when()
+                            .post(OWNER_PETS_PATH)
+                            .then()
+                            .spec(responseSpec)
+                            .statusCode(201)
+                            .extract().asByteArray());
+            int petId = (int) createdPet.get(Pet.FIELD_ID);
+            pet.put(Pet.FIELD_ID, petId);
+            pet.put(Pet.FIELD_OWNERID, ownerId);
+            List<Map<String, Object>> visits = new ArrayList<>(GRAPH_VISITS);
+            for (int v = 0; v < GRAPH_VISITS; v++) {
+                Map<String, Object> visit = getRandomVisitTestData();
+                Map<String, Object> createdVisit = JsonUtils.toMap(
+                        given()
+                                .spec(requestSpec)
+                                .pathParam("ownerId", ownerId)
+                                .pathParam("petId", petId)
+                                .body(JsonUtils.toBytes(visit))
+                                .when()
+                                .post(PET_VISITS_PATH)
+                                .then()
+                                .spec(responseSpec)
+                                .statusCode(201)
+                                .extract().asByteArray());
+                visit.put(Visit.FIELD_ID, createdVisit.get(Visit.FIELD_ID));
+                visit.put(Visit.FIELD_PETID, petId);
+                visits.add(visit);
+            }
+            pet.put(Pet.FIELD_VISITS, visits);
+            pets.add(pet);
+        }
+        owner.put(Owner.FIELD_PETS, pets);
+
+        readOwnerGraphWithApi(owner, softly);
+        softly.assertAll();
+    }
+
+    //owner graph of DATA_GRAPH_PETS pets with DATA_GRAPH_VISITS visits each prepared in the database, read through the API
+    public void readOwnerGraph() {
+        readOwnerGraph(GRAPH_PETS, GRAPH_VISITS);
+    }
+
+    /*
+        Reads an owner graph of the given shape prepared in the database. Duration of the request is recorded
+        as test timing of its own for every shape (so baselines and regression checks cover it), payload size
+        as a metric
+     */
+    public GraphRead readOwnerGraph(int pets, int visitsPerPet) {
+        Map<String, Object> owner = createOwnerGraphInDatabase(pets, visitsPerPet);
+        SoftAssertions softly = new SoftAssertions();
+        long start = System.nanoTime();
+        byte[] body = readOwnerGraphWithApi(owner, softly);
+        long durationNs = System.nanoTime() - start;
+        softly.assertAll();
+
+        String shape = "pets=%d,visits=%d".formatted(pets, visitsPerPet);
+        TestTimings.global().record("GET " + READ_PATH + " [" + shape + "]", durationNs);
+        MetricsRegistry.global().gauge("petclinic_owner_graph_payload_bytes", "Body size of GET /owners/{ownerId} by graph shape",
+                () -> body.length, "pets", String.valueOf(pets), "visits", String.valueOf(visitsPerPet));
+        logger.debug("Owner graph {} read in {} us, {} bytes", shape, TimeUnit.NANOSECONDS.toMicros(durationNs), body.length,
+                kv("graph_pets", pets),
+                kv("graph_visits_per_pet", visitsPerPet),
+                kv("graph_read_duration_ns", durationNs),
+                kv("graph_payload_bytes", body.length));
+        return new GraphRead(pets, visitsPerPet, durationNs, body.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] readOwnerGraphWithApi(Map<String, Object> owner, SoftAssertions softly) {
+        byte[] body =
+                given()
+                        .spec(requestSpec)
+                        .pathParam("ownerId", owner.get(Owner.FIELD_ID))
+                        .when()
+                        .get(READ_PATH)
+                        .then()
+                        .spec(responseSpec)
+                        .statusCode(200)
+                        .extract().asByteArray();
+        //schema and owner fields in one pass, nested values on the parsed body
+        assertOwner(body, owner, softly);
+        assertPets(JsonUtils.toMap(body).get(Owner.FIELD_PETS), (List<Map<String, Object>>) owner.get(Owner.FIELD_PETS),
+                "owner." + Owner.FIELD_PETS, softly);
+        return body;
+    }
+
+    //data preparation, straight in the database
+
+    private static Map<String, Object> preparePetType() {
+        Map<String, Object> petType = getRandomPetTypeTestData();
+        petType.put(PetType.FIELD_ID, createPetTypeInDatabase(petType));
+        return petType;
+    }
+
+    //pet of a new owner, in API form
+    private static Map<String, Object> preparePet() {
+        int ownerId = createOwnerInDatabase(getRandomOwnerTestData());
+        Map<String, Object> petType = preparePetType();
+        Map<String, Object> pet = getRandomPetTestData();
+        pet.put(Pet.FIELD_ID, createPetInDatabase(pet, (int) petType.get(PetType.FIELD_ID), ownerId));
+        pet.put(Pet.FIELD_OWNERID, ownerId);
+        pet.put(Pet.FIELD_TYPE, petType);
+        pet.put(Pet.FIELD_VISITS, List.of());
+        return pet;
+    }
+
+    private static Map<String, Object> prepareVisit() {
+        Map<String, Object> pet = preparePet();
+        Map<String, Object> visit = getRandomVisitTestData();
+        int petId = (int) pet.get(Pet.FIELD_ID);
+        visit.put(Visit.FIELD_ID, createVisitInDatabase(visit, petId));
+        visit.put(Visit.FIELD_PETID, petId);
+        return visit;
+    }
+}
@@ -5,4 +5,18 @@ public class ApiConstants {
     public final static String READ_PATH = "/owners/{ownerId}";
     public final static String UPDATE_PATH = "/owners/{ownerId}";
     public final static String DELETE_PATH = "/owners/{ownerId}";
+    //all owners, or those with last name starting with the lastName query parameter
+    public final static String LIST_PATH = "/owners";
+
+    //pets are created and read through their owner, deleted directly
+    public final static String OWNER_PETS_PATH = "/owners/{ownerId}/pets";
+    public final static String OWNER_PET_PATH = "/owners/{ownerId}/pets/{petId}";
+    public final static String PET_PATH = "/pets/{petId}";
+
+    //visits are created through their pet, read, updated and deleted directly
+    public final static String PET_VISITS_PATH = "/owners/{ownerId}/pets/{petId}/visits";
+    public final static String VISIT_PATH = "/visits/{visitId}";
+
+    public final static String PET_TYPES_PATH = "/pettypes";
+    public final static String PET_TYPE_PATH = "/pettypes/{petTypeId}";
 }
@@ -1,17 +1,28 @@
 package base;
 
-import io.restassured.RestAssured;
+import data.DataScope;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.builder.ResponseSpecBuilder;
 import io.restassured.http.ContentType;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.ResponseSpecification;
 import org.junit.jupiter.api.BeforeAll;
-import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import perf.LatencyFilter;
+import perf.LatencyRecorder;
+import perf.MetricsRegistry;
+import perf.MetricsServer;
+import perf.PerformanceExtension;
+import perf.QueryProfiler;
+import perf.TestTimings;
+import perf.WarmupController;
+import stub.PetClinicStub;
+import util.DatabaseUtils;
 
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -20,40 +31,91 @@ import static config.ApiConfig.*;
 import static net.logstash.logback.argument.StructuredArguments.kv;
 import static org.hamcrest.Matchers.lessThan;
 
+@ExtendWith(PerformanceExtension.class)
 public class ApiTestBase {
     private final static Logger logger = LoggerFactory.getLogger(ApiTestBase.class);
-    protected static RequestSpecification requestSpec;
-    protected static ResponseSpecification responseSpec;
-
-    @BeforeEach
-    public void setupRestAssuredLogging() {
-        RestAssured.filters(new Slf4JLoggingFilter());
-    }
+    //built once and only read afterward, so specifications can be shared by tests running in parallel
+    protected static volatile RequestSpecification requestSpec;
+    protected static volatile ResponseSpecification responseSpec;
+    //one pool of kept-alive connections for all tests, REST Assured would otherwise open a connection per request
+    protected static volatile PooledHttpClient httpClient;
 
     @BeforeAll
     public static void init() {
-        requestSpec = new RequestSpecBuilder()
-                .setBaseUri(BASE_URL)
-                .setBasePath(BASE_API_PATH)
-                .setContentType(ContentType.JSON)
-                .setAccept(ContentType.JSON)
-                .build();
-        responseSpec = new ResponseSpecBuilder()
-                .expectContentType(ContentType.JSON)
-                .expectResponseTime(lessThan(RESPONSE_TIME_THRESHOLD), TimeUnit.MILLISECONDS)
-                .build();
+        if (requestSpec != null) {
+            return;
+        }
+        synchronized (ApiTestBase.class) {
+            if (requestSpec != null) {
+                return;
+            }
+            if (STUB_ENABLED) {
+                PetClinicStub.startShared();
+            }
+            MetricsServer.startShared();
+            httpClient = new PooledHttpClient("api", HTTP_MAX_CONNECTIONS, HTTP_MAX_PER_ROUTE, HTTP_LEASE_TIMEOUT_MS,
+                    HTTP_KEEP_ALIVE_MS, HTTP_IDLE_EVICT_MS, HTTP_CONNECT_TIMEOUT_MS, HTTP_SOCKET_TIMEOUT_MS);
+            Runtime.getRuntime().addShutdownHook(new Thread(httpClient::shutdown, "http-client-shutdown"));
+            //filters are attached to the specification instead of global RestAssured.filters(...),
+            //which is shared mutable state and used to get another filter instance for every test
+            responseSpec = new ResponseSpecBuilder()
+                    .expectContentType(ContentType.JSON)
+                    .expectResponseTime(lessThan(RESPONSE_TIME_THRESHOLD), TimeUnit.MILLISECONDS)
+                    .build();
+            requestSpec = new RequestSpecBuilder()
+                    .setBaseUri(BASE_URL)
+                    .setBasePath(BASE_API_PATH)
+                    .setConfig(httpClient.getConfig())
+                    .setContentType(ContentType.JSON)
+                    .setAccept(ContentType.JSON)
+                    .addFilter(new DirtyTrackingFilter())
+                    .addFilter(new Slf4JLoggingFilter())
+                    //innermost, so that only the HTTP exchange is timed
+                    .addFilter(new LatencyFilter(LatencyRecorder.global()))
+                    .build();
+        }
+    }
+
+    /*
+        Warms up the endpoint by repeating the flow calling it, see WarmupController. Meant for @BeforeAll of suites,
+        the database is reset around the whole warmup the same way as around a test
+     */
+    protected static void warmUp(String endpoint, TestLogic flow) {
+        DatabaseUtils.resetBeforeTest();
+        try {
+            WarmupController.global().warmUp(endpoint, flow);
+        } finally {
+            DatabaseUtils.resetAfterTest();
+        }
+    }
+
+    private static void recordMetrics(String testName, TestStatus status, long durationNs) {
+        MetricsRegistry metrics = MetricsRegistry.global();
+        metrics.counter("petclinic_tests_total", "Executed tests by status", "status", status.toString()).increment();
+        metrics.timer("petclinic_test_duration_seconds", "Test durations", "test", testName, "status", status.toString())
+                .record(durationNs);
     }
 
     protected void executeWithLogging(TestLogic testLogic, String testName) throws Exception {
+        //MDC is thread-bound, context of the calling thread is restored afterward instead of being wiped
+        Map<String, String> previousContext = MDC.getCopyOfContextMap();
         MDC.put("test_id", UUID.randomUUID().toString());
+        DataScope scope = DataScope.current();
+        if (scope != null) {
+            MDC.put("test_scope", scope.getPrefix());
+        }
         TestStatus status = SUCCESS;
         long start = 0, durationNs, durationMs;
+        //SQL the test caused on the server, logged with its test_id
+        QueryProfiler.Capture queryCapture = QueryProfiler.global().begin(testName);
         try {
             logger.info("Start test {}", testName);
             start = System.nanoTime();
             testLogic.run();
             durationNs = System.nanoTime() - start;
             durationMs = TimeUnit.NANOSECONDS.toMillis(durationNs);
+            TestTimings.global().record(testName, durationNs);
+            recordMetrics(testName, status, durationNs);
             //for Loki
             MDC.put("test_duration_ms", String.valueOf(durationMs));
             MDC.put("test_status", status.toString());
@@ -66,6 +128,7 @@ public class ApiTestBase {
             durationNs = System.nanoTime() - start;
             durationMs = TimeUnit.NANOSECONDS.toMillis(durationNs);
             status = FAILED;
+            recordMetrics(testName, status, durationNs);
             //for Loki
             MDC.put("test_duration_ms", String.valueOf(durationMs));
             MDC.put("test_status", status.toString());
@@ -79,6 +142,7 @@ public class ApiTestBase {
             durationNs = System.nanoTime() - start;
             durationMs = TimeUnit.NANOSECONDS.toMillis(durationNs);
             status = ERROR;
+            recordMetrics(testName, status, durationNs);
             //for Loki
             MDC.put("test_duration_ms", String.valueOf(durationMs));
             MDC.put("test_status", status.toString());
@@ -89,7 +153,12 @@ public class ApiTestBase {
             );
             throw e;
         } finally {
-            MDC.clear();
+            QueryProfiler.global().end(queryCapture);
+            if (previousContext == null) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(previousContext);
+            }
         }
     }
 }
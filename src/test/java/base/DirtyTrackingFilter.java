@@ -0,0 +1,56 @@
+package base;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import util.DatabaseUtils;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static base.ApiConstants.*;
+
+//marks tables possibly changed by the application so that dirty tracking database reset cleans them
+public class DirtyTrackingFilter implements Filter {
+    //first path segment of a changing request -> tables the application may change with it
+    private final static Map<String, String[]> TABLES_BY_RESOURCE = Map.of(
+            //pets and visits are created and updated through their owner, owner removal cascades to them
+            resource(CREATE_PATH), new String[]{"owners", "pets", "visits"},
+            //pet removal cascades to its visits
+            resource(PET_PATH), new String[]{"pets", "visits"},
+            resource(VISIT_PATH), new String[]{"visits"},
+            //truncating types cascades to pets of those types and their visits
+            resource(PET_TYPES_PATH), new String[]{"types"});
+
+    private final Consumer<String[]> marker;
+
+    public DirtyTrackingFilter() {
+        this(DatabaseUtils::markDirty);
+    }
+
+    //marker receives tables of every changing request, tests of the filter record them instead of marking
+    public DirtyTrackingFilter(Consumer<String[]> marker) {
+        this.marker = marker;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext context) {
+        if (!"GET".equals(requestSpec.getMethod())) {
+            String[] tables = TABLES_BY_RESOURCE.get(resource(requestSpec.getUserDefinedPath()));
+            if (tables != null) {
+                marker.accept(tables);
+            }
+        }
+        return context.next(requestSpec, responseSpec);
+    }
+
+    //'/pets/{petId}' -> '/pets'
+    private static String resource(String path) {
+        int end = path.indexOf('/', 1);
+        return end < 0 ? path : path.substring(0, end);
+    }
+}
@@ -0,0 +1,143 @@
+package base;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.apache.http.HttpConnection;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.protocol.ExecutionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import perf.MetricsRegistry;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    REST Assured configuration sharing one HTTP client with a pooled connection manager between all callers,
+    so tests and load users share a bounded number of kept-alive connections instead of opening one per request.
+    REST Assured 5 works with the HttpClient 4 AbstractHttpClient API only, hence the deprecated classes.
+    Connections are kept alive for the time the server allows, at most keepAliveMs; a background thread closes
+    expired ones and ones idle longer than idleEvictMs, before the server drops them under a request.
+    Connection reuse is counted: a request is sent over a new connection when that connection served no requests yet.
+    Request and connection counters are shared by all clients of the same name, so they keep growing across clients
+    created one after another (e.g. per load run); gauges read the client itself and are unregistered by shutdown().
+ */
+@SuppressWarnings("deprecation")
+public class PooledHttpClient {
+    private final static Logger logger = LoggerFactory.getLogger(PooledHttpClient.class);
+    private final static String REUSE_RATIO_METRIC = "petclinic_http_client_connection_reuse_ratio";
+    private final static String CONNECTIONS_METRIC = "petclinic_http_client_connections";
+    private final static String[] CONNECTION_STATES = {"leased", "available", "pending"};
+
+    private final String name;
+    private final PoolingClientConnectionManager connectionManager;
+    private final RestAssuredConfig config;
+    private final ScheduledExecutorService evictor;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder newConnections = new LongAdder();
+    private final LongAdder requestsTotal;
+    private final LongAdder newConnectionsTotal;
+
+    public PooledHttpClient(String name, int maxConnections, int maxPerRoute, long leaseTimeoutMs, long keepAliveMs,
+                            long idleEvictMs, int connectTimeoutMs, int socketTimeoutMs) {
+        this.name = name;
+        requestsTotal = MetricsRegistry.global().counter("petclinic_http_client_requests_total",
+                "Requests sent by the pooled HTTP client", "client", name);
+        newConnectionsTotal = MetricsRegistry.global().counter("petclinic_http_client_new_connections_total",
+                "Connections opened by the pooled HTTP client", "client", name);
+        connectionManager = new PoolingClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        DefaultHttpClient client = new DefaultHttpClient(connectionManager);
+        //how long a caller waits for a free pooled connection
+        client.getParams().setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, leaseTimeoutMs);
+        client.getParams().setIntParameter(CoreConnectionPNames.CONNECTION_TIMEOUT, connectTimeoutMs);
+        client.getParams().setIntParameter(CoreConnectionPNames.SO_TIMEOUT, socketTimeoutMs);
+        //Keep-Alive: timeout=N of the server wins when shorter, no header means "forever" for HttpClient
+        client.setKeepAliveStrategy((response, context) -> {
+            long serverKeepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAliveMs > 0 ? Math.min(serverKeepAliveMs, keepAliveMs) : keepAliveMs;
+        });
+        client.addRequestInterceptor((request, context) -> {
+            requests.increment();
+            requestsTotal.increment();
+            HttpConnection connection = (HttpConnection) context.getAttribute(ExecutionContext.HTTP_CONNECTION);
+            if (connection != null && connection.getMetrics().getRequestCount() == 0) {
+                newConnections.increment();
+                newConnectionsTotal.increment();
+            }
+        });
+        config = RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                .reuseHttpClientInstance()
+                .httpClientFactory(() -> client));
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "http-" + name + "-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictPeriodMs = Math.max(idleEvictMs / 2, 100);
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleEvictMs, TimeUnit.MILLISECONDS);
+        }, evictPeriodMs, evictPeriodMs, TimeUnit.MILLISECONDS);
+        registerGauges();
+    }
+
+    public RestAssuredConfig getConfig() {
+        return config;
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getNewConnectionCount() {
+        return newConnections.sum();
+    }
+
+    //share of requests sent over an already open connection
+    public double getReuseRatio() {
+        long total = requests.sum();
+        return total == 0 ? 0 : 1 - (double) newConnections.sum() / total;
+    }
+
+    public void shutdown() {
+        evictor.shutdownNow();
+        connectionManager.shutdown();
+        unregisterGauges();
+        logger.info("HTTP client {}: {} requests over {} connections, reuse ratio {}", name, getRequestCount(),
+                getNewConnectionCount(), String.format("%.3f", getReuseRatio()),
+                kv("http_client", name),
+                kv("http_client_requests", getRequestCount()),
+                kv("http_client_new_connections", getNewConnectionCount()),
+                kv("http_client_reuse_ratio", getReuseRatio()));
+    }
+
+    private void registerGauges() {
+        MetricsRegistry metrics = MetricsRegistry.global();
+        metrics.gauge(REUSE_RATIO_METRIC, "Share of requests sent over an already open connection",
+                this::getReuseRatio, "client", name);
+        metrics.gauge(CONNECTIONS_METRIC, "Pooled HTTP connections by state",
+                () -> connectionManager.getTotalStats().getLeased(), "client", name, "state", CONNECTION_STATES[0]);
+        metrics.gauge(CONNECTIONS_METRIC, "Pooled HTTP connections by state",
+                () -> connectionManager.getTotalStats().getAvailable(), "client", name, "state", CONNECTION_STATES[1]);
+        metrics.gauge(CONNECTIONS_METRIC, "Pooled HTTP connections by state",
+                () -> connectionManager.getTotalStats().getPending(), "client", name, "state", CONNECTION_STATES[2]);
+    }
+
+    private void unregisterGauges() {
+        MetricsRegistry metrics = MetricsRegistry.global();
+        metrics.unregister(REUSE_RATIO_METRIC, "client", name);
+        for (String state : CONNECTION_STATES) {
+            metrics.unregister(CONNECTIONS_METRIC, "client", name, "state", state);
+        }
+    }
+}
@@ -2,48 +2,208 @@ package base;
 
 import io.restassured.filter.Filter;
 import io.restassured.filter.FilterContext;
+import io.restassured.http.Headers;
 import io.restassured.response.Response;
 import io.restassured.specification.FilterableRequestSpecification;
 import io.restassured.specification.FilterableResponseSpecification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import perf.MetricsRegistry;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static config.LogConfig.*;
+import static perf.LatencyFilter.NO_RESPONSE_STATUS;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Logs every sampled HTTP exchange as one structured event.
+    Failed exchanges (status >= 400 or no response) are always logged, successful ones with LOG_HTTP_SUCCESS_SAMPLE_RATE
+    probability. Only references to headers and bodies are captured on the request thread (response body is read
+    into REST Assured's buffer there, while the connection is still held), rendering (body decoding, truncation
+    to LOG_HTTP_MAX_BODY_CHARS) is done by a single background thread with a bounded queue;
+    when the queue is full events are dropped and counted rather than slowing down requests.
+    Every exchange, sampled or not, is counted and timed in MetricsRegistry.
+ */
 public class Slf4JLoggingFilter implements Filter {
     private static final Logger logger = LoggerFactory.getLogger("REST-ASSURED");
 
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final ThreadPoolExecutor renderer = createRenderer();
+
+    static {
+        MetricsRegistry.global().gauge("petclinic_http_log_dropped_events", "HTTP log events dropped because of full queue",
+                dropped::get);
+    }
+
     @Override
     public Response filter(FilterableRequestSpecification requestSpec,
                            FilterableResponseSpecification responseSpec,
                            FilterContext context) {
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = context.next(requestSpec, responseSpec);
+        } catch (RuntimeException e) {
+            long durationNs = System.nanoTime() - start;
+            //unlike logging, metrics cover every request
+            recordMetrics(requestSpec, NO_RESPONSE_STATUS, durationNs);
+            if (logger.isInfoEnabled()) {
+                submit(new Exchange(requestSpec, null, durationNs, e));
+            }
+            throw e;
+        }
+        long durationNs = System.nanoTime() - start;
+        recordMetrics(requestSpec, response.getStatusCode(), durationNs);
+        if (logger.isInfoEnabled() && (response.getStatusCode() >= 400 || sampled())) {
+            submit(new Exchange(requestSpec, response, durationNs, null));
+        }
+        return response;
+    }
 
-        logRequest(requestSpec);
-        Response response = context.next(requestSpec, responseSpec);
-        logResponse(response);
+    //path template (not the resolved URI) keeps label cardinality low
+    private static void recordMetrics(FilterableRequestSpecification requestSpec, int status, long durationNs) {
+        MetricsRegistry metrics = MetricsRegistry.global();
+        String method = requestSpec.getMethod();
+        String uri = requestSpec.getUserDefinedPath();
+        metrics.counter("petclinic_http_requests_total", "HTTP requests sent by tests",
+                "method", method, "uri", uri, "status", String.valueOf(status)).increment();
+        metrics.timer("petclinic_http_request_duration_seconds", "Duration of HTTP requests sent by tests",
+                "method", method, "uri", uri).record(durationNs);
+    }
 
-        return response;
+    private static boolean sampled() {
+        return HTTP_SUCCESS_SAMPLE_RATE >= 1.0
+                || (HTTP_SUCCESS_SAMPLE_RATE > 0 && ThreadLocalRandom.current().nextDouble() < HTTP_SUCCESS_SAMPLE_RATE);
     }
 
-    private void logRequest(FilterableRequestSpecification requestSpec) {
-        logger.info("=== REST ASSURED REQUEST ===");
-        logger.info("{} {}", requestSpec.getMethod(), requestSpec.getURI());
-        logger.info("Headers: {}", requestSpec.getHeaders());
+    private static void submit(Exchange exchange) {
+        if (renderer == null) {
+            exchange.log();
+            return;
+        }
+        //MDC (test name, owner id, scope) of the calling test goes with the event
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        renderer.execute(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                exchange.log();
+            } finally {
+                MDC.clear();
+            }
+        });
+    }
 
-        // Log request body if present
-        String body = requestSpec.getBody();
-        if (body != null && !body.toString().trim().isEmpty()) {
-            logger.info("Request Body: {}", body);
+    private static ThreadPoolExecutor createRenderer() {
+        if (!HTTP_ASYNC) {
+            return null;
         }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(HTTP_QUEUE_SIZE),
+                r -> {
+                    Thread thread = new Thread(r, "http-log-renderer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (r, e) -> dropped.incrementAndGet());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    logger.warn("HTTP log events not written before shutdown", kv("http_log_pending", executor.getQueue().size()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (dropped.get() > 0) {
+                logger.warn("HTTP log events dropped because of full queue", kv("http_log_dropped", dropped.get()));
+            }
+        }));
+        return executor;
     }
 
-    private void logResponse(Response response) {
-        logger.info("=== REST ASSURED RESPONSE ===");
-        logger.info("Status: {} {}", response.getStatusCode(), response.getStatusLine());
-        logger.info("Response Headers: {}", response.getHeaders());
+    static String truncate(Object body) {
+        if (body == null) {
+            return null;
+        }
+        if (body instanceof byte[] bytes) {
+            return decode(bytes);
+        }
+        String text = body.toString();
+        if (text.length() <= HTTP_MAX_BODY_CHARS) {
+            return text;
+        }
+        return text.substring(0, HTTP_MAX_BODY_CHARS) + "...(" + text.length() + " chars)";
+    }
+
+    //decodes only the logged prefix of the body
+    static String decode(byte[] bytes) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(Math.min(bytes.length, HTTP_MAX_BODY_CHARS));
+        ByteBuffer input = ByteBuffer.wrap(bytes);
+        decoder.decode(input, chars, true);
+        chars.flip();
+        return input.hasRemaining() ? chars + "...(" + bytes.length + " bytes)" : chars.toString();
+    }
+
+    //references captured on the request thread, rendered when logged
+    private static class Exchange {
+        private final String method;
+        private final String uri;
+        private final Headers requestHeaders;
+        private final Object requestBody;
+        private final Response response;
+        private final byte[] responseBody;
+        private final long durationNs;
+        private final RuntimeException failure;
+
+        Exchange(FilterableRequestSpecification requestSpec, Response response, long durationNs, RuntimeException failure) {
+            this.method = requestSpec.getMethod();
+            this.uri = requestSpec.getURI();
+            this.requestHeaders = HTTP_HEADERS ? requestSpec.getHeaders() : null;
+            this.requestBody = requestSpec.getBody();
+            this.response = response;
+            this.responseBody = response == null ? null : response.asByteArray();
+            this.durationNs = durationNs;
+            this.failure = failure;
+        }
 
-        // Log response body if present
-        String responseBody = response.getBody().asString();
-        if (responseBody != null && !responseBody.trim().isEmpty()) {
-            logger.info("Response Body: {}", responseBody);
+        void log() {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(durationNs);
+            if (response == null) {
+                logger.warn("HTTP {} {} failed after {} ms: {}", method, uri, durationMs, failure.getMessage(),
+                        kv("http_method", method),
+                        kv("http_url", uri),
+                        kv("http_duration_ms", durationMs),
+                        kv("http_request_headers", String.valueOf(requestHeaders)),
+                        kv("http_request_body", truncate(requestBody)));
+                return;
+            }
+            logger.info("HTTP {} {} -> {} in {} ms", method, uri, response.getStatusCode(), durationMs,
+                    kv("http_method", method),
+                    kv("http_url", uri),
+                    kv("http_status", response.getStatusCode()),
+                    kv("http_duration_ms", durationMs),
+                    kv("http_request_headers", String.valueOf(requestHeaders)),
+                    kv("http_request_body", truncate(requestBody)),
+                    kv("http_response_headers", HTTP_HEADERS ? String.valueOf(response.getHeaders()) : null),
+                    kv("http_response_size", responseBody.length),
+                    kv("http_response_body", responseBody.length == 0 ? null : decode(responseBody)));
         }
     }
-}
\ No newline at end of file
+}
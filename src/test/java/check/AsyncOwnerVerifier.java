@@ -0,0 +1,195 @@
+package check;
+
+import data.OwnerFactory;
+import mapper.OwnerMapper;
+import model.Owner;
+import model.OwnerRecord;
+import org.assertj.core.api.SoftAssertions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import perf.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Database verification of owner writes off the request path, for load runs. Flows record the state they expect
+    an owner to be in (expectOwner/expectDeleted), a background thread checks expectations in batches of one
+    SELECT ... WHERE id = ANY(?) each, with OwnerChecker.compare() on typed rows.
+    Only the latest expectation of an owner counts, as later steps of a flow change what the earlier ones wrote.
+    An expectation is checked once it's LOAD_VERIFY_DELAY_MS old; a mismatch is retried on the following rounds
+    (the flow may have changed the row and not yet recorded the new state) and becomes a soft failure after
+    MAX_ATTEMPTS rounds. close() verifies whatever is left, assertAll() reports the failures.
+ */
+public class AsyncOwnerVerifier implements AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(AsyncOwnerVerifier.class);
+    private final static int MAX_ATTEMPTS = 3;
+    private final static long STOP_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+    private final static String PENDING_METRIC = "petclinic_db_verifications_pending";
+    private final static LongAdder verifiedTotal = MetricsRegistry.global().counter("petclinic_db_verifications_total",
+            "Owner writes verified in the database off the request path", "result", "ok");
+    private final static LongAdder mismatchedTotal = MetricsRegistry.global().counter("petclinic_db_verifications_total",
+            "Owner writes verified in the database off the request path", "result", "mismatch");
+
+    //owner is null for a deleted one
+    private record Expectation(OwnerRecord owner, long recordedNanos) {
+    }
+
+    private final int batchSize;
+    private final long intervalMs;
+    private final long delayNanos;
+    private final Map<Integer, Expectation> pending = new ConcurrentHashMap<>();
+    //only touched by the verifying thread (and by close() once it's stopped)
+    private final Map<Integer, Integer> attempts = new HashMap<>();
+    private final SoftAssertions failures = new SoftAssertions();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public AsyncOwnerVerifier(int batchSize, long intervalMs, long delayMs) {
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMs);
+        MetricsRegistry.global().gauge(PENDING_METRIC, "Owner writes waiting for verification", pending::size);
+        thread = new Thread(this::run, "owner-verifier");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void expectOwner(int ownerId, Map<String, Object> expectedData) {
+        Map<String, Object> data = new HashMap<>(expectedData);
+        data.put(Owner.FIELD_ID, ownerId);
+        pending.put(ownerId, new Expectation(OwnerMapper.toRecord(data), System.nanoTime()));
+    }
+
+    public void expectDeleted(int ownerId) {
+        pending.put(ownerId, new Expectation(null, System.nanoTime()));
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(intervalMs);
+                verify(false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                //database hiccup shouldn't stop verification, expectations stay pending for the next round
+                logger.error("Owner verification round failed", kv("cause_message", e.getMessage()));
+            }
+        }
+    }
+
+    //final round ignores the delay and doesn't retry, nothing changes owners anymore
+    private void verify(boolean finalRound) {
+        long now = System.nanoTime();
+        List<Integer> ready = new ArrayList<>();
+        for (Map.Entry<Integer, Expectation> entry : pending.entrySet()) {
+            if (finalRound || now - entry.getValue().recordedNanos() >= delayNanos) {
+                ready.add(entry.getKey());
+            }
+        }
+        for (int from = 0; from < ready.size(); from += batchSize) {
+            List<Integer> batch = ready.subList(from, Math.min(from + batchSize, ready.size()));
+            Map<Integer, Expectation> expected = new HashMap<>();
+            for (int ownerId : batch) {
+                Expectation expectation = pending.get(ownerId);
+                if (expectation != null) {
+                    expected.put(ownerId, expectation);
+                }
+            }
+            Map<Integer, OwnerRecord> rows = OwnerFactory.getOwnerRecordsFromDatabase(expected.keySet());
+            expected.forEach((ownerId, expectation) -> check(ownerId, expectation, rows.get(ownerId), finalRound));
+        }
+    }
+
+    private void check(int ownerId, Expectation expectation, OwnerRecord row, boolean finalRound) {
+        //matching rows, the bulk of them, are told apart without building any assertion
+        boolean matches = expectation.owner() == null ? row == null
+                : row != null && OwnerChecker.compare(row, expectation.owner()) == 0;
+        if (matches) {
+            if (pending.remove(ownerId, expectation)) {
+                verified.increment();
+                verifiedTotal.increment();
+            }
+            attempts.remove(ownerId);
+            return;
+        }
+        int attempt = attempts.merge(ownerId, 1, Integer::sum);
+        //replaced by a newer expectation meanwhile, that one will be checked instead
+        if ((finalRound || attempt >= MAX_ATTEMPTS) && pending.remove(ownerId, expectation)) {
+            attempts.remove(ownerId);
+            SoftAssertions softly = new SoftAssertions();
+            if (expectation.owner() == null) {
+                softly.assertThat(row).as("Owner %d should be deleted", ownerId).isNull();
+            } else {
+                OwnerChecker.assertOwnerDbData(row, expectation.owner(), softly);
+            }
+            List<AssertionError> errors = softly.assertionErrorsCollected();
+            mismatched.increment();
+            mismatchedTotal.increment();
+            synchronized (failures) {
+                errors.forEach(error -> failures.fail("Owner %d: %s", ownerId, error.getMessage()));
+            }
+            logger.warn("Owner {} doesn't match expected database state", ownerId,
+                    kv("owner_id", ownerId),
+                    kv("verify_attempts", attempt),
+                    kv("verify_errors", errors.size()));
+        }
+    }
+
+    /*
+        Stops the background thread and verifies expectations still pending. The final round runs on the caller's
+        thread, only once the background one has stopped, as attempts is not thread-safe; if it doesn't stop in time
+        the expectations left are reported as failures instead
+     */
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //the gauge would keep this verifier reachable and export its last value
+        MetricsRegistry.global().unregister(PENDING_METRIC);
+        if (thread.isAlive()) {
+            logger.warn("Owner verification thread didn't stop in {} ms, {} expectations left unverified",
+                    STOP_TIMEOUT_MS, pending.size(),
+                    kv("verify_pending", pending.size()));
+            synchronized (failures) {
+                failures.fail("%d owner writes left unverified, verification thread didn't stop in %d ms",
+                        pending.size(), STOP_TIMEOUT_MS);
+            }
+        } else {
+            verify(true);
+        }
+        logger.info("Owner verification finished: {} verified, {} mismatched", verified.sum(), mismatched.sum(),
+                kv("verify_ok", verified.sum()),
+                kv("verify_mismatch", mismatched.sum()));
+    }
+
+    public long getVerifiedCount() {
+        return verified.sum();
+    }
+
+    public long getMismatchCount() {
+        return mismatched.sum();
+    }
+
+    public void assertAll() {
+        synchronized (failures) {
+            failures.assertAll();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package check;
 
 import model.Owner;
+import model.OwnerRecord;
 import org.assertj.core.api.SoftAssertions;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import static db.DatabaseConstants.OwnerTable.*;
@@ -12,6 +14,13 @@ import static db.DatabaseConstants.OwnerTable.ID_COL_NAME;
 
 public class OwnerChecker {
     private final static Set<String> READ_IGNORED_KEYS = Set.of(Owner.FIELD_PETS);
+    //bits of compare() result
+    public final static int ID_MISMATCH = 1;
+    public final static int FIRSTNAME_MISMATCH = 1 << 1;
+    public final static int LASTNAME_MISMATCH = 1 << 2;
+    public final static int ADDRESS_MISMATCH = 1 << 3;
+    public final static int CITY_MISMATCH = 1 << 4;
+    public final static int TELEPHONE_MISMATCH = 1 << 5;
 
     public static void assertOwnerData(Map<String, Object> actualData, Map<String, Object> expectedData, SoftAssertions softly) {
         for (String keyName: actualData.keySet()) {
@@ -37,9 +46,8 @@ public class OwnerChecker {
         softly.assertThat(actualData.get(Owner.FIELD_TELEPHONE)).isEqualTo(expectedData.getTelephone());
         softly.assertThat(actualData.get(Owner.FIELD_LASTNAME)).isEqualTo(expectedData.getLastName());
         softly.assertThat(actualData.get(Owner.FIELD_FIRSTNAME)).isEqualTo(expectedData.getFirstName());
-
-        //TODO: Pet, PetType, Visit checkers to assert Pets field
-        //softly.assertThat(actualData.get(Owner.FIELD_PETS)).isEqualTo(expectedData.getPets());
+        PetChecker.assertPets(actualData.get(Owner.FIELD_PETS), PetChecker.toExpectedPets(expectedData.getPets()),
+                "owner." + Owner.FIELD_PETS, softly);
     }
 
     public static void assertOwnerDbData(Map<String, Object> actualDatabaseData, Map<String, Object> expectedData, SoftAssertions softly) {
@@ -56,6 +64,69 @@ public class OwnerChecker {
         }
     }
 
+    /*
+        Typed comparison for database checks of many rows: fields are compared directly, without map lookups,
+        boxing or column name switches. Result is a bit mask of the fields that differ (see *_MISMATCH), 0 - equal
+     */
+    public static int compare(OwnerRecord actual, OwnerRecord expected) {
+        int mismatches = 0;
+        if (actual.id() != expected.id()) {
+            mismatches |= ID_MISMATCH;
+        }
+        if (!Objects.equals(actual.firstName(), expected.firstName())) {
+            mismatches |= FIRSTNAME_MISMATCH;
+        }
+        if (!Objects.equals(actual.lastName(), expected.lastName())) {
+            mismatches |= LASTNAME_MISMATCH;
+        }
+        if (!Objects.equals(actual.address(), expected.address())) {
+            mismatches |= ADDRESS_MISMATCH;
+        }
+        if (!Objects.equals(actual.city(), expected.city())) {
+            mismatches |= CITY_MISMATCH;
+        }
+        if (!Objects.equals(actual.telephone(), expected.telephone())) {
+            mismatches |= TELEPHONE_MISMATCH;
+        }
+        return mismatches;
+    }
+
+    //assertions are only built for the fields that differ, a matching row costs just the comparison
+    public static void assertOwnerDbData(OwnerRecord actual, OwnerRecord expected, SoftAssertions softly) {
+        if (actual == null) {
+            softly.fail("Owner %d not found in database", expected.id());
+            return;
+        }
+        int mismatches = compare(actual, expected);
+        if (mismatches == 0) {
+            return;
+        }
+        if ((mismatches & ID_MISMATCH) != 0) {
+            softly.assertThat(actual.id()).as(ID_COL_NAME).isEqualTo(expected.id());
+        }
+        if ((mismatches & FIRSTNAME_MISMATCH) != 0) {
+            softly.assertThat(actual.firstName()).as(FIRSTNAME_COL_NAME).isEqualTo(expected.firstName());
+        }
+        if ((mismatches & LASTNAME_MISMATCH) != 0) {
+            softly.assertThat(actual.lastName()).as(LASTNAME_COL_NAME).isEqualTo(expected.lastName());
+        }
+        if ((mismatches & ADDRESS_MISMATCH) != 0) {
+            softly.assertThat(actual.address()).as(ADDRESS_COL_NAME).isEqualTo(expected.address());
+        }
+        if ((mismatches & CITY_MISMATCH) != 0) {
+            softly.assertThat(actual.city()).as(CITY_COL_NAME).isEqualTo(expected.city());
+        }
+        if ((mismatches & TELEPHONE_MISMATCH) != 0) {
+            softly.assertThat(actual.telephone()).as(TELEPHONE_COL_NAME).isEqualTo(expected.telephone());
+        }
+    }
+
+    public static void checkOwnerData(OwnerRecord actual, OwnerRecord expected) {
+        if (actual == null || compare(actual, expected) != 0) {
+            throw new IllegalStateException("Problem preparing data, please check database and test");
+        }
+    }
+
     public static void checkOwnerData(Map<String, Object> actualData, Map<String, Object> expectedData) {
         final String exceptionMessage = "Problem preparing data, please check database and test";
         //rewrite for keys
@@ -0,0 +1,185 @@
+package check;
+
+import model.Pet;
+import model.PetType;
+import model.Visit;
+import org.assertj.core.api.SoftAssertions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static db.DatabaseConstants.*;
+
+/*
+    Checks of pets, their visits and pet types, as returned by the API (parsed JSON) or read from the database.
+    Expected data is a map in API form; only keys present in it are compared, so data of a freshly created
+    resource (no id yet) can be used as well as a full owner graph built by PetFactory.createOwnerGraphInDatabase().
+ */
+public class PetChecker {
+
+    @SuppressWarnings("unchecked")
+    public static void assertPetData(Map<String, Object> actualData, Map<String, Object> expectedData, String path,
+                                     SoftAssertions softly) {
+        assertField(actualData, expectedData, Pet.FIELD_ID, path, softly);
+        assertField(actualData, expectedData, Pet.FIELD_NAME, path, softly);
+        assertField(actualData, expectedData, Pet.FIELD_BIRTHDATE, path, softly);
+        assertField(actualData, expectedData, Pet.FIELD_OWNERID, path, softly);
+        if (expectedData.containsKey(Pet.FIELD_TYPE)) {
+            Object actualType = actualData.get(Pet.FIELD_TYPE);
+            if (actualType instanceof Map<?, ?> type) {
+                assertPetTypeData((Map<String, Object>) type, (Map<String, Object>) expectedData.get(Pet.FIELD_TYPE),
+                        path + "." + Pet.FIELD_TYPE, softly);
+            } else {
+                softly.fail("%s.%s: expected pet type object but was '%s'".formatted(path, Pet.FIELD_TYPE, actualType));
+            }
+        }
+        if (expectedData.containsKey(Pet.FIELD_VISITS)) {
+            assertList(actualData.get(Pet.FIELD_VISITS), (List<Map<String, Object>>) expectedData.get(Pet.FIELD_VISITS),
+                    path + "." + Pet.FIELD_VISITS, Visit.FIELD_ID, PetChecker::assertVisitData, softly);
+        }
+    }
+
+    public static void assertPetData(Map<String, Object> actualData, Map<String, Object> expectedData, SoftAssertions softly) {
+        assertPetData(actualData, expectedData, "pet", softly);
+    }
+
+    //pets of an owner, matched by id, so the order the API lists them in doesn't matter
+    public static void assertPets(Object actualPets, List<Map<String, Object>> expectedPets, String path, SoftAssertions softly) {
+        assertList(actualPets, expectedPets, path, Pet.FIELD_ID, PetChecker::assertPetData, softly);
+    }
+
+    public static void assertVisitData(Map<String, Object> actualData, Map<String, Object> expectedData, String path,
+                                       SoftAssertions softly) {
+        assertField(actualData, expectedData, Visit.FIELD_ID, path, softly);
+        assertField(actualData, expectedData, Visit.FIELD_DATE, path, softly);
+        assertField(actualData, expectedData, Visit.FIELD_DESCRIPTION, path, softly);
+        assertField(actualData, expectedData, Visit.FIELD_PETID, path, softly);
+    }
+
+    public static void assertVisitData(Map<String, Object> actualData, Map<String, Object> expectedData, SoftAssertions softly) {
+        assertVisitData(actualData, expectedData, "visit", softly);
+    }
+
+    public static void assertPetTypeData(Map<String, Object> actualData, Map<String, Object> expectedData, String path,
+                                         SoftAssertions softly) {
+        assertField(actualData, expectedData, PetType.FIELD_ID, path, softly);
+        assertField(actualData, expectedData, PetType.FIELD_NAME, path, softly);
+    }
+
+    public static void assertPetTypeData(Map<String, Object> actualData, Map<String, Object> expectedData, SoftAssertions softly) {
+        assertPetTypeData(actualData, expectedData, "petType", softly);
+    }
+
+    //database rows, dates come as java.sql.Date from PostgreSQL and as ISO strings from the stub
+
+    @SuppressWarnings("unchecked")
+    public static void assertPetDbData(Map<String, Object> actualDatabaseData, Map<String, Object> expectedData, SoftAssertions softly) {
+        for (String columnName : actualDatabaseData.keySet()) {
+            Object actual = actualDatabaseData.get(columnName);
+            switch (columnName) {
+                case PetTable.ID_COL_NAME -> softly.assertThat(actual).isEqualTo(expectedData.get(Pet.FIELD_ID));
+                case PetTable.NAME_COL_NAME -> softly.assertThat(actual).isEqualTo(expectedData.get(Pet.FIELD_NAME));
+                case PetTable.BIRTHDATE_COL_NAME -> softly.assertThat(String.valueOf(actual)).isEqualTo(expectedData.get(Pet.FIELD_BIRTHDATE));
+                case PetTable.TYPE_ID_COL_NAME -> softly.assertThat(actual)
+                        .isEqualTo(((Map<String, Object>) expectedData.get(Pet.FIELD_TYPE)).get(PetType.FIELD_ID));
+                case PetTable.OWNER_ID_COL_NAME -> softly.assertThat(actual).isEqualTo(expectedData.get(Pet.FIELD_OWNERID));
+                default -> softly.fail("Unexpected database table column: " + columnName);
+            }
+        }
+    }
+
+    public static void assertVisitDbData(Map<String, Object> actualDatabaseData, Map<String, Object> expectedData, SoftAssertions softly) {
+        for (String columnName : actualDatabaseData.keySet()) {
+            Object actual = actualDatabaseData.get(columnName);
+            switch (columnName) {
+                case VisitTable.ID_COL_NAME -> softly.assertThat(actual).isEqualTo(expectedData.get(Visit.FIELD_ID));
+                case VisitTable.PET_ID_COL_NAME -> softly.assertThat(actual).isEqualTo(expectedData.get(Visit.FIELD_PETID));
+                case VisitTable.DATE_COL_NAME -> softly.assertThat(String.valueOf(actual)).isEqualTo(expectedData.get(Visit.FIELD_DATE));
+                case VisitTable.DESCRIPTION_COL_NAME -> softly.assertThat(actual).isEqualTo(expectedData.get(Visit.FIELD_DESCRIPTION));
+                default -> softly.fail("Unexpected database table column: " + columnName);
+            }
+        }
+    }
+
+    public static void assertPetTypeDbData(Map<String, Object> actualDatabaseData, Map<String, Object> expectedData, SoftAssertions softly) {
+        for (String columnName : actualDatabaseData.keySet()) {
+            Object actual = actualDatabaseData.get(columnName);
+            switch (columnName) {
+                case TypeTable.ID_COL_NAME -> softly.assertThat(actual).isEqualTo(expectedData.get(PetType.FIELD_ID));
+                case TypeTable.NAME_COL_NAME -> softly.assertThat(actual).isEqualTo(expectedData.get(PetType.FIELD_NAME));
+                default -> softly.fail("Unexpected database table column: " + columnName);
+            }
+        }
+    }
+
+    //model objects in the map form the other checks expect
+    public static List<Map<String, Object>> toExpectedPets(List<Pet> pets) {
+        List<Map<String, Object>> expected = new ArrayList<>();
+        if (pets == null) {
+            return expected;
+        }
+        for (Pet pet : pets) {
+            Map<String, Object> petData = new LinkedHashMap<>();
+            petData.put(Pet.FIELD_ID, pet.getId());
+            petData.put(Pet.FIELD_NAME, pet.getName());
+            petData.put(Pet.FIELD_BIRTHDATE, String.valueOf(pet.getBirthDate()));
+            petData.put(Pet.FIELD_OWNERID, pet.getOwnerId());
+            if (pet.getType() != null) {
+                petData.put(Pet.FIELD_TYPE, Map.of(PetType.FIELD_ID, pet.getType().getId(), PetType.FIELD_NAME, pet.getType().getName()));
+            }
+            List<Map<String, Object>> visits = new ArrayList<>();
+            if (pet.getVisits() != null) {
+                for (Visit visit : pet.getVisits()) {
+                    visits.add(Map.of(Visit.FIELD_ID, visit.getId(), Visit.FIELD_DATE, String.valueOf(visit.getDate()),
+                            Visit.FIELD_DESCRIPTION, visit.getDescription(), Visit.FIELD_PETID, visit.getPetId()));
+                }
+            }
+            petData.put(Pet.FIELD_VISITS, visits);
+            expected.add(petData);
+        }
+        return expected;
+    }
+
+    @FunctionalInterface
+    private interface ElementCheck {
+        void check(Map<String, Object> actual, Map<String, Object> expected, String path, SoftAssertions softly);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assertList(Object actualList, List<Map<String, Object>> expectedList, String path, String idField,
+                                   ElementCheck check, SoftAssertions softly) {
+        if (!(actualList instanceof List<?> actual)) {
+            softly.fail("%s: expected array but was '%s'".formatted(path, actualList));
+            return;
+        }
+        softly.assertThat(actual).as(path + " size").hasSize(expectedList.size());
+        Map<Object, Map<String, Object>> actualById = new LinkedHashMap<>();
+        for (Object element : actual) {
+            if (element instanceof Map<?, ?> map) {
+                actualById.put(map.get(idField), (Map<String, Object>) map);
+            } else {
+                softly.fail("%s: expected object but was '%s'".formatted(path, element));
+            }
+        }
+        for (int i = 0; i < expectedList.size(); i++) {
+            Map<String, Object> expected = expectedList.get(i);
+            String elementPath = path + "[" + i + "]";
+            Map<String, Object> match = expected.containsKey(idField) ? actualById.get(expected.get(idField))
+                    : i < actual.size() ? (Map<String, Object>) actual.get(i) : null;
+            if (match == null) {
+                softly.fail("%s: missing element with %s '%s'".formatted(elementPath, idField, expected.get(idField)));
+            } else {
+                check.check(match, expected, elementPath, softly);
+            }
+        }
+    }
+
+    private static void assertField(Map<String, Object> actualData, Map<String, Object> expectedData, String field, String path,
+                                    SoftAssertions softly) {
+        if (expectedData.containsKey(field)) {
+            softly.assertThat(actualData.get(field)).as(path + "." + field).isEqualTo(expectedData.get(field));
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package check;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import model.Owner;
+import model.Pet;
+import model.PetType;
+import model.Visit;
+import org.assertj.core.api.SoftAssertions;
+import util.JsonUtils;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/*
+    Single pass validation of owner responses straight from the response bytes with Jackson's JsonParser.
+    Checks constraints of owner.json/pet.json/pet_type.json/visit.json schemas and compares fields with expected
+    values on the way, nothing is materialized into maps or model objects; string values are checked and compared
+    on the parser's character buffer.
+    Same semantics as OwnerChecker.assertOwnerData(): with expected data given, keys missing in it are reported
+    (pets and id excepted) and pets are expected to be empty, unless expected data lists pets - then only their number
+    is compared here, their values are left to PetChecker.
+ */
+public class StreamingOwnerChecker {
+    private final static JsonFactory factory = JsonUtils.MAPPER.getFactory();
+
+    //patterns from owner.json
+    private final static Pattern FIRSTNAME_PATTERN = Pattern.compile("^[a-zA-Z]+([ '-][a-zA-Z]+)*$");
+    private final static Pattern LASTNAME_PATTERN = Pattern.compile("^[a-zA-Z]+([ '-][a-zA-Z]+)*\\.?$");
+
+    private final static int OWNER_REQUIRED = 0b11111;
+    private final static int PET_REQUIRED = 0b1111;
+    private final static int PET_TYPE_REQUIRED = 0b11;
+    private final static int VISIT_REQUIRED = 0b111;
+
+    public record Result(int id, int count, List<String> violations) {
+        public boolean isValid() {
+            return violations.isEmpty();
+        }
+    }
+
+    //owner field read before the owner's id in a listing, compared once the id tells which expected owner it belongs to
+    private record PendingField(String field, String path, String text, boolean string) {
+    }
+
+    //single owner object, expectedData may be null for schema-only check
+    public static Result checkOwner(byte[] body, Map<String, Object> expectedData) {
+        List<String> violations = new ArrayList<>();
+        int id = -1;
+        try (JsonParser parser = factory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                violations.add("$: expected owner object");
+            } else {
+                id = readOwner(parser, "$", expectedData, false, violations);
+            }
+        } catch (IOException e) {
+            violations.add("$: malformed JSON (" + e.getMessage() + ")");
+        }
+        return new Result(id, id < 0 ? 0 : 1, violations);
+    }
+
+    /*
+        Owner listing, every owner found in expectedById is compared with it, the others are checked against schema only;
+        so with expectedById empty (or null) the whole listing is checked against schema only.
+        Owners of expectedById missing in the listing are reported
+     */
+    public static Result checkOwners(byte[] body, Map<Integer, Map<String, Object>> expectedById) {
+        List<String> violations = new ArrayList<>();
+        Set<Integer> listed = new HashSet<>();
+        int count = 0;
+        try (JsonParser parser = factory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                violations.add("$: expected array of owners");
+            } else {
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    String path = "$[" + count + "]";
+                    if (token != JsonToken.START_OBJECT) {
+                        violations.add(path + ": expected owner object");
+                        parser.skipChildren();
+                    } else {
+                        listed.add(readOwner(parser, path, expectedById, true, violations));
+                    }
+                    count++;
+                }
+                if (expectedById != null) {
+                    expectedById.keySet().stream()
+                            .filter(id -> !listed.contains(id))
+                            .sorted()
+                            .forEach(id -> violations.add("$: owner with id %d not listed".formatted(id)));
+                }
+            }
+        } catch (IOException e) {
+            violations.add("$: malformed JSON (" + e.getMessage() + ")");
+        }
+        return new Result(-1, count, violations);
+    }
+
+    public static Result assertOwner(byte[] body, Map<String, Object> expectedData, SoftAssertions softly) {
+        Result result = checkOwner(body, expectedData);
+        result.violations().forEach(softly::fail);
+        return result;
+    }
+
+    public static Result assertOwner(byte[] body, Owner expectedData, SoftAssertions softly) {
+        return assertOwner(body, Map.of(
+                Owner.FIELD_ID, expectedData.getId(),
+                Owner.FIELD_FIRSTNAME, expectedData.getFirstName(),
+                Owner.FIELD_LASTNAME, expectedData.getLastName(),
+                Owner.FIELD_ADDRESS, expectedData.getAddress(),
+                Owner.FIELD_CITY, expectedData.getCity(),
+                Owner.FIELD_TELEPHONE, expectedData.getTelephone()), softly);
+    }
+
+    /*
+        Expected values are either a single owner map or a map of owners by id (listings, byId set). In the latter case
+        fields met before the id (the API writes id after the owner's own fields) are checked against schema right away
+        and kept as PendingField, their values are compared once the id tells which expected owner they belong to.
+        Mode is given by the caller, an empty map doesn't tell one from the other.
+     */
+    @SuppressWarnings("unchecked")
+    private static int readOwner(JsonParser parser, String path, Map<?, ?> expected, boolean byId,
+                                 List<String> violations) throws IOException {
+        Map<String, Object> expectedData = byId ? null : (Map<String, Object>) expected;
+        int id = -1;
+        int required = 0;
+        List<PendingField> pending = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            String fieldPath = path + "." + field;
+            if (byId && id < 0 && expected != null && !expected.isEmpty()
+                    && !Owner.FIELD_PETS.equals(field) && !Owner.FIELD_ID.equals(field)) {
+                if (pending == null) {
+                    pending = new ArrayList<>(6);
+                }
+                pending.add(new PendingField(field, fieldPath, parser.getText(), value == JsonToken.VALUE_STRING));
+            }
+            //id is assigned by the server, it's compared only when expected data has it (not for a freshly created owner)
+            if (expectedData != null && !Owner.FIELD_PETS.equals(field) && !Owner.FIELD_ID.equals(field)
+                    && !expectedData.containsKey(field)) {
+                violations.add("%s: unexpected key with value '%s'".formatted(fieldPath, parser.getText()));
+            }
+            switch (field) {
+                case Owner.FIELD_ID -> {
+                    id = readId(parser, value, fieldPath, violations);
+                    if (byId && expected != null) {
+                        expectedData = ((Map<Integer, Map<String, Object>>) expected).get(id);
+                    }
+                    compareInt(id, expectedData, field, fieldPath, violations);
+                }
+                case Owner.FIELD_FIRSTNAME -> {
+                    required |= 1;
+                    readString(parser, value, fieldPath, 1, 30, FIRSTNAME_PATTERN, false, expectedData, field, violations);
+                }
+                case Owner.FIELD_LASTNAME -> {
+                    required |= 1 << 1;
+                    readString(parser, value, fieldPath, 1, 30, LASTNAME_PATTERN, false, expectedData, field, violations);
+                }
+                case Owner.FIELD_ADDRESS -> {
+                    required |= 1 << 2;
+                    readString(parser, value, fieldPath, 1, 255, null, false, expectedData, field, violations);
+                }
+                case Owner.FIELD_CITY -> {
+                    required |= 1 << 3;
+                    readString(parser, value, fieldPath, 1, 80, null, false, expectedData, field, violations);
+                }
+                case Owner.FIELD_TELEPHONE -> {
+                    required |= 1 << 4;
+                    readString(parser, value, fieldPath, 1, 20, null, true, expectedData, field, violations);
+                }
+                case Owner.FIELD_PETS -> {
+                    int pets = readArray(parser, value, fieldPath, violations, StreamingOwnerChecker::readPet);
+                    //pet values are compared by PetChecker, here only their count
+                    int expectedPets = expectedData != null && expectedData.get(Owner.FIELD_PETS) instanceof List<?> list ? list.size() : 0;
+                    if (expected != null && !byId && pets != expectedPets) {
+                        violations.add(expectedPets == 0 ? fieldPath + ": pets should be empty"
+                                : "%s: expected %d pets but was %d".formatted(fieldPath, expectedPets, pets));
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (expectedData != null && pending != null) {
+            comparePending(pending, expectedData, violations);
+        }
+        reportMissing(required, OWNER_REQUIRED, path, violations,
+                Owner.FIELD_FIRSTNAME, Owner.FIELD_LASTNAME, Owner.FIELD_ADDRESS, Owner.FIELD_CITY, Owner.FIELD_TELEPHONE);
+        if (expectedData != null && id < 0 && expectedData.containsKey(Owner.FIELD_ID)) {
+            violations.add(path + ".id: missing");
+        }
+        return id;
+    }
+
+    //same checks readOwner() does on the way, done for fields read before the id
+    private static void comparePending(List<PendingField> pending, Map<String, Object> expectedData, List<String> violations) {
+        for (PendingField field : pending) {
+            if (!expectedData.containsKey(field.field())) {
+                violations.add("%s: unexpected key with value '%s'".formatted(field.path(), field.text()));
+            } else if (field.string()) {
+                Object expected = expectedData.get(field.field());
+                if (expected == null || !expected.toString().equals(field.text())) {
+                    violations.add("%s: expected '%s' but was '%s'".formatted(field.path(), expected, field.text()));
+                }
+            }
+        }
+    }
+
+    private static void readPet(JsonParser parser, String path, List<String> violations) throws IOException {
+        int required = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            String fieldPath = path + "." + field;
+            switch (field) {
+                case Pet.FIELD_ID -> readId(parser, value, fieldPath, violations);
+                case Pet.FIELD_NAME -> {
+                    required |= 1;
+                    readString(parser, value, fieldPath, 0, 30, null, false, null, field, violations);
+                }
+                case Pet.FIELD_BIRTHDATE -> {
+                    required |= 1 << 1;
+                    readDate(parser, value, fieldPath, violations);
+                }
+                case Pet.FIELD_TYPE -> {
+                    required |= 1 << 2;
+                    if (value != JsonToken.START_OBJECT) {
+                        violations.add(fieldPath + ": expected pet type object");
+                        parser.skipChildren();
+                    } else {
+                        readPetType(parser, fieldPath, violations);
+                    }
+                }
+                case Pet.FIELD_OWNERID -> {
+                    required |= 1 << 3;
+                    readId(parser, value, fieldPath, violations);
+                }
+                case Pet.FIELD_VISITS -> readArray(parser, value, fieldPath, violations, StreamingOwnerChecker::readVisit);
+                default -> parser.skipChildren();
+            }
+        }
+        reportMissing(required, PET_REQUIRED, path, violations,
+                Pet.FIELD_NAME, Pet.FIELD_BIRTHDATE, Pet.FIELD_TYPE, Pet.FIELD_OWNERID);
+    }
+
+    private static void readPetType(JsonParser parser, String path, List<String> violations) throws IOException {
+        int required = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            String fieldPath = path + "." + field;
+            switch (field) {
+                case PetType.FIELD_ID -> {
+                    required |= 1;
+                    readId(parser, value, fieldPath, violations);
+                }
+                case PetType.FIELD_NAME -> {
+                    required |= 1 << 1;
+                    readString(parser, value, fieldPath, 1, 80, null, false, null, field, violations);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        reportMissing(required, PET_TYPE_REQUIRED, path, violations, PetType.FIELD_ID, PetType.FIELD_NAME);
+    }
+
+    private static void readVisit(JsonParser parser, String path, List<String> violations) throws IOException {
+        int required = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            String fieldPath = path + "." + field;
+            switch (field) {
+                case Visit.FIELD_ID -> readId(parser, value, fieldPath, violations);
+                case Visit.FIELD_DATE -> {
+                    required |= 1;
+                    readDate(parser, value, fieldPath, violations);
+                }
+                case Visit.FIELD_DESCRIPTION -> {
+                    required |= 1 << 1;
+                    readString(parser, value, fieldPath, 1, 255, null, false, null, field, violations);
+                }
+                case Visit.FIELD_PETID -> {
+                    required |= 1 << 2;
+                    readId(parser, value, fieldPath, violations);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        reportMissing(required, VISIT_REQUIRED, path, violations, Visit.FIELD_DATE, Visit.FIELD_DESCRIPTION, Visit.FIELD_PETID);
+    }
+
+    @FunctionalInterface
+    private interface ElementReader {
+        void read(JsonParser parser, String path, List<String> violations) throws IOException;
+    }
+
+    private static int readArray(JsonParser parser, JsonToken value, String path, List<String> violations,
+                                 ElementReader reader) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            violations.add(path + ": expected array");
+            parser.skipChildren();
+            return 0;
+        }
+        int index = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            String elementPath = path + "[" + index + "]";
+            if (token != JsonToken.START_OBJECT) {
+                violations.add(elementPath + ": expected object");
+                parser.skipChildren();
+            } else {
+                reader.read(parser, elementPath, violations);
+            }
+            index++;
+        }
+        return index;
+    }
+
+    private static int readId(JsonParser parser, JsonToken value, String path, List<String> violations) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT) {
+            violations.add(path + ": expected integer");
+            parser.skipChildren();
+            return -1;
+        }
+        int id = parser.getIntValue();
+        if (id < 0) {
+            violations.add(path + ": must be >= 0, was " + id);
+        }
+        return id;
+    }
+
+    private static void readString(JsonParser parser, JsonToken value, String path, int minLength, int maxLength,
+                                   Pattern pattern, boolean digitsOnly,
+                                   Map<String, Object> expectedData, String field, List<String> violations) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            violations.add(path + ": expected string");
+            parser.skipChildren();
+            return;
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length < minLength || length > maxLength) {
+            violations.add("%s: length must be between %d and %d, was %d".formatted(path, minLength, maxLength, length));
+        }
+        if (digitsOnly) {
+            for (int i = offset; i < offset + length; i++) {
+                if (chars[i] < '0' || chars[i] > '9') {
+                    violations.add(path + ": must contain digits only");
+                    break;
+                }
+            }
+        }
+        if (pattern != null && !pattern.matcher(CharBuffer.wrap(chars, offset, length)).matches()) {
+            violations.add("%s: doesn't match %s".formatted(path, pattern.pattern()));
+        }
+        if (expectedData != null && expectedData.containsKey(field)) {
+            Object expected = expectedData.get(field);
+            if (expected == null || !contentEquals(chars, offset, length, expected.toString())) {
+                violations.add("%s: expected '%s' but was '%s'".formatted(path, expected, parser.getText()));
+            }
+        }
+    }
+
+    //format "date" (RFC 3339 full-date)
+    private static void readDate(JsonParser parser, JsonToken value, String path, List<String> violations) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            violations.add(path + ": expected date string");
+            parser.skipChildren();
+            return;
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        boolean valid = parser.getTextLength() == 10 && chars[offset + 4] == '-' && chars[offset + 7] == '-';
+        for (int i = 0; valid && i < 10; i++) {
+            if (i != 4 && i != 7) {
+                valid = chars[offset + i] >= '0' && chars[offset + i] <= '9';
+            }
+        }
+        if (!valid) {
+            violations.add("%s: expected date in yyyy-MM-dd format, was '%s'".formatted(path, parser.getText()));
+        }
+    }
+
+    private static void compareInt(int actual, Map<String, Object> expectedData, String field, String path, List<String> violations) {
+        if (expectedData != null && expectedData.containsKey(field)) {
+            Object expected = expectedData.get(field);
+            if (!(expected instanceof Number number) || number.intValue() != actual) {
+                violations.add("%s: expected '%s' but was '%d'".formatted(path, expected, actual));
+            }
+        }
+    }
+
+    private static boolean contentEquals(char[] chars, int offset, int length, String expected) {
+        if (expected.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void reportMissing(int present, int required, String path, List<String> violations, String... fields) {
+        if (present == required) {
+            return;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if ((present & (1 << i)) == 0) {
+                violations.add("%s.%s: required field missing".formatted(path, fields[i]));
+            }
+        }
+    }
+}
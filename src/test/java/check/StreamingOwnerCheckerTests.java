@@ -0,0 +1,82 @@
+package check;
+
+import model.Owner;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//listings are ordered the way the API writes owners: own fields first, then id and pets
+public class StreamingOwnerCheckerTests {
+    private final static byte[] LISTING = """
+            [
+              {"firstName": "George", "lastName": "Franklin", "address": "110 W. Liberty St.", "city": "Madison",
+               "telephone": "6085551023", "id": 1, "pets": []},
+              {"firstName": "Betty", "lastName": "Davis", "address": "638 Cardinal Ave.", "city": "Sun Prairie",
+               "telephone": "6085551749", "id": 2, "pets": []}
+            ]
+            """.getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void listingMatchesExpectedOwners() {
+        StreamingOwnerChecker.Result result = StreamingOwnerChecker.checkOwners(LISTING, Map.of(
+                1, owner(1, "George", "Franklin", "110 W. Liberty St.", "Madison", "6085551023"),
+                2, owner(2, "Betty", "Davis", "638 Cardinal Ave.", "Sun Prairie", "6085551749")));
+
+        assertThat(result.violations()).isEmpty();
+        assertThat(result.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void fieldsBeforeIdAreCompared() {
+        StreamingOwnerChecker.Result result = StreamingOwnerChecker.checkOwners(LISTING, Map.of(
+                2, owner(2, "Eduardo", "Rodriquez", "638 Cardinal Ave.", "Sun Prairie", "6085551749")));
+
+        assertThat(result.violations()).containsExactly(
+                "$[1].firstName: expected 'Eduardo' but was 'Betty'",
+                "$[1].lastName: expected 'Rodriquez' but was 'Davis'");
+    }
+
+    @Test
+    public void unexpectedKeyBeforeIdIsReported() {
+        byte[] body = """
+                [{"firstName": "George", "lastName": "Franklin", "address": "110 W. Liberty St.", "city": "Madison",
+                  "telephone": "6085551023", "email": "george@example.com", "id": 1, "pets": []}]
+                """.getBytes(StandardCharsets.UTF_8);
+
+        StreamingOwnerChecker.Result result = StreamingOwnerChecker.checkOwners(body, Map.of(
+                1, owner(1, "George", "Franklin", "110 W. Liberty St.", "Madison", "6085551023")));
+
+        assertThat(result.violations()).containsExactly("$[0].email: unexpected key with value 'george@example.com'");
+    }
+
+    @Test
+    public void expectedOwnerMissingInListingIsReported() {
+        StreamingOwnerChecker.Result result = StreamingOwnerChecker.checkOwners(LISTING, Map.of(
+                1, owner(1, "George", "Franklin", "110 W. Liberty St.", "Madison", "6085551023"),
+                7, owner(7, "Jeff", "Black", "1450 Oak Blvd.", "Monona", "6085555387")));
+
+        assertThat(result.violations()).containsExactly("$: owner with id 7 not listed");
+    }
+
+    @Test
+    public void emptyExpectedMapChecksSchemaOnly() {
+        StreamingOwnerChecker.Result result = StreamingOwnerChecker.checkOwners(LISTING, Map.of());
+
+        assertThat(result.violations()).isEmpty();
+        assertThat(result.count()).isEqualTo(2);
+    }
+
+    private static Map<String, Object> owner(int id, String firstName, String lastName, String address, String city,
+                                             String telephone) {
+        return Map.of(
+                Owner.FIELD_ID, id,
+                Owner.FIELD_FIRSTNAME, firstName,
+                Owner.FIELD_LASTNAME, lastName,
+                Owner.FIELD_ADDRESS, address,
+                Owner.FIELD_CITY, city,
+                Owner.FIELD_TELEPHONE, telephone);
+    }
+}
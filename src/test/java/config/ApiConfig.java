@@ -6,10 +6,30 @@ public class ApiConfig {
     public static final String BASE_URL;
     public static final String BASE_API_PATH;
     public static final long RESPONSE_TIME_THRESHOLD;
+    public static final String LATENCY_SLA;
+    public static final long LATENCY_SLA_MIN_SAMPLES;
+    public static final boolean STUB_ENABLED;
+    public static final int HTTP_MAX_CONNECTIONS;
+    public static final int HTTP_MAX_PER_ROUTE;
+    public static final long HTTP_LEASE_TIMEOUT_MS;
+    public static final long HTTP_KEEP_ALIVE_MS;
+    public static final long HTTP_IDLE_EVICT_MS;
+    public static final int HTTP_CONNECT_TIMEOUT_MS;
+    public static final int HTTP_SOCKET_TIMEOUT_MS;
 
     static {
         BASE_URL = getValue("BASE_URL", "http://localhost:9966/petclinic");
         BASE_API_PATH = getValue("BASE_API_PATH", "/api");
         RESPONSE_TIME_THRESHOLD = Long.parseLong(getValue("API_RESPONSE_TIME", "5000"));
+        LATENCY_SLA = getValue("LATENCY_SLA", "");
+        LATENCY_SLA_MIN_SAMPLES = Long.parseLong(getValue("LATENCY_SLA_MIN_SAMPLES", "100"));
+        STUB_ENABLED = Boolean.parseBoolean(getValue("API_STUB", "false"));
+        HTTP_MAX_CONNECTIONS = Integer.parseInt(getValue("API_HTTP_MAX_CONNECTIONS", "20"));
+        HTTP_MAX_PER_ROUTE = Integer.parseInt(getValue("API_HTTP_MAX_PER_ROUTE", "20"));
+        HTTP_LEASE_TIMEOUT_MS = Long.parseLong(getValue("API_HTTP_LEASE_TIMEOUT_MS", "30000"));
+        HTTP_KEEP_ALIVE_MS = Long.parseLong(getValue("API_HTTP_KEEP_ALIVE_MS", "60000"));
+        HTTP_IDLE_EVICT_MS = Long.parseLong(getValue("API_HTTP_IDLE_EVICT_MS", "30000"));
+        HTTP_CONNECT_TIMEOUT_MS = Integer.parseInt(getValue("API_HTTP_CONNECT_TIMEOUT_MS", "5000"));
+        HTTP_SOCKET_TIMEOUT_MS = Integer.parseInt(getValue("API_HTTP_SOCKET_TIMEOUT_MS", "30000"));
     }
 }
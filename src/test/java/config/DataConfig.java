@@ -0,0 +1,24 @@
+package config;
+
+import static util.ConfigUtils.getValue;
+
+public class DataConfig {
+    public static final int POOL_SIZE;
+    public static final Long SEED;
+    public static final String SNAPSHOT_DIR;
+    public static final int GRAPH_PETS;
+    public static final int GRAPH_VISITS;
+    public static final String GRAPH_SHAPES;
+    public static final int GRAPH_READS;
+
+    static {
+        POOL_SIZE = Integer.parseInt(getValue("DATA_POOL_SIZE", "2000"));
+        String seed = getValue("DATA_SEED", "");
+        SEED = seed.isBlank() ? null : Long.parseLong(seed.trim());
+        SNAPSHOT_DIR = getValue("DATA_SNAPSHOT_DIR", "");
+        GRAPH_PETS = Integer.parseInt(getValue("DATA_GRAPH_PETS", "2"));
+        GRAPH_VISITS = Integer.parseInt(getValue("DATA_GRAPH_VISITS", "2"));
+        GRAPH_SHAPES = getValue("DATA_GRAPH_SHAPES", "0x0,1x1,2x5,5x10,10x20");
+        GRAPH_READS = Integer.parseInt(getValue("DATA_GRAPH_READS", "20"));
+    }
+}
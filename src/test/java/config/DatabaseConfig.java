@@ -4,11 +4,23 @@ import static util.ConfigUtils.getValue;
 
 public class DatabaseConfig {
     public static final String URL;
+    public static final String MAINTENANCE_URL;
+    public static final String NAME;
     public static final String HOST;
     public static final String PORT;
     public static final String USERNAME;
     public static final String PASSWORD;
     public static final String VENDOR;
+    public static final int POOL_MIN_SIZE;
+    public static final int POOL_MAX_SIZE;
+    public static final long POOL_BORROW_TIMEOUT_MS;
+    public static final int POOL_VALIDATION_TIMEOUT_SEC;
+    public static final long POOL_LEAK_THRESHOLD_MS;
+    public static final boolean POOL_LEAK_TRACE;
+    public static final String RESET_STRATEGY;
+    public static final String RESET_TEMPLATE_NAME;
+    public static final String SEED_MODE;
+    public static final int SEED_BATCH_SIZE;
 
     private static final String PG = "postgres";
     private static final String MSQL = "mysql";
@@ -19,9 +31,26 @@ public class DatabaseConfig {
         HOST = getValue("DB_HOST", "localhost");
         PORT = getValue("DB_PORT", "5432");
         VENDOR = getValue("DB_VENDOR", PG);
+        NAME = getValue("DB_NAME", "petclinic");
+        POOL_MIN_SIZE = Integer.parseInt(getValue("DB_POOL_MIN_SIZE", "1"));
+        POOL_MAX_SIZE = Integer.parseInt(getValue("DB_POOL_MAX_SIZE", "8"));
+        POOL_BORROW_TIMEOUT_MS = Long.parseLong(getValue("DB_POOL_BORROW_TIMEOUT_MS", "10000"));
+        POOL_VALIDATION_TIMEOUT_SEC = Integer.parseInt(getValue("DB_POOL_VALIDATION_TIMEOUT_SEC", "2"));
+        POOL_LEAK_THRESHOLD_MS = Long.parseLong(getValue("DB_POOL_LEAK_THRESHOLD_MS", "30000"));
+        POOL_LEAK_TRACE = Boolean.parseBoolean(getValue("DB_POOL_LEAK_TRACE", "false"));
+        RESET_STRATEGY = getValue("DB_RESET_STRATEGY", "truncate");
+        RESET_TEMPLATE_NAME = getValue("DB_RESET_TEMPLATE", NAME + "_template");
+        SEED_MODE = getValue("DB_SEED_MODE", "copy");
+        SEED_BATCH_SIZE = Integer.parseInt(getValue("DB_SEED_BATCH_SIZE", "5000"));
         try {
             URL = switch (VENDOR) {
-                case PG -> "jdbc:postgresql://" + HOST + ":" + PORT + "/petclinic";
+                case PG -> "jdbc:postgresql://" + HOST + ":" + PORT + "/" + NAME;
+                case MSQL -> "not_implemented";
+                default -> throw new IllegalArgumentException("Unknown DB vendor!");
+            };
+            //database used for administrative statements (e.g. recreating the test database from a template)
+            MAINTENANCE_URL = switch (VENDOR) {
+                case PG -> "jdbc:postgresql://" + HOST + ":" + PORT + "/postgres";
                 case MSQL -> "not_implemented";
                 default -> throw new IllegalArgumentException("Unknown DB vendor!");
             };
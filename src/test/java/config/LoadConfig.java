@@ -0,0 +1,46 @@
+package config;
+
+import static util.ConfigUtils.getValue;
+
+public class LoadConfig {
+    public static final boolean ENABLED;
+    public static final String MODEL;
+    public static final double TARGET_RATE;
+    public static final int CONCURRENCY;
+    public static final int MAX_CONCURRENCY;
+    public static final long RAMP_UP_SEC;
+    public static final long STEADY_SEC;
+    public static final long RAMP_DOWN_SEC;
+    public static final long THINK_TIME_MS;
+    public static final String SCENARIOS;
+    public static final double MAX_ERROR_RATE;
+    public static final boolean VIRTUAL_THREADS;
+    public static final int HTTP_MAX_CONNECTIONS;
+    public static final long HTTP_LEASE_TIMEOUT_MS;
+    public static final boolean VERIFY_ASYNC;
+    public static final int VERIFY_BATCH_SIZE;
+    public static final long VERIFY_INTERVAL_MS;
+    public static final long VERIFY_DELAY_MS;
+
+    static {
+        ENABLED = Boolean.parseBoolean(getValue("LOAD_ENABLED", "false"));
+        MODEL = getValue("LOAD_MODEL", "closed");
+        TARGET_RATE = Double.parseDouble(getValue("LOAD_RATE", "20"));
+        CONCURRENCY = Integer.parseInt(getValue("LOAD_CONCURRENCY", "10"));
+        MAX_CONCURRENCY = Integer.parseInt(getValue("LOAD_MAX_CONCURRENCY", "200"));
+        RAMP_UP_SEC = Long.parseLong(getValue("LOAD_RAMP_UP_SEC", "10"));
+        STEADY_SEC = Long.parseLong(getValue("LOAD_STEADY_SEC", "60"));
+        RAMP_DOWN_SEC = Long.parseLong(getValue("LOAD_RAMP_DOWN_SEC", "10"));
+        THINK_TIME_MS = Long.parseLong(getValue("LOAD_THINK_TIME_MS", "0"));
+        SCENARIOS = getValue("LOAD_SCENARIOS",
+                "create:2,read:4,update:2,delete:1,createRead:1,createUpdate:1,createDelete:1,updateRead:1");
+        MAX_ERROR_RATE = Double.parseDouble(getValue("LOAD_MAX_ERROR_RATE", "0.01"));
+        VIRTUAL_THREADS = Boolean.parseBoolean(getValue("LOAD_VIRTUAL_THREADS", "true"));
+        HTTP_MAX_CONNECTIONS = Integer.parseInt(getValue("LOAD_HTTP_MAX_CONNECTIONS", "200"));
+        HTTP_LEASE_TIMEOUT_MS = Long.parseLong(getValue("LOAD_HTTP_LEASE_TIMEOUT_MS", "30000"));
+        VERIFY_ASYNC = Boolean.parseBoolean(getValue("LOAD_VERIFY_ASYNC", "true"));
+        VERIFY_BATCH_SIZE = Integer.parseInt(getValue("LOAD_VERIFY_BATCH_SIZE", "500"));
+        VERIFY_INTERVAL_MS = Long.parseLong(getValue("LOAD_VERIFY_INTERVAL_MS", "200"));
+        VERIFY_DELAY_MS = Long.parseLong(getValue("LOAD_VERIFY_DELAY_MS", "500"));
+    }
+}
@@ -0,0 +1,19 @@
+package config;
+
+import static util.ConfigUtils.getValue;
+
+public class LogConfig {
+    public static final double HTTP_SUCCESS_SAMPLE_RATE;
+    public static final int HTTP_MAX_BODY_CHARS;
+    public static final boolean HTTP_HEADERS;
+    public static final boolean HTTP_ASYNC;
+    public static final int HTTP_QUEUE_SIZE;
+
+    static {
+        HTTP_SUCCESS_SAMPLE_RATE = Double.parseDouble(getValue("LOG_HTTP_SUCCESS_SAMPLE_RATE", "1.0"));
+        HTTP_MAX_BODY_CHARS = Integer.parseInt(getValue("LOG_HTTP_MAX_BODY_CHARS", "2048"));
+        HTTP_HEADERS = Boolean.parseBoolean(getValue("LOG_HTTP_HEADERS", "true"));
+        HTTP_ASYNC = Boolean.parseBoolean(getValue("LOG_HTTP_ASYNC", "true"));
+        HTTP_QUEUE_SIZE = Integer.parseInt(getValue("LOG_HTTP_QUEUE_SIZE", "4096"));
+    }
+}
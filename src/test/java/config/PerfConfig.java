@@ -0,0 +1,65 @@
+package config;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static util.ConfigUtils.getValue;
+
+public class PerfConfig {
+    public static final String REPORT_DIR;
+    public static final String RUN_ID;
+    public static final String BASELINE_DIR;
+    public static final String BASELINE_COMPARE_TO;
+    public static final double REGRESSION_THRESHOLD;
+    public static final double REGRESSION_ALPHA;
+    public static final long REGRESSION_MIN_SAMPLES;
+    public static final boolean REGRESSION_FAIL;
+    public static final boolean WARMUP_ENABLED;
+    public static final int WARMUP_MIN_ITERATIONS;
+    public static final int WARMUP_MAX_ITERATIONS;
+    public static final long WARMUP_MAX_DURATION_MS;
+    public static final int WARMUP_WINDOW;
+    public static final double WARMUP_MAX_CV;
+    public static final String WARMUP_ENDPOINTS;
+    public static final int METRICS_PORT;
+    public static final String METRICS_FILE;
+    public static final boolean BENCH_ENABLED;
+    public static final String BENCH_SIZES;
+    public static final int BENCH_PETS;
+    public static final int BENCH_VISITS;
+    public static final int BENCH_READS;
+    public static final String BENCH_SEARCH_PREFIXES;
+    public static final boolean QUERY_PROFILE;
+    public static final int QUERY_PROFILE_TOP;
+    public static final boolean QUERY_PROFILE_EXPLAIN;
+
+    static {
+        REPORT_DIR = getValue("PERF_REPORT_DIR", "target/perf");
+        //local runs without CI id get a unique one, so that they don't overwrite each other's baselines
+        RUN_ID = getValue("TEST_RUN_ID", "local-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        BASELINE_DIR = getValue("PERF_BASELINE_DIR", "target/perf/baselines");
+        BASELINE_COMPARE_TO = getValue("PERF_BASELINE_COMPARE_TO", "");
+        REGRESSION_THRESHOLD = Double.parseDouble(getValue("PERF_REGRESSION_THRESHOLD", "0.10"));
+        REGRESSION_ALPHA = Double.parseDouble(getValue("PERF_REGRESSION_ALPHA", "0.01"));
+        REGRESSION_MIN_SAMPLES = Long.parseLong(getValue("PERF_REGRESSION_MIN_SAMPLES", "20"));
+        REGRESSION_FAIL = Boolean.parseBoolean(getValue("PERF_REGRESSION_FAIL", "false"));
+        WARMUP_ENABLED = Boolean.parseBoolean(getValue("PERF_WARMUP", "true"));
+        WARMUP_MIN_ITERATIONS = Integer.parseInt(getValue("PERF_WARMUP_MIN_ITERATIONS", "5"));
+        WARMUP_MAX_ITERATIONS = Integer.parseInt(getValue("PERF_WARMUP_MAX_ITERATIONS", "50"));
+        WARMUP_MAX_DURATION_MS = Long.parseLong(getValue("PERF_WARMUP_MAX_DURATION_MS", "10000"));
+        WARMUP_WINDOW = Integer.parseInt(getValue("PERF_WARMUP_WINDOW", "5"));
+        WARMUP_MAX_CV = Double.parseDouble(getValue("PERF_WARMUP_MAX_CV", "0.2"));
+        WARMUP_ENDPOINTS = getValue("PERF_WARMUP_ENDPOINTS", "");
+        METRICS_PORT = Integer.parseInt(getValue("PERF_METRICS_PORT", "0"));
+        METRICS_FILE = getValue("PERF_METRICS_FILE", "target/perf/metrics.prom");
+        BENCH_ENABLED = Boolean.parseBoolean(getValue("PERF_BENCH_ENABLED", "false"));
+        BENCH_SIZES = getValue("PERF_BENCH_SIZES", "1000,10000,100000");
+        BENCH_PETS = Integer.parseInt(getValue("PERF_BENCH_PETS", "1"));
+        BENCH_VISITS = Integer.parseInt(getValue("PERF_BENCH_VISITS", "1"));
+        BENCH_READS = Integer.parseInt(getValue("PERF_BENCH_READS", "5"));
+        BENCH_SEARCH_PREFIXES = getValue("PERF_BENCH_SEARCH_PREFIXES", "1,2,4,30");
+        QUERY_PROFILE = Boolean.parseBoolean(getValue("PERF_QUERY_PROFILE", "false"));
+        QUERY_PROFILE_TOP = Integer.parseInt(getValue("PERF_QUERY_PROFILE_TOP", "10"));
+        QUERY_PROFILE_EXPLAIN = Boolean.parseBoolean(getValue("PERF_QUERY_PROFILE_EXPLAIN", "false"));
+    }
+}
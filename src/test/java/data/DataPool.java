@@ -0,0 +1,154 @@
+package data;
+
+import com.github.javafaker.Faker;
+import config.DataConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Fixed set of pre-generated immutable test data items handed out round-robin.
+    Items are generated once, in parallel with one Faker per slice (Faker isn't safe for concurrent use),
+    after that next() is a single atomic increment, no Faker and no locks on the hot path.
+    Items repeat after size() calls, values that must be unique are to be added by the caller.
+
+    With DATA_SEED set every slice gets a Faker seeded from the seed and pool name, and the number of slices
+    doesn't depend on the machine, so the same seed gives the same items everywhere.
+    Pools of maps can be materialized into DATA_SNAPSHOT_DIR (see DataSnapshot) and loaded from there by later runs.
+ */
+public class DataPool<T> {
+    private final static Logger logger = LoggerFactory.getLogger(DataPool.class);
+    private final static int SLICES = 8;
+
+    private final String name;
+    private final int size;
+    private final Function<Faker, T> generator;
+    private final Supplier<Object[]> source;
+    private final AtomicLong cursor = new AtomicLong();
+    private volatile Object[] items;
+
+    /*
+        Items are created on first next(), not in the constructor: pools are static fields of factories and
+        generator lambdas run on other threads would wait for the factory class initialization forever
+     */
+    public DataPool(String name, int size, Function<Faker, T> generator) {
+        this(name, size, generator, false);
+    }
+
+    private DataPool(String name, int size, Function<Faker, T> generator, boolean snapshot) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Data pool size must be positive, given " + size);
+        }
+        this.name = name;
+        this.size = size;
+        this.generator = generator;
+        this.source = snapshot ? this::loadOrGenerate : this::generate;
+    }
+
+    private DataPool(String name, Supplier<Object[]> source) {
+        this.name = name;
+        this.size = 0;
+        this.generator = null;
+        this.source = source;
+    }
+
+    //map pool that is loaded from snapshot when there is one and is saved to it otherwise
+    public static DataPool<Map<String, Object>> ofMaps(String name, int size, Function<Faker, Map<String, Object>> generator) {
+        return new DataPool<>(name, size, generator, !DataConfig.SNAPSHOT_DIR.isEmpty());
+    }
+
+    //pool of items derived from the items of this one (e.g. encoded payloads), converted once on first use
+    @SuppressWarnings("unchecked")
+    public <R> DataPool<R> map(String derivedName, Function<T, R> converter) {
+        return new DataPool<>(derivedName, () -> Arrays.stream(items()).map(item -> converter.apply((T) item)).toArray());
+    }
+
+    private Object[] items() {
+        Object[] result = items;
+        if (result == null) {
+            synchronized (this) {
+                result = items;
+                if (result == null) {
+                    result = source.get();
+                    items = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Object[] loadOrGenerate() {
+        Path file = Path.of(DataConfig.SNAPSHOT_DIR, "%s-%d-%s.bin".formatted(name, size, DataConfig.SEED == null ? "unseeded" : DataConfig.SEED));
+        if (Files.exists(file)) {
+            long start = System.nanoTime();
+            try {
+                Object[] loaded = DataSnapshot.read(file);
+                logger.info("Data pool '{}' loaded from snapshot", name,
+                        kv("data_pool", name),
+                        kv("data_pool_size", loaded.length),
+                        kv("data_pool_snapshot", file.toString()),
+                        kv("data_pool_load_ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+                return loaded;
+            } catch (IOException e) {
+                logger.warn("Data snapshot can't be read, generating pool '{}'", name,
+                        kv("data_pool_snapshot", file.toString()),
+                        kv("cause_message", e.getMessage()));
+            }
+        }
+        Object[] generated = generate();
+        try {
+            DataSnapshot.write(file, generated);
+            logger.info("Data pool '{}' saved to snapshot", name, kv("data_pool_snapshot", file.toString()));
+        } catch (IOException e) {
+            logger.warn("Data snapshot can't be written",
+                    kv("data_pool_snapshot", file.toString()),
+                    kv("cause_message", e.getMessage()));
+        }
+        return generated;
+    }
+
+    //random source for values generated next to the pool (e.g. unique numbers), seeded with DATA_SEED when it's set
+    public static Random random(String name) {
+        return DataConfig.SEED == null ? new Random() : new Random(DataConfig.SEED + 31L * name.hashCode());
+    }
+
+    private Object[] generate() {
+        long start = System.nanoTime();
+        Object[] generated = new Object[size];
+        IntStream.range(0, SLICES).parallel().forEach(slice -> {
+            Faker faker = DataConfig.SEED == null ? new Faker() : new Faker(random(name + "#" + slice));
+            for (int i = slice; i < size; i += SLICES) {
+                generated[i] = generator.apply(faker);
+            }
+        });
+        logger.info("Data pool '{}' generated", name,
+                kv("data_pool", name),
+                kv("data_pool_size", size),
+                kv("data_pool_seed", DataConfig.SEED),
+                kv("data_pool_generation_ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return generated;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T next() {
+        Object[] current = items();
+        return (T) current[(int) Math.floorMod(cursor.getAndIncrement(), (long) current.length)];
+    }
+
+    public int size() {
+        return items().length;
+    }
+}
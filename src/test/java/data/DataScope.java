@@ -0,0 +1,71 @@
+package data;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    Isolates data of concurrently running tests. Every test opens its own scope, owners generated inside the scope
+    get telephone numbers starting with the scope prefix, so cleanup can remove exactly the rows the test created.
+    Pet types have no such field, their ids are registered in the scope as they are created.
+ */
+public class DataScope {
+    public final static int PREFIX_LENGTH = 6;
+    public final static int TELEPHONE_LENGTH = 10;
+
+    private final static AtomicInteger counter = new AtomicInteger();
+    private final static ThreadLocal<DataScope> current = new ThreadLocal<>();
+
+    private final String prefix;
+    private final Set<Integer> petTypeIds = ConcurrentHashMap.newKeySet();
+
+    private DataScope(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public static DataScope open() {
+        int id = Math.floorMod(counter.getAndIncrement(), (int) Math.pow(10, PREFIX_LENGTH));
+        DataScope scope = new DataScope(String.format("%0" + PREFIX_LENGTH + "d", id));
+        current.set(scope);
+        return scope;
+    }
+
+    public static DataScope current() {
+        return current.get();
+    }
+
+    public static void close() {
+        current.remove();
+    }
+
+    //registers a pet type created by the test of the current scope, no-op outside a scope
+    public static void trackPetType(int petTypeId) {
+        DataScope scope = current.get();
+        if (scope != null) {
+            scope.petTypeIds.add(petTypeId);
+        }
+    }
+
+    public Set<Integer> getPetTypeIds() {
+        return petTypeIds;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    //pattern for SQL LIKE matching every telephone created in this scope
+    public String getTelephonePattern() {
+        return prefix + "%";
+    }
+
+    public String telephone() {
+        StringBuilder sb = new StringBuilder(TELEPHONE_LENGTH).append(prefix);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (sb.length() < TELEPHONE_LENGTH) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Compact binary file with generated data pool items, read back through a memory-mapped buffer.
+    Layout: magic, format version, item count, then for every item: field count and (name, value) pairs,
+    every string as unsigned 16 bit length followed by UTF-8 bytes. Fields are written in name order,
+    so the same items always give the same bytes.
+ */
+public class DataSnapshot {
+    private final static int MAGIC = 0x50434453; //"PCDS"
+    private final static int VERSION = 1;
+
+    public static void write(Path file, Object[] items) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        //written next to the target and moved, so that a concurrently starting run never reads a partial file
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (OutputStream os = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(items.length);
+            for (Object item : items) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> fields = (Map<String, Object>) item;
+                List<String> names = new ArrayList<>(fields.keySet());
+                Collections.sort(names);
+                out.writeByte(names.size());
+                for (String name : names) {
+                    writeString(out, name);
+                    writeString(out, String.valueOf(fields.get(name)));
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Object[] read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a data snapshot or unsupported version: " + file);
+            }
+            Object[] items = new Object[buffer.getInt()];
+            //field names repeat in every item, one String instance per name is kept
+            Map<String, String> names = new HashMap<>();
+            for (int i = 0; i < items.length; i++) {
+                int fieldCount = Byte.toUnsignedInt(buffer.get());
+                Map<String, Object> fields = new HashMap<>(fieldCount * 2);
+                for (int f = 0; f < fieldCount; f++) {
+                    String name = readString(buffer);
+                    fields.put(names.computeIfAbsent(name, n -> n), readString(buffer));
+                }
+                items[i] = Collections.unmodifiableMap(fields);
+            }
+            return items;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Value too long for data snapshot: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,9 +1,9 @@
 package data;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.github.javafaker.Faker;
+import config.DataConfig;
+import mapper.OwnerRowMapper;
 import model.Owner;
+import model.OwnerRecord;
 import org.junit.jupiter.api.Named;
 import org.junit.jupiter.params.provider.Arguments;
 import org.slf4j.Logger;
@@ -12,13 +12,21 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import perf.LatencyHistogram;
+import perf.MetricsRegistry;
+import stub.StubStore;
 import util.DatabaseUtils;
 
 import java.sql.PreparedStatement;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
+import static config.ApiConfig.STUB_ENABLED;
 import static db.DatabaseConstants.OwnerTable.*;
 import static model.Owner.*;
 import static net.logstash.logback.argument.StructuredArguments.kv;
@@ -26,54 +34,63 @@ import static net.logstash.logback.argument.StructuredArguments.kv;
 public class OwnerFactory {
 
     private final static Logger logger = LoggerFactory.getLogger(OwnerFactory.class);
-    private final static ObjectMapper mapper = new ObjectMapper();
 
-    private final static Faker faker = new Faker();
+    /*
+        Owner payloads are pre-generated once (see DataPool), Faker is kept off the hot path.
+        Pool entries repeat, so the telephone is made unique for every handed out owner
+     */
+    private final static DataPool<Map<String, Object>> owners = DataPool.ofMaps("owners", DataConfig.POOL_SIZE, faker -> Map.of(
+            FIELD_FIRSTNAME, faker.name().firstName(),
+            FIELD_LASTNAME, faker.name().lastName(),
+            FIELD_ADDRESS, faker.address().fullAddress(),
+            FIELD_CITY, faker.address().city()));
+    //the same owners encoded to JSON once
+    private final static DataPool<OwnerPayload> payloads = owners.map("ownerPayloads", OwnerPayload::of);
+    private final static long TELEPHONE_SPACE = (long) Math.pow(10, DataScope.TELEPHONE_LENGTH);
+    private final static AtomicLong telephones = new AtomicLong(DataPool.random("telephones").nextLong(TELEPHONE_SPACE));
+
+    //meters are looked up once, hot paths only update them
+    private final static LongAdder generatedOwners = MetricsRegistry.global().counter("petclinic_test_owners_generated_total",
+            "Owner payloads handed out by OwnerFactory");
+    private final static LatencyHistogram selectOwnerTimer = MetricsRegistry.global().timer("petclinic_db_query_duration_seconds",
+            "Duration of database queries of test helpers", "query", "select_owner");
+    private final static LatencyHistogram insertOwnerTimer = MetricsRegistry.global().timer("petclinic_db_query_duration_seconds",
+            "Duration of database queries of test helpers", "query", "insert_owner");
+    private final static LatencyHistogram selectOwnersTimer = MetricsRegistry.global().timer("petclinic_db_query_duration_seconds",
+            "Duration of database queries of test helpers", "query", "select_owners_batch");
+    private static volatile boolean ownerColumnsVerified = false;
 
     private final static String GEN_TEST_DATA = "Generated test data field";
 
-    public static Stream<Arguments> getNegativeTestData() throws JsonProcessingException {
-        Map<String, Object> randomCorrectData = getRandomOwnerTestData();
+    public static Stream<Arguments> getNegativeTestData() {
+        OwnerPayload randomCorrectData = getRandomOwnerPayload();
 
-        //deep copy through serialization
-        Map<String, Object> onlyLongFirstName = deepCopy(randomCorrectData);
-        onlyLongFirstName.put(FIELD_FIRSTNAME, getOwnerTooLongFirstName());
+        //every variant re-encodes only the patched field
+        OwnerPayload onlyLongFirstName = randomCorrectData.with(FIELD_FIRSTNAME, getOwnerTooLongFirstName());
 
-        Map<String, Object> onlyShortFirstName = deepCopy(randomCorrectData);
-        onlyShortFirstName.put(FIELD_FIRSTNAME, getOwnerTooShortFirstName());
+        OwnerPayload onlyShortFirstName = randomCorrectData.with(FIELD_FIRSTNAME, getOwnerTooShortFirstName());
 
-        Map<String, Object> onlyInvalidFirstName = deepCopy(randomCorrectData);
-        onlyInvalidFirstName.put(FIELD_FIRSTNAME, getOwnerAgainstPatternFirstName());
+        OwnerPayload onlyInvalidFirstName = randomCorrectData.with(FIELD_FIRSTNAME, getOwnerAgainstPatternFirstName());
 
-        Map<String, Object> onlyLongLastName = deepCopy(randomCorrectData);
-        onlyLongLastName.put(FIELD_LASTNAME, getOwnerTooLongLastName());
+        OwnerPayload onlyLongLastName = randomCorrectData.with(FIELD_LASTNAME, getOwnerTooLongLastName());
 
-        Map<String, Object> onlyShortLastName = deepCopy(randomCorrectData);
-        onlyShortLastName.put(FIELD_LASTNAME, getOwnerTooShortLastName());
+        OwnerPayload onlyShortLastName = randomCorrectData.with(FIELD_LASTNAME, getOwnerTooShortLastName());
 
-        Map<String, Object> onlyInvalidLastName = deepCopy(randomCorrectData);
-        onlyInvalidLastName.put(FIELD_LASTNAME, getOwnerAgainstPatternLastName());
+        OwnerPayload onlyInvalidLastName = randomCorrectData.with(FIELD_LASTNAME, getOwnerAgainstPatternLastName());
 
-        Map<String, Object> onlyShortAddress = deepCopy(randomCorrectData);
-        onlyShortAddress.put(FIELD_ADDRESS, getOwnerTooShortAddress());
+        OwnerPayload onlyShortAddress = randomCorrectData.with(FIELD_ADDRESS, getOwnerTooShortAddress());
 
-        Map<String, Object> onlyLongAddress = deepCopy(randomCorrectData);
-        onlyLongAddress.put(FIELD_ADDRESS, getOwnerTooLongAddress());
+        OwnerPayload onlyLongAddress = randomCorrectData.with(FIELD_ADDRESS, getOwnerTooLongAddress());
 
-        Map<String, Object> onlyShortCity = deepCopy(randomCorrectData);
-        onlyShortCity.put(FIELD_CITY, getOwnerTooShortCity());
+        OwnerPayload onlyShortCity = randomCorrectData.with(FIELD_CITY, getOwnerTooShortCity());
 
-        Map<String, Object> onlyLongCity = deepCopy(randomCorrectData);
-        onlyLongCity.put(FIELD_CITY, getOwnerTooLongCity());
+        OwnerPayload onlyLongCity = randomCorrectData.with(FIELD_CITY, getOwnerTooLongCity());
 
-        Map<String, Object> onlyLongTelephone = deepCopy(randomCorrectData);
-        onlyLongTelephone.put(FIELD_TELEPHONE, getOwnerTooLongTelephone());
+        OwnerPayload onlyLongTelephone = randomCorrectData.with(FIELD_TELEPHONE, getOwnerTooLongTelephone());
 
-        Map<String, Object> onlyShortTelephone = deepCopy(randomCorrectData);
-        onlyShortTelephone.put(FIELD_TELEPHONE, getOwnerTooShortTelephone());
+        OwnerPayload onlyShortTelephone = randomCorrectData.with(FIELD_TELEPHONE, getOwnerTooShortTelephone());
 
-        Map<String, Object> onlyInvalidTelephone = deepCopy(randomCorrectData);
-        onlyInvalidTelephone.put(FIELD_TELEPHONE, getOwnerAgainstPatternTelephone());
+        OwnerPayload onlyInvalidTelephone = randomCorrectData.with(FIELD_TELEPHONE, getOwnerAgainstPatternTelephone());
 
         return Stream.of(
                 Arguments.of(
@@ -105,23 +122,34 @@ public class OwnerFactory {
         );
     }
 
-    private static Map<String, Object> deepCopy(Map<String, Object> map) throws JsonProcessingException {
-        return mapper.readValue(mapper.writeValueAsString(map), Map.class);
+    public static Map<String, Object> getRandomOwnerTestData() {
+        return getRandomOwnerPayload().toMap();
     }
 
-    public static Map<String, Object> getRandomOwnerTestData() {
-        Map<String, Object> data = new HashMap<>();
-        data.put(FIELD_FIRSTNAME, faker.name().firstName());
-        logger.debug(GEN_TEST_DATA, kv("field", FIELD_FIRSTNAME), kv("value", data.get(FIELD_FIRSTNAME)));
-        data.put(FIELD_LASTNAME, faker.name().lastName());
-        logger.debug(GEN_TEST_DATA, kv("field", FIELD_LASTNAME), kv("value", data.get(FIELD_LASTNAME)));
-        data.put(FIELD_ADDRESS, faker.address().fullAddress());
-        logger.debug(GEN_TEST_DATA, kv("field", FIELD_ADDRESS), kv("value", data.get(FIELD_ADDRESS)));
-        data.put(FIELD_CITY, faker.address().city());
-        logger.debug(GEN_TEST_DATA, kv("field", FIELD_CITY), kv("value", data.get(FIELD_CITY)));
-        data.put(FIELD_TELEPHONE, faker.number().digits(10));
-        logger.debug(GEN_TEST_DATA, kv("field", FIELD_TELEPHONE), kv("value", data.get(FIELD_TELEPHONE)));
-        return data;
+    public static OwnerPayload getRandomOwnerPayload() {
+        DataScope scope = DataScope.current();
+        OwnerPayload payload = payloads.next().with(FIELD_TELEPHONE, scope == null ? uniqueTelephone() : scope.telephone());
+        generatedOwners.increment();
+        if (logger.isDebugEnabled()) {
+            logger.debug(GEN_TEST_DATA,
+                    kv(FIELD_FIRSTNAME, payload.get(FIELD_FIRSTNAME)),
+                    kv(FIELD_LASTNAME, payload.get(FIELD_LASTNAME)),
+                    kv(FIELD_ADDRESS, payload.get(FIELD_ADDRESS)),
+                    kv(FIELD_CITY, payload.get(FIELD_CITY)),
+                    kv(FIELD_TELEPHONE, payload.get(FIELD_TELEPHONE)));
+        }
+        return payload;
+    }
+
+    //sequential numbers, unique until TELEPHONE_SPACE owners are generated
+    private static String uniqueTelephone() {
+        long number = Math.floorMod(telephones.getAndIncrement(), TELEPHONE_SPACE);
+        char[] digits = new char[DataScope.TELEPHONE_LENGTH];
+        for (int i = digits.length - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        return new String(digits);
     }
 
     public static Map<String, Object> getOwnerTestInvalidData() {
@@ -196,20 +224,116 @@ public class OwnerFactory {
     }
 
     public static Map<String, Object> getOwnerDataFromDatabase(int ownerId) {
-        JdbcTemplate template = DatabaseUtils.createTemplate();
-        String sql = "SELECT * FROM owners WHERE id = ?";
-        Map<String, Object> res;
+        long start = System.nanoTime();
+        try {
+            if (STUB_ENABLED) {
+                StubStore.OwnerRow owner = StubStore.global().findOwner(ownerId);
+                return owner == null ? Map.of() : owner.toDbRow();
+            }
+            JdbcTemplate template = DatabaseUtils.createTemplate();
+            String sql = "SELECT * FROM owners WHERE id = ?";
+            Map<String, Object> res;
+
+            try {
+                res = template.queryForMap(sql, ownerId);
+            } catch (EmptyResultDataAccessException emptyException) {
+                return Map.of();
+            }
+
+            return res;
+        } finally {
+            selectOwnerTimer.record(System.nanoTime() - start);
+        }
+    }
 
+    //typed row for database checks, null if there is no such owner
+    public static OwnerRecord getOwnerRecordFromDatabase(int ownerId) {
+        long start = System.nanoTime();
         try {
-            res = template.queryForMap(sql, ownerId);
-        } catch (EmptyResultDataAccessException emptyException) {
-            return Map.of();
+            if (STUB_ENABLED) {
+                StubStore.OwnerRow owner = StubStore.global().findOwner(ownerId);
+                return owner == null ? null : toRecord(owner);
+            }
+            verifyOwnerColumns();
+            List<OwnerRecord> owners = DatabaseUtils.createTemplate().query(
+                    "SELECT %s FROM owners WHERE id = ?".formatted(OwnerRowMapper.SELECT_COLUMNS), OwnerRowMapper.INSTANCE, ownerId);
+            return owners.isEmpty() ? null : owners.get(0);
+        } finally {
+            selectOwnerTimer.record(System.nanoTime() - start);
         }
+    }
+
+    //typed reads would silently skip a column added to owners, the table is checked until it matches once
+    private static void verifyOwnerColumns() {
+        if (ownerColumnsVerified) {
+            return;
+        }
+        List<String> drift = OwnerRowMapper.columnDrift(DatabaseUtils.createTemplate());
+        if (!drift.isEmpty()) {
+            throw new IllegalStateException("Owners table doesn't match columns read by OwnerRowMapper: " + String.join(", ", drift));
+        }
+        ownerColumnsVerified = true;
+    }
+
+    //typed rows of all found owners in one round-trip, by id; owners not found are absent from the result
+    public static Map<Integer, OwnerRecord> getOwnerRecordsFromDatabase(Collection<Integer> ownerIds) {
+        long start = System.nanoTime();
+        try {
+            Map<Integer, OwnerRecord> owners = new HashMap<>();
+            if (STUB_ENABLED) {
+                for (int ownerId : ownerIds) {
+                    StubStore.OwnerRow owner = StubStore.global().findOwner(ownerId);
+                    if (owner != null) {
+                        owners.put(ownerId, toRecord(owner));
+                    }
+                }
+                return owners;
+            }
+            verifyOwnerColumns();
+            Integer[] ids = ownerIds.toArray(new Integer[0]);
+            DatabaseUtils.createTemplate().query("SELECT %s FROM owners WHERE id = ANY(?)".formatted(OwnerRowMapper.SELECT_COLUMNS),
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids)),
+                    rs -> {
+                        OwnerRecord owner = OwnerRowMapper.INSTANCE.mapRow(rs, 0);
+                        owners.put(owner.id(), owner);
+                    });
+            return owners;
+        } finally {
+            selectOwnersTimer.record(System.nanoTime() - start);
+        }
+    }
 
-        return res;
+    private static OwnerRecord toRecord(StubStore.OwnerRow owner) {
+        return new OwnerRecord(owner.id(), owner.firstName(), owner.lastName(), owner.address(), owner.city(), owner.telephone());
+    }
+
+    //owners GET /owners?lastName= is expected to return, the API matches last names by prefix
+    public static int countOwnersByLastNamePrefix(String prefix) {
+        if (STUB_ENABLED) {
+            return StubStore.global().findOwners(prefix).size();
+        }
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        Integer count = DatabaseUtils.createTemplate().queryForObject(
+                "SELECT count(*) FROM owners WHERE %s LIKE ?".formatted(LASTNAME_COL_NAME), Integer.class, pattern);
+        return count == null ? 0 : count;
     }
 
     public static int createOwnerInDatabase(Map<String, Object> ownerData) {
+        DatabaseUtils.requireSeedingVisibleToApi("owners");
+        long start = System.nanoTime();
+        try {
+            return insertOwner(ownerData);
+        } finally {
+            insertOwnerTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    private static int insertOwner(Map<String, Object> ownerData) {
+        if (STUB_ENABLED) {
+            return StubStore.global().insertOwner((String) ownerData.get(Owner.FIELD_FIRSTNAME),
+                    (String) ownerData.get(Owner.FIELD_LASTNAME), (String) ownerData.get(Owner.FIELD_ADDRESS),
+                    (String) ownerData.get(Owner.FIELD_CITY), (String) ownerData.get(Owner.FIELD_TELEPHONE)).id();
+        }
         JdbcTemplate template = DatabaseUtils.createTemplate();
         KeyHolder keyHolder = new GeneratedKeyHolder();
         String sql = "INSERT INTO owners (%s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?)"
@@ -223,6 +347,7 @@ public class OwnerFactory {
             ps.setString(5, (String) ownerData.get(Owner.FIELD_TELEPHONE));
             return ps;
         }, keyHolder);
+        DatabaseUtils.markDirty("owners");
 
         return keyHolder.getKeyAs(Integer.class);
     }
@@ -0,0 +1,117 @@
+package data;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import util.JsonUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+    Owner request body encoded to JSON once and kept as bytes, field by field.
+    with() re-encodes only the changed field, so variants of one payload (unique telephone, negative cases)
+    don't serialize the whole owner again; bytes() joins the encoded fields without intermediate Strings.
+    Instances are immutable and can be shared between threads.
+ */
+public class OwnerPayload {
+    private final String[] names;
+    private final Object[] values;
+    //'"name":value' of every field
+    private final byte[][] encoded;
+    private volatile byte[] bytes;
+
+    private OwnerPayload(String[] names, Object[] values, byte[][] encoded) {
+        this.names = names;
+        this.values = values;
+        this.encoded = encoded;
+    }
+
+    public static OwnerPayload of(Map<String, Object> data) {
+        //fixed field order, so the same data always gives the same bytes
+        String[] names = data.keySet().stream().sorted().toArray(String[]::new);
+        Object[] values = new Object[names.length];
+        byte[][] encoded = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = data.get(names[i]);
+            encoded[i] = encode(names[i], values[i]);
+        }
+        return new OwnerPayload(names, values, encoded);
+    }
+
+    public OwnerPayload with(String name, Object value) {
+        int index = Arrays.asList(names).indexOf(name);
+        String[] newNames = names;
+        Object[] newValues;
+        byte[][] newEncoded;
+        if (index < 0) {
+            index = names.length;
+            newNames = Arrays.copyOf(names, names.length + 1);
+            newNames[index] = name;
+            newValues = Arrays.copyOf(values, values.length + 1);
+            newEncoded = Arrays.copyOf(encoded, encoded.length + 1);
+        } else {
+            newValues = values.clone();
+            newEncoded = encoded.clone();
+        }
+        newValues[index] = value;
+        newEncoded[index] = encode(name, value);
+        return new OwnerPayload(newNames, newValues, newEncoded);
+    }
+
+    public Object get(String name) {
+        int index = Arrays.asList(names).indexOf(name);
+        return index < 0 ? null : values[index];
+    }
+
+    //JSON body, built on first call; concurrent first calls build equal arrays, so no synchronization is needed
+    public byte[] bytes() {
+        byte[] result = bytes;
+        if (result == null) {
+            int length = 2 + Math.max(encoded.length - 1, 0);
+            for (byte[] field : encoded) {
+                length += field.length;
+            }
+            result = new byte[length];
+            int position = 0;
+            result[position++] = '{';
+            for (int i = 0; i < encoded.length; i++) {
+                if (i > 0) {
+                    result[position++] = ',';
+                }
+                System.arraycopy(encoded[i], 0, result, position, encoded[i].length);
+                position += encoded[i].length;
+            }
+            result[position] = '}';
+            bytes = result;
+        }
+        return result;
+    }
+
+    //mutable copy for assertions, tests add the id to it
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            map.put(names[i], values[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(String name, Object value) {
+        try {
+            byte[] key = JsonUtils.MAPPER.writeValueAsBytes(name);
+            byte[] encodedValue = JsonUtils.MAPPER.writeValueAsBytes(value);
+            byte[] field = Arrays.copyOf(key, key.length + 1 + encodedValue.length);
+            field[key.length] = ':';
+            System.arraycopy(encodedValue, 0, field, key.length + 1, encodedValue.length);
+            return field;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Value of '%s' can't be encoded to JSON".formatted(name), e);
+        }
+    }
+}
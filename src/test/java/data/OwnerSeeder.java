@@ -0,0 +1,279 @@
+package data;
+
+import model.Owner;
+import model.Pet;
+import model.Visit;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stub.StubStore;
+import util.DatabaseUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static config.ApiConfig.STUB_ENABLED;
+import static config.DatabaseConfig.SEED_BATCH_SIZE;
+import static config.DatabaseConfig.SEED_MODE;
+import static db.DatabaseConstants.*;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Bulk seeding of owners with their pets and visits for list/search benchmarks.
+    Rows are generated and written in chunks of DB_SEED_BATCH_SIZE owners, either streamed with PostgreSQL COPY
+    (DB_SEED_MODE=copy) or with JDBC batch inserts (DB_SEED_MODE=batch). Ids are taken from the table sequences up front,
+    one round-trip per chunk, so children rows can reference their parents without reading generated keys back.
+    In stub mode rows go straight to StubStore.
+ */
+public class OwnerSeeder {
+    private final static Logger logger = LoggerFactory.getLogger(OwnerSeeder.class);
+    //COPY data is sent to the server in pieces of this size
+    private final static int COPY_BUFFER_CHARS = 64 * 1024;
+    private final static String SEED_PET_TYPE = "seedtype";
+
+    private final static List<String> OWNER_COLUMNS = List.of(OwnerTable.ID_COL_NAME, OwnerTable.FIRSTNAME_COL_NAME,
+            OwnerTable.LASTNAME_COL_NAME, OwnerTable.ADDRESS_COL_NAME, OwnerTable.CITY_COL_NAME, OwnerTable.TELEPHONE_COL_NAME);
+    private final static List<String> PET_COLUMNS = List.of(PetTable.ID_COL_NAME, PetTable.NAME_COL_NAME,
+            PetTable.BIRTHDATE_COL_NAME, PetTable.TYPE_ID_COL_NAME, PetTable.OWNER_ID_COL_NAME);
+    private final static List<String> VISIT_COLUMNS = List.of(VisitTable.ID_COL_NAME, VisitTable.PET_ID_COL_NAME,
+            VisitTable.DATE_COL_NAME, VisitTable.DESCRIPTION_COL_NAME);
+
+    public record SeedResult(int[] ownerIds, int[] petIds, long visits, long durationNs) {
+        public long rows() {
+            return ownerIds.length + petIds.length + visits;
+        }
+
+        public double rowsPerSecond() {
+            return durationNs == 0 ? 0 : rows() * 1e9 / durationNs;
+        }
+    }
+
+    public static SeedResult seedOwners(int owners) {
+        return seedOwners(owners, 0, 0);
+    }
+
+    public static SeedResult seedOwners(int owners, int petsPerOwner, int visitsPerPet) {
+        if (STUB_ENABLED) {
+            return seedStub(owners, petsPerOwner, visitsPerPet);
+        }
+        boolean copy = switch (SEED_MODE.toLowerCase()) {
+            case "copy" -> true;
+            case "batch" -> false;
+            default -> throw new IllegalArgumentException("Unknown seeding mode '%s', use 'copy' or 'batch'".formatted(SEED_MODE));
+        };
+        long start = System.nanoTime();
+        int[] ownerIds = new int[owners];
+        int[] petIds = new int[owners * petsPerOwner];
+        long visits = 0;
+        DatabaseUtils.markDirty("owners", "pets", "visits");
+
+        try (Connection conn = DatabaseUtils.getConnection()) {
+            int typeId = petsPerOwner > 0 ? ensurePetType(conn) : -1;
+            for (int done = 0; done < owners; ) {
+                int chunk = Math.min(SEED_BATCH_SIZE, owners - done);
+
+                int[] chunkOwnerIds = nextIds(conn, "owners", chunk);
+                List<Object[]> ownerRows = new ArrayList<>(chunk);
+                for (int id : chunkOwnerIds) {
+                    Map<String, Object> data = OwnerFactory.getRandomOwnerTestData();
+                    ownerRows.add(new Object[]{id, data.get(Owner.FIELD_FIRSTNAME), data.get(Owner.FIELD_LASTNAME),
+                            data.get(Owner.FIELD_ADDRESS), data.get(Owner.FIELD_CITY), data.get(Owner.FIELD_TELEPHONE)});
+                }
+                write(conn, copy, "owners", OWNER_COLUMNS, ownerRows);
+                System.arraycopy(chunkOwnerIds, 0, ownerIds, done, chunk);
+
+                if (petsPerOwner > 0) {
+                    int[] chunkPetIds = nextIds(conn, "pets", chunk * petsPerOwner);
+                    List<Object[]> petRows = new ArrayList<>(chunkPetIds.length);
+                    for (int i = 0; i < chunkPetIds.length; i++) {
+                        Map<String, Object> pet = PetFactory.getRandomPetTestData();
+                        petRows.add(new Object[]{chunkPetIds[i], pet.get(Pet.FIELD_NAME),
+                                LocalDate.parse((String) pet.get(Pet.FIELD_BIRTHDATE)), typeId, chunkOwnerIds[i / petsPerOwner]});
+                    }
+                    write(conn, copy, "pets", PET_COLUMNS, petRows);
+                    System.arraycopy(chunkPetIds, 0, petIds, done * petsPerOwner, chunkPetIds.length);
+
+                    if (visitsPerPet > 0) {
+                        int[] chunkVisitIds = nextIds(conn, "visits", chunkPetIds.length * visitsPerPet);
+                        List<Object[]> visitRows = new ArrayList<>(chunkVisitIds.length);
+                        for (int i = 0; i < chunkVisitIds.length; i++) {
+                            Map<String, Object> visit = PetFactory.getRandomVisitTestData();
+                            visitRows.add(new Object[]{chunkVisitIds[i], chunkPetIds[i / visitsPerPet],
+                                    LocalDate.parse((String) visit.get(Visit.FIELD_DATE)), visit.get(Visit.FIELD_DESCRIPTION)});
+                        }
+                        write(conn, copy, "visits", VISIT_COLUMNS, visitRows);
+                        visits += chunkVisitIds.length;
+                    }
+                }
+
+                done += chunk;
+                long elapsed = System.nanoTime() - start;
+                logger.info("Seeded {} of {} owners", done, owners,
+                        kv("seed_owners_done", done),
+                        kv("seed_owners_total", owners),
+                        kv("seed_rows_per_sec", Math.round((done * (1L + petsPerOwner + (long) petsPerOwner * visitsPerPet)) * 1e9 / elapsed)));
+            }
+        } catch (SQLException e) {
+            logger.error("Error seeding database",
+                    kv("seed_mode", SEED_MODE),
+                    kv("cause_message", e.getMessage()));
+            throw new RuntimeException(e);
+        }
+
+        SeedResult result = new SeedResult(ownerIds, petIds, visits, System.nanoTime() - start);
+        logger.info("Database seeded: {} rows in {} ms ({} rows/s)", result.rows(),
+                TimeUnit.NANOSECONDS.toMillis(result.durationNs()), Math.round(result.rowsPerSecond()),
+                kv("seed_mode", SEED_MODE),
+                kv("seed_owners", ownerIds.length),
+                kv("seed_pets", petIds.length),
+                kv("seed_visits", visits),
+                kv("seed_duration_ms", TimeUnit.NANOSECONDS.toMillis(result.durationNs())),
+                kv("seed_rows_per_sec", Math.round(result.rowsPerSecond())));
+        return result;
+    }
+
+    private static SeedResult seedStub(int owners, int petsPerOwner, int visitsPerPet) {
+        long start = System.nanoTime();
+        StubStore store = StubStore.global();
+        int[] ownerIds = new int[owners];
+        int[] petIds = new int[owners * petsPerOwner];
+        long visits = 0;
+        int typeId = -1;
+        if (petsPerOwner > 0) {
+            StubStore.TypeRow type = store.findTypeByName(SEED_PET_TYPE);
+            typeId = type != null ? type.id() : store.insertType(SEED_PET_TYPE).id();
+        }
+        for (int o = 0; o < owners; o++) {
+            Map<String, Object> data = OwnerFactory.getRandomOwnerTestData();
+            ownerIds[o] = store.insertOwner((String) data.get(Owner.FIELD_FIRSTNAME), (String) data.get(Owner.FIELD_LASTNAME),
+                    (String) data.get(Owner.FIELD_ADDRESS), (String) data.get(Owner.FIELD_CITY), (String) data.get(Owner.FIELD_TELEPHONE)).id();
+            for (int p = 0; p < petsPerOwner; p++) {
+                Map<String, Object> pet = PetFactory.getRandomPetTestData();
+                int petId = store.insertPet((String) pet.get(Pet.FIELD_NAME), (String) pet.get(Pet.FIELD_BIRTHDATE), typeId, ownerIds[o]).id();
+                petIds[o * petsPerOwner + p] = petId;
+                for (int v = 0; v < visitsPerPet; v++) {
+                    Map<String, Object> visit = PetFactory.getRandomVisitTestData();
+                    store.insertVisit(petId, (String) visit.get(Visit.FIELD_DATE), (String) visit.get(Visit.FIELD_DESCRIPTION));
+                    visits++;
+                }
+            }
+        }
+        SeedResult result = new SeedResult(ownerIds, petIds, visits, System.nanoTime() - start);
+        logger.info("Stub seeded: {} rows in {} ms", result.rows(), TimeUnit.NANOSECONDS.toMillis(result.durationNs()),
+                kv("seed_mode", "stub"),
+                kv("seed_owners", ownerIds.length),
+                kv("seed_pets", petIds.length),
+                kv("seed_visits", visits),
+                kv("seed_duration_ms", TimeUnit.NANOSECONDS.toMillis(result.durationNs())));
+        return result;
+    }
+
+    private static int[] nextIds(Connection conn, String table, int count) throws SQLException {
+        int[] ids = new int[count];
+        String sql = "SELECT nextval(pg_get_serial_sequence('%s', 'id')) FROM generate_series(1, ?)".formatted(table);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, count);
+            try (ResultSet rs = ps.executeQuery()) {
+                int i = 0;
+                while (rs.next()) {
+                    ids[i++] = rs.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    //pets need an existing type, database may be empty after reset
+    private static int ensurePetType(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM types ORDER BY id LIMIT 1")) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO types (name) VALUES (?) RETURNING id")) {
+            ps.setString(1, SEED_PET_TYPE);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                DatabaseUtils.markDirty("types");
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void write(Connection conn, boolean copy, String table, List<String> columns, List<Object[]> rows) throws SQLException {
+        if (copy) {
+            copyRows(conn, table, columns, rows);
+        } else {
+            batchInsert(conn, table, columns, rows);
+        }
+    }
+
+    private static void copyRows(Connection conn, String table, List<String> columns, List<Object[]> rows) throws SQLException {
+        String sql = "COPY %s (%s) FROM STDIN WITH (FORMAT csv)".formatted(table, String.join(", ", columns));
+        CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+            for (Object[] row : rows) {
+                appendCsv(buffer, row);
+                if (buffer.length() >= COPY_BUFFER_CHARS) {
+                    flush(copyIn, buffer);
+                }
+            }
+            flush(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void flush(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (!buffer.isEmpty()) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private static void appendCsv(StringBuilder buffer, Object[] row) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                buffer.append(',');
+            }
+            Object value = row[i];
+            if (value instanceof String text) {
+                buffer.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else if (value != null) {
+                buffer.append(value);
+            }
+        }
+        buffer.append('\n');
+    }
+
+    private static void batchInsert(Connection conn, String table, List<String> columns, List<Object[]> rows) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        String sql = "INSERT INTO %s (%s) VALUES (%s)".formatted(table, String.join(", ", columns), placeholders);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
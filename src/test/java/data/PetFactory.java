@@ -0,0 +1,202 @@
+package data;
+
+import config.DataConfig;
+import model.Owner;
+import model.Pet;
+import model.PetType;
+import model.Visit;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import stub.StubStore;
+import util.DatabaseUtils;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static config.ApiConfig.STUB_ENABLED;
+import static db.DatabaseConstants.*;
+
+public class PetFactory {
+
+    //fixed instead of today's date, so that seeded data doesn't change from day to day
+    private final static LocalDate REFERENCE_DATE = LocalDate.of(2025, 1, 1);
+    //pet type shared by all owner graphs, looked up by name as resets remove it together with other data
+    private final static String GRAPH_PET_TYPE = "graphtype";
+
+    //dates are kept as ISO strings, the way they are sent to and returned by the API
+    private final static DataPool<Map<String, Object>> pets = DataPool.ofMaps("pets", DataConfig.POOL_SIZE, faker -> Map.of(
+            Pet.FIELD_NAME, faker.name().firstName(),
+            Pet.FIELD_BIRTHDATE, REFERENCE_DATE.minusDays(faker.number().numberBetween(1, 15 * 365)).toString()));
+
+    private final static DataPool<Map<String, Object>> visits = DataPool.ofMaps("visits", DataConfig.POOL_SIZE, faker -> Map.of(
+            Visit.FIELD_DATE, REFERENCE_DATE.minusDays(faker.number().numberBetween(0, 3 * 365)).toString(),
+            Visit.FIELD_DESCRIPTION, faker.lorem().sentence(4)));
+
+    private final static DataPool<Map<String, Object>> petTypes = DataPool.ofMaps("petTypes", DataConfig.POOL_SIZE, faker -> Map.of(
+            PetType.FIELD_NAME, faker.animal().name()));
+
+    public static Map<String, Object> getRandomPetTestData() {
+        return new HashMap<>(pets.next());
+    }
+
+    public static Map<String, Object> getRandomVisitTestData() {
+        return new HashMap<>(visits.next());
+    }
+
+    public static Map<String, Object> getRandomPetTypeTestData() {
+        return new HashMap<>(petTypes.next());
+    }
+
+    //pet request body: the type is referenced by id and name, the way the API returns it
+    public static Map<String, Object> toPetPayload(Map<String, Object> petData, Map<String, Object> petTypeData) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put(Pet.FIELD_NAME, petData.get(Pet.FIELD_NAME));
+        payload.put(Pet.FIELD_BIRTHDATE, petData.get(Pet.FIELD_BIRTHDATE));
+        payload.put(Pet.FIELD_TYPE, Map.of(PetType.FIELD_ID, petTypeData.get(PetType.FIELD_ID),
+                PetType.FIELD_NAME, petTypeData.get(PetType.FIELD_NAME)));
+        return payload;
+    }
+
+    //database
+
+    public static Map<String, Object> getPetDataFromDatabase(int petId) {
+        if (STUB_ENABLED) {
+            StubStore.PetRow pet = StubStore.global().findPet(petId);
+            return pet == null ? Map.of() : pet.toDbRow();
+        }
+        return queryForMap("SELECT * FROM pets WHERE id = ?", petId);
+    }
+
+    public static Map<String, Object> getVisitDataFromDatabase(int visitId) {
+        if (STUB_ENABLED) {
+            StubStore.VisitRow visit = StubStore.global().findVisit(visitId);
+            return visit == null ? Map.of() : visit.toDbRow();
+        }
+        return queryForMap("SELECT * FROM visits WHERE id = ?", visitId);
+    }
+
+    public static Map<String, Object> getPetTypeDataFromDatabase(int petTypeId) {
+        if (STUB_ENABLED) {
+            StubStore.TypeRow type = StubStore.global().findType(petTypeId);
+            return type == null ? Map.of() : type.toDbRow();
+        }
+        return queryForMap("SELECT * FROM types WHERE id = ?", petTypeId);
+    }
+
+    public static int createPetTypeInDatabase(Map<String, Object> petTypeData) {
+        int id = insertPetType((String) petTypeData.get(PetType.FIELD_NAME));
+        DataScope.trackPetType(id);
+        return id;
+    }
+
+    //not registered in the data scope, shared pet types outlive the test creating them
+    private static int insertPetType(String name) {
+        DatabaseUtils.requireSeedingVisibleToApi("types");
+        if (STUB_ENABLED) {
+            return StubStore.global().insertType(name).id();
+        }
+        int id = insert("INSERT INTO types (%s) VALUES (?)".formatted(TypeTable.NAME_COL_NAME), name);
+        DatabaseUtils.markDirty("types");
+        return id;
+    }
+
+    public static int createPetInDatabase(Map<String, Object> petData, int petTypeId, int ownerId) {
+        DatabaseUtils.requireSeedingVisibleToApi("pets");
+        String name = (String) petData.get(Pet.FIELD_NAME);
+        String birthDate = (String) petData.get(Pet.FIELD_BIRTHDATE);
+        if (STUB_ENABLED) {
+            return StubStore.global().insertPet(name, birthDate, petTypeId, ownerId).id();
+        }
+        int id = insert("INSERT INTO pets (%s, %s, %s, %s) VALUES (?, ?, ?, ?)".formatted(PetTable.NAME_COL_NAME,
+                        PetTable.BIRTHDATE_COL_NAME, PetTable.TYPE_ID_COL_NAME, PetTable.OWNER_ID_COL_NAME),
+                name, Date.valueOf(birthDate), petTypeId, ownerId);
+        DatabaseUtils.markDirty("pets");
+        return id;
+    }
+
+    public static int createVisitInDatabase(Map<String, Object> visitData, int petId) {
+        DatabaseUtils.requireSeedingVisibleToApi("visits");
+        String date = (String) visitData.get(Visit.FIELD_DATE);
+        String description = (String) visitData.get(Visit.FIELD_DESCRIPTION);
+        if (STUB_ENABLED) {
+            return StubStore.global().insertVisit(petId, date, description).id();
+        }
+        int id = insert("INSERT INTO visits (%s, %s, %s) VALUES (?, ?, ?)".formatted(VisitTable.PET_ID_COL_NAME,
+                        VisitTable.DATE_COL_NAME, VisitTable.DESCRIPTION_COL_NAME),
+                petId, Date.valueOf(date), description);
+        DatabaseUtils.markDirty("visits");
+        return id;
+    }
+
+    /*
+        Owner with pets and visits written straight to the database, returned the way GET /owners/{ownerId} shows it:
+        owner fields with id, pets (with their type, owner id and visits) in creation order
+     */
+    public static Map<String, Object> createOwnerGraphInDatabase(int petCount, int visitsPerPet) {
+        Map<String, Object> owner = OwnerFactory.getRandomOwnerTestData();
+        int ownerId = OwnerFactory.createOwnerInDatabase(owner);
+        owner.put(Owner.FIELD_ID, ownerId);
+        Map<String, Object> petType = petCount > 0 ? graphPetType() : null;
+        List<Map<String, Object>> ownerPets = new ArrayList<>(petCount);
+        for (int p = 0; p < petCount; p++) {
+            Map<String, Object> pet = getRandomPetTestData();
+            int petId = createPetInDatabase(pet, (int) petType.get(PetType.FIELD_ID), ownerId);
+            pet.put(Pet.FIELD_ID, petId);
+            pet.put(Pet.FIELD_OWNERID, ownerId);
+            pet.put(Pet.FIELD_TYPE, petType);
+            List<Map<String, Object>> petVisits = new ArrayList<>(visitsPerPet);
+            for (int v = 0; v < visitsPerPet; v++) {
+                Map<String, Object> visit = getRandomVisitTestData();
+                visit.put(Visit.FIELD_ID, createVisitInDatabase(visit, petId));
+                visit.put(Visit.FIELD_PETID, petId);
+                petVisits.add(visit);
+            }
+            pet.put(Pet.FIELD_VISITS, petVisits);
+            ownerPets.add(pet);
+        }
+        owner.put(Owner.FIELD_PETS, ownerPets);
+        return owner;
+    }
+
+    private static Map<String, Object> graphPetType() {
+        int id;
+        if (STUB_ENABLED) {
+            StubStore.TypeRow type = StubStore.global().findTypeByName(GRAPH_PET_TYPE);
+            id = type != null ? type.id() : StubStore.global().insertType(GRAPH_PET_TYPE).id();
+        } else {
+            List<Integer> ids = DatabaseUtils.createTemplate().queryForList(
+                    "SELECT id FROM types WHERE name = ?", Integer.class, GRAPH_PET_TYPE);
+            id = ids.isEmpty() ? insertPetType(GRAPH_PET_TYPE) : ids.get(0);
+        }
+        return Map.of(PetType.FIELD_ID, id, PetType.FIELD_NAME, GRAPH_PET_TYPE);
+    }
+
+    private static Map<String, Object> queryForMap(String sql, int id) {
+        try {
+            return DatabaseUtils.createTemplate().queryForMap(sql, id);
+        } catch (EmptyResultDataAccessException emptyException) {
+            return Map.of();
+        }
+    }
+
+    private static int insert(String sql, Object... values) {
+        JdbcTemplate template = DatabaseUtils.createTemplate();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        template.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, new String[]{"id"});
+            for (int i = 0; i < values.length; i++) {
+                ps.setObject(i + 1, values[i]);
+            }
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Integer.class);
+    }
+}
@@ -1,6 +1,12 @@
 package db;
 
+import java.util.List;
+
 public class DatabaseConstants {
+    //application tables in the order they can be deleted from without violating foreign keys
+    public final static List<String> APP_TABLES = List.of(
+            "visits", "pets", "owners", "vet_specialties", "specialties", "types", "vets");
+
     public static class OwnerTable {
         public final static String FIRSTNAME_COL_NAME = "first_name";
         public final static String LASTNAME_COL_NAME = "last_name";
@@ -9,4 +15,24 @@ public class DatabaseConstants {
         public final static String TELEPHONE_COL_NAME = "telephone";
         public final static String ID_COL_NAME = "id";
     }
+
+    public static class PetTable {
+        public final static String NAME_COL_NAME = "name";
+        public final static String BIRTHDATE_COL_NAME = "birth_date";
+        public final static String TYPE_ID_COL_NAME = "type_id";
+        public final static String OWNER_ID_COL_NAME = "owner_id";
+        public final static String ID_COL_NAME = "id";
+    }
+
+    public static class VisitTable {
+        public final static String PET_ID_COL_NAME = "pet_id";
+        public final static String DATE_COL_NAME = "visit_date";
+        public final static String DESCRIPTION_COL_NAME = "description";
+        public final static String ID_COL_NAME = "id";
+    }
+
+    public static class TypeTable {
+        public final static String NAME_COL_NAME = "name";
+        public final static String ID_COL_NAME = "id";
+    }
 }
@@ -0,0 +1,22 @@
+package db;
+
+import util.DatabaseUtils;
+
+//original approach: row-by-row DELETE of every application table before and after each test
+public class DeleteResetStrategy implements ResetStrategy {
+
+    @Override
+    public String name() {
+        return "delete";
+    }
+
+    @Override
+    public void beforeTest() {
+        DatabaseUtils.cleanDatabase();
+    }
+
+    @Override
+    public void afterTest() {
+        DatabaseUtils.cleanDatabase();
+    }
+}
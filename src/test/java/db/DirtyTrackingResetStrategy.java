@@ -0,0 +1,58 @@
+package db;
+
+import util.DatabaseUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static db.DatabaseConstants.APP_TABLES;
+
+/*
+    Truncates only the tables marked as touched since the last reset.
+    Tables are marked by direct JDBC helpers (see OwnerFactory) and by DirtyTrackingFilter for API calls changing data.
+    The first reset truncates everything as the initial state of the database is unknown.
+ */
+public class DirtyTrackingResetStrategy implements ResetStrategy {
+    private final Set<String> dirtyTables = ConcurrentHashMap.newKeySet();
+    private volatile boolean initialized = false;
+
+    @Override
+    public String name() {
+        return "dirty";
+    }
+
+    public void markDirty(String... tables) {
+        for (String table : tables) {
+            dirtyTables.add(table);
+        }
+    }
+
+    @Override
+    public void beforeTest() {
+        if (!initialized) {
+            dirtyTables.addAll(APP_TABLES);
+            initialized = true;
+        }
+        truncateDirty();
+    }
+
+    @Override
+    public void afterTest() {
+        truncateDirty();
+    }
+
+    private void truncateDirty() {
+        if (dirtyTables.isEmpty()) {
+            return;
+        }
+        List<String> tables = new ArrayList<>();
+        for (String table : APP_TABLES) {
+            if (dirtyTables.remove(table)) {
+                tables.add(table);
+            }
+        }
+        DatabaseUtils.createTemplate().execute("TRUNCATE " + String.join(", ", tables) + " RESTART IDENTITY CASCADE");
+    }
+}
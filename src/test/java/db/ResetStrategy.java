@@ -0,0 +1,13 @@
+package db;
+
+public interface ResetStrategy {
+    String name();
+
+    void beforeTest();
+
+    void afterTest();
+
+    //called once all tests of the run have finished
+    default void afterRun() {
+    }
+}
@@ -0,0 +1,50 @@
+package db;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import util.DatabaseUtils;
+
+/*
+    Opens a transaction bound to the test thread before the test and rolls it back afterward, so everything written
+    through DatabaseUtils.createTemplate() on that thread is undone without touching the tables.
+    Rows written in that transaction are not visible to the PetClinic application, and rows the application commits
+    itself are out of its reach - those are removed by the dirty tracking reset run after the rollback.
+    So it suits suites preparing their data through the API and using the database for checks only; seeding through
+    OwnerFactory/PetFactory *InDatabase methods fails fast under this strategy (DatabaseUtils.requireSeedingVisibleToApi).
+ */
+public class RollbackResetStrategy implements ResetStrategy {
+    private final ThreadLocal<TransactionStatus> currentTransaction = new ThreadLocal<>();
+    private final ThreadLocal<PlatformTransactionManager> currentManager = new ThreadLocal<>();
+    private final DirtyTrackingResetStrategy apiChanges;
+
+    public RollbackResetStrategy(DirtyTrackingResetStrategy apiChanges) {
+        this.apiChanges = apiChanges;
+    }
+
+    @Override
+    public String name() {
+        return "rollback";
+    }
+
+    @Override
+    public void beforeTest() {
+        apiChanges.beforeTest();
+        TransactionTemplate txTemplate = DatabaseUtils.createTransactionTemplate();
+        PlatformTransactionManager manager = txTemplate.getTransactionManager();
+        currentManager.set(manager);
+        currentTransaction.set(manager.getTransaction(txTemplate));
+    }
+
+    @Override
+    public void afterTest() {
+        TransactionStatus status = currentTransaction.get();
+        PlatformTransactionManager manager = currentManager.get();
+        currentTransaction.remove();
+        currentManager.remove();
+        if (status != null && !status.isCompleted()) {
+            manager.rollback(status);
+        }
+        apiChanges.afterTest();
+    }
+}
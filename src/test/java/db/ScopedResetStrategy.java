@@ -0,0 +1,76 @@
+package db;
+
+import data.DataScope;
+import util.DatabaseUtils;
+
+import java.util.List;
+
+/*
+    Reset strategy for parallel execution: each test works in its own DataScope and removes only the owners
+    (with their pets and visits) and the pet types created in that scope, so concurrently running tests don't
+    clobber each other.
+    The whole database is truncated once before the first test and once after the last one, the latter removes
+    data created outside any scope (e.g. by warmup in @BeforeAll) and shared pet types.
+ */
+public class ScopedResetStrategy implements ResetStrategy {
+    private final static String DELETE_VISITS_SQL = "DELETE FROM visits WHERE pet_id IN " +
+            "(SELECT p.id FROM pets p JOIN owners o ON p.owner_id = o.id WHERE o.telephone LIKE ?)";
+    private final static String DELETE_PETS_SQL = "DELETE FROM pets WHERE owner_id IN " +
+            "(SELECT id FROM owners WHERE telephone LIKE ?)";
+    private final static String DELETE_OWNERS_SQL = "DELETE FROM owners WHERE telephone LIKE ?";
+    private final static String DELETE_TYPE_VISITS_SQL = "DELETE FROM visits WHERE pet_id IN " +
+            "(SELECT id FROM pets WHERE type_id = ?)";
+    private final static String DELETE_TYPE_PETS_SQL = "DELETE FROM pets WHERE type_id = ?";
+    private final static String DELETE_TYPE_SQL = "DELETE FROM types WHERE id = ?";
+
+    private final TruncateResetStrategy truncate = new TruncateResetStrategy();
+    private volatile boolean initialized = false;
+
+    @Override
+    public String name() {
+        return "scoped";
+    }
+
+    @Override
+    public void beforeTest() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    truncate.beforeTest();
+                    initialized = true;
+                }
+            }
+        }
+        DataScope.open();
+    }
+
+    @Override
+    public void afterTest() {
+        DataScope scope = DataScope.current();
+        if (scope == null) {
+            return;
+        }
+        try {
+            String pattern = scope.getTelephonePattern();
+            DatabaseUtils.createTemplate().update(DELETE_VISITS_SQL, pattern);
+            DatabaseUtils.createTemplate().update(DELETE_PETS_SQL, pattern);
+            DatabaseUtils.createTemplate().update(DELETE_OWNERS_SQL, pattern);
+            if (!scope.getPetTypeIds().isEmpty()) {
+                //pets of the scope's types belong to the scope's owners, those of other tests are removed just in case
+                List<Object[]> ids = scope.getPetTypeIds().stream().map(id -> new Object[]{id}).toList();
+                DatabaseUtils.createTemplate().batchUpdate(DELETE_TYPE_VISITS_SQL, ids);
+                DatabaseUtils.createTemplate().batchUpdate(DELETE_TYPE_PETS_SQL, ids);
+                DatabaseUtils.createTemplate().batchUpdate(DELETE_TYPE_SQL, ids);
+            }
+        } finally {
+            DataScope.close();
+        }
+    }
+
+    @Override
+    public void afterRun() {
+        if (initialized) {
+            truncate.beforeTest();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package db;
+
+import data.DataScope;
+import stub.StubStore;
+
+/*
+    Reset of the in-memory store used with API_STUB=true. The store is cleared before every test, or, when tests
+    run in parallel, every test works in its own DataScope and removes only the owners and pet types created in it.
+ */
+public class StubResetStrategy implements ResetStrategy {
+    private final boolean scoped;
+
+    public StubResetStrategy(boolean scoped) {
+        this.scoped = scoped;
+    }
+
+    @Override
+    public String name() {
+        return scoped ? "stub-scoped" : "stub";
+    }
+
+    @Override
+    public void beforeTest() {
+        if (scoped) {
+            DataScope.open();
+        } else {
+            StubStore.global().clear();
+        }
+    }
+
+    @Override
+    public void afterTest() {
+        if (!scoped) {
+            //next test clears before it starts
+            return;
+        }
+        DataScope scope = DataScope.current();
+        if (scope == null) {
+            return;
+        }
+        try {
+            StubStore.global().deleteOwnersByTelephonePrefix(scope.getPrefix());
+            scope.getPetTypeIds().forEach(StubStore.global()::deleteType);
+        } finally {
+            DataScope.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static config.DatabaseConfig.*;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Recreates the test database from a template database before each test (CREATE DATABASE ... TEMPLATE ...).
+    The template is created from the truncated test database on first use if it doesn't exist yet.
+    Both steps need exclusive access, so sessions of other clients (the PetClinic application included) are
+    terminated - the application has to reconnect, which makes it suitable only for environments owned by the tests.
+    Needs PostgreSQL 13+ for DROP DATABASE ... WITH (FORCE).
+ */
+public class TemplateCloneResetStrategy implements ResetStrategy {
+    private final static Logger logger = LoggerFactory.getLogger(TemplateCloneResetStrategy.class);
+    private final static int TEMPLATE_CREATE_ATTEMPTS = 5;
+
+    private final TruncateResetStrategy truncate = new TruncateResetStrategy();
+    private volatile boolean templateReady = false;
+
+    @Override
+    public String name() {
+        return "template";
+    }
+
+    @Override
+    public void beforeTest() {
+        try (Connection conn = DriverManager.getConnection(MAINTENANCE_URL, USERNAME, PASSWORD);
+             Statement stmt = conn.createStatement()) {
+            if (!templateReady) {
+                ensureTemplate(conn, stmt);
+                templateReady = true;
+            }
+            stmt.execute("DROP DATABASE IF EXISTS " + NAME + " WITH (FORCE)");
+            stmt.execute("CREATE DATABASE " + NAME + " TEMPLATE " + RESET_TEMPLATE_NAME);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not recreate database '%s' from template '%s'".formatted(NAME, RESET_TEMPLATE_NAME), e);
+        }
+    }
+
+    @Override
+    public void afterTest() {
+        //next test recreates database before it starts
+    }
+
+    private void ensureTemplate(Connection conn, Statement stmt) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?")) {
+            ps.setString(1, RESET_TEMPLATE_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+        truncate.beforeTest();
+        SQLException last = null;
+        //application reconnects quickly after its sessions are terminated, so creation may need a few attempts
+        for (int attempt = 1; attempt <= TEMPLATE_CREATE_ATTEMPTS; attempt++) {
+            try {
+                stmt.execute("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE datname = '" + NAME + "' AND pid <> pg_backend_pid()");
+                stmt.execute("CREATE DATABASE " + RESET_TEMPLATE_NAME + " TEMPLATE " + NAME);
+                logger.info("Template database created", kv("db_template", RESET_TEMPLATE_NAME), kv("attempt", attempt));
+                return;
+            } catch (SQLException e) {
+                last = e;
+                logger.warn("Template database creation failed", kv("attempt", attempt), kv("cause_message", e.getMessage()));
+            }
+        }
+        throw last;
+    }
+}
@@ -0,0 +1,25 @@
+package db;
+
+import util.DatabaseUtils;
+
+import static db.DatabaseConstants.APP_TABLES;
+
+//single TRUNCATE of all application tables, cost doesn't grow with the number of rows and leaves no dead tuples
+public class TruncateResetStrategy implements ResetStrategy {
+    private final static String TRUNCATE_SQL = "TRUNCATE " + String.join(", ", APP_TABLES) + " RESTART IDENTITY CASCADE";
+
+    @Override
+    public String name() {
+        return "truncate";
+    }
+
+    @Override
+    public void beforeTest() {
+        DatabaseUtils.createTemplate().execute(TRUNCATE_SQL);
+    }
+
+    @Override
+    public void afterTest() {
+        //next test truncates before it starts
+    }
+}
@@ -0,0 +1,43 @@
+package load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//counters of a single endpoint (or scenario) within one load phase, updated concurrently by all workers
+public class EndpointStats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long durationNanos, boolean error) {
+        count.increment();
+        if (error) {
+            errors.increment();
+        }
+        totalNanos.add(durationNanos);
+        maxNanos.accumulateAndGet(durationNanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public double getErrorRate() {
+        long n = getCount();
+        return n == 0 ? 0.0 : (double) getErrors() / n;
+    }
+
+    public double getMeanMillis() {
+        long n = getCount();
+        return n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+}
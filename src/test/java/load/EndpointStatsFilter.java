@@ -0,0 +1,36 @@
+package load;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/*
+    Records every request under its endpoint key - HTTP method plus path template as used in ApiConstants,
+    e.g. 'POST /owners' for CREATE_PATH and 'GET /owners/{ownerId}' for READ_PATH.
+    Responses with status 400 and above or requests failing with an exception count as errors.
+ */
+public class EndpointStatsFilter implements Filter {
+    private final LoadStats stats;
+
+    public EndpointStatsFilter(LoadStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext context) {
+        String endpoint = requestSpec.getMethod() + " " + requestSpec.getUserDefinedPath();
+        long start = System.nanoTime();
+        try {
+            Response response = context.next(requestSpec, responseSpec);
+            stats.recordEndpoint(endpoint, System.nanoTime() - start, response.getStatusCode() >= 400);
+            return response;
+        } catch (RuntimeException e) {
+            stats.recordEndpoint(endpoint, System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+}
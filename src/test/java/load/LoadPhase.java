@@ -0,0 +1,7 @@
+package load;
+
+public enum LoadPhase {
+    RAMP_UP,
+    STEADY,
+    RAMP_DOWN
+}
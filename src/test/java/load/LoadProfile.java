@@ -0,0 +1,68 @@
+package load;
+
+import java.time.Duration;
+
+import static config.LoadConfig.*;
+
+public record LoadProfile(WorkloadModel model,
+                          double targetRate,
+                          int concurrency,
+                          int maxConcurrency,
+                          Duration rampUp,
+                          Duration steady,
+                          Duration rampDown,
+                          long thinkTimeMs,
+                          boolean virtualThreads) {
+
+    public static LoadProfile fromConfig() {
+        return new LoadProfile(
+                WorkloadModel.valueOf(MODEL.toUpperCase()),
+                TARGET_RATE,
+                CONCURRENCY,
+                MAX_CONCURRENCY,
+                Duration.ofSeconds(RAMP_UP_SEC),
+                Duration.ofSeconds(STEADY_SEC),
+                Duration.ofSeconds(RAMP_DOWN_SEC),
+                THINK_TIME_MS,
+                VIRTUAL_THREADS);
+    }
+
+    public long totalNanos() {
+        return rampUp.plus(steady).plus(rampDown).toNanos();
+    }
+
+    public LoadPhase phaseAt(long elapsedNanos) {
+        if (elapsedNanos < rampUp.toNanos()) {
+            return LoadPhase.RAMP_UP;
+        }
+        if (elapsedNanos < rampUp.plus(steady).toNanos()) {
+            return LoadPhase.STEADY;
+        }
+        return LoadPhase.RAMP_DOWN;
+    }
+
+    public long phaseNanos(LoadPhase phase) {
+        return switch (phase) {
+            case RAMP_UP -> rampUp.toNanos();
+            case STEADY -> steady.toNanos();
+            case RAMP_DOWN -> rampDown.toNanos();
+        };
+    }
+
+    //share of the target load (rate or users) applied at the given moment, linear ramps on both ends
+    public double intensityAt(long elapsedNanos) {
+        long rampUpNs = rampUp.toNanos();
+        long steadyEndNs = rampUpNs + steady.toNanos();
+        if (elapsedNanos < rampUpNs) {
+            return (double) elapsedNanos / rampUpNs;
+        }
+        if (elapsedNanos < steadyEndNs) {
+            return 1.0;
+        }
+        long rampDownNs = rampDown.toNanos();
+        if (rampDownNs == 0) {
+            return 0.0;
+        }
+        return Math.max(0.0, 1.0 - (double) (elapsedNanos - steadyEndNs) / rampDownNs);
+    }
+}
@@ -0,0 +1,85 @@
+package load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+//throughput and error rate per endpoint and scenario for every load phase
+public class LoadReport {
+    private final static Logger logger = LoggerFactory.getLogger(LoadReport.class);
+
+    private final LoadProfile profile;
+    private final LoadStats stats;
+    private final long droppedIterations;
+
+    public LoadReport(LoadProfile profile, LoadStats stats, long droppedIterations) {
+        this.profile = profile;
+        this.stats = stats;
+        this.droppedIterations = droppedIterations;
+    }
+
+    public long getDroppedIterations() {
+        return droppedIterations;
+    }
+
+    public double getThroughput(LoadPhase phase, EndpointStats endpointStats) {
+        double seconds = profile.phaseNanos(phase) / (double) TimeUnit.SECONDS.toNanos(1);
+        return seconds == 0 ? 0.0 : endpointStats.getCount() / seconds;
+    }
+
+    //error rate over all requests sent in the phase
+    public double getErrorRate(LoadPhase phase) {
+        long count = 0, errors = 0;
+        for (EndpointStats endpointStats : stats.getEndpoints(phase).values()) {
+            count += endpointStats.getCount();
+            errors += endpointStats.getErrors();
+        }
+        return count == 0 ? 0.0 : (double) errors / count;
+    }
+
+    public Map<String, EndpointStats> getEndpoints(LoadPhase phase) {
+        return new TreeMap<>(stats.getEndpoints(phase));
+    }
+
+    public Map<String, EndpointStats> getScenarios(LoadPhase phase) {
+        return new TreeMap<>(stats.getScenarios(phase));
+    }
+
+    public void log() {
+        for (LoadPhase phase : LoadPhase.values()) {
+            for (Map.Entry<String, EndpointStats> entry : getEndpoints(phase).entrySet()) {
+                logEntry("endpoint", phase, entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<String, EndpointStats> entry : getScenarios(phase).entrySet()) {
+                logEntry("scenario", phase, entry.getKey(), entry.getValue());
+            }
+        }
+        logger.info("Load run finished: steady state error rate {}", String.format("%.4f", getErrorRate(LoadPhase.STEADY)),
+                kv("load_dropped_iterations", droppedIterations),
+                kv("load_steady_error_rate", getErrorRate(LoadPhase.STEADY)));
+    }
+
+    private void logEntry(String kind, LoadPhase phase, String name, EndpointStats entryStats) {
+        double throughput = getThroughput(phase, entryStats);
+        logger.info("{} {} [{}]: {} calls, {}/s, {} errors ({}%), mean {} ms, max {} ms", kind, name, phase,
+                entryStats.getCount(),
+                String.format("%.2f", throughput),
+                entryStats.getErrors(),
+                String.format("%.2f", entryStats.getErrorRate() * 100),
+                String.format("%.1f", entryStats.getMeanMillis()),
+                String.format("%.1f", entryStats.getMaxMillis()),
+                kv("load_" + kind, name),
+                kv("load_phase", phase),
+                kv("load_count", entryStats.getCount()),
+                kv("load_throughput", throughput),
+                kv("load_errors", entryStats.getErrors()),
+                kv("load_error_rate", entryStats.getErrorRate()),
+                kv("load_mean_ms", entryStats.getMeanMillis()),
+                kv("load_max_ms", entryStats.getMaxMillis()));
+    }
+}
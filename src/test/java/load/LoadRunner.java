@@ -0,0 +1,224 @@
+package load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import perf.LatencyRecorder;
+import perf.QueryProfiler;
+import perf.TestTimings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Drives weighted scenarios through ramp-up, steady state and ramp-down phases.
+    OPEN model schedules iterations at the target arrival rate (iterations per second), iterations not started
+    because MAX_CONCURRENCY iterations are already in flight are counted as dropped.
+    CLOSED model runs the configured number of users, each executing iterations back to back (plus think time);
+    during ramps only a part of users is active.
+    Coordinated omission is corrected in the closed model only: a slow response there holds back the user's next
+    requests, so requests of an iteration are corrected against the user's expected iteration interval. Open model
+    iterations start at their intended arrival time regardless of earlier responses and already count from it.
+ */
+public class LoadRunner {
+    private final static Logger logger = LoggerFactory.getLogger(LoadRunner.class);
+    //lowest arrival rate used at the very beginning of ramp-up, so that scheduling doesn't stall at zero rate
+    private final static double MIN_RATE = 0.5;
+    private final static long IDLE_USER_PARK_NS = TimeUnit.MILLISECONDS.toNanos(50);
+    private final static int PLATFORM_THREADS_WARNING = 2000;
+    //weight of the latest iteration in a user's expected iteration interval
+    private final static double INTERVAL_SMOOTHING = 0.1;
+
+    private final List<Scenario> scenarios;
+    private final int[] cumulativeWeights;
+    private final LoadProfile profile;
+    private final LoadStats stats;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    //server-side SQL of the phase running, only touched by the thread driving the phases
+    private LoadPhase profiledPhase;
+    private QueryProfiler.Capture phaseCapture;
+
+    public LoadRunner(List<Scenario> scenarios, LoadProfile profile, LoadStats stats) {
+        this.scenarios = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            if (scenario.weight() > 0) {
+                this.scenarios.add(scenario);
+            }
+        }
+        if (this.scenarios.isEmpty()) {
+            throw new IllegalArgumentException("At least one scenario with positive weight is needed");
+        }
+        this.cumulativeWeights = new int[this.scenarios.size()];
+        int sum = 0;
+        for (int i = 0; i < this.scenarios.size(); i++) {
+            sum += this.scenarios.get(i).weight();
+            cumulativeWeights[i] = sum;
+        }
+        this.profile = profile;
+        this.stats = stats;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        logger.info("Starting load run",
+                kv("load_model", profile.model()),
+                kv("load_target_rate", profile.targetRate()),
+                kv("load_concurrency", profile.concurrency()),
+                kv("load_duration_sec", TimeUnit.NANOSECONDS.toSeconds(profile.totalNanos())));
+        long start = System.nanoTime();
+        //every user (closed model) or iteration (open model) gets its own thread, virtual ones when available
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("load-worker", profile.virtualThreads());
+        if (!VirtualThreads.isSupported() && profile.concurrency() > PLATFORM_THREADS_WARNING) {
+            logger.warn("Running {} users on platform threads, use Java 21+ runtime for virtual threads", profile.concurrency());
+        }
+        try {
+            if (profile.model() == WorkloadModel.OPEN) {
+                runOpen(executor, start);
+            } else {
+                runClosed(executor, start);
+            }
+        } finally {
+            executor.shutdown();
+            //let iterations in flight finish, they are accounted to the phase they were started in
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Load iterations still running after run end, interrupting");
+                executor.shutdownNow();
+            }
+        }
+        QueryProfiler.global().end(phaseCapture);
+        LoadReport report = new LoadReport(profile, stats, dropped.get());
+        report.log();
+        return report;
+    }
+
+    private void runOpen(ExecutorService executor, long start) {
+        long total = profile.totalNanos();
+        double nextOffsetNs = 0;
+        while (nextOffsetNs < total) {
+            long offset = (long) nextOffsetNs;
+            sleepUntil(start + offset);
+            LoadPhase phase = profile.phaseAt(offset);
+            enterPhase(phase);
+            double rate = Math.max(profile.targetRate() * profile.intensityAt(offset), MIN_RATE);
+            long intervalNs = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            long intendedStart = start + offset;
+            if (inFlight.incrementAndGet() > profile.maxConcurrency()) {
+                inFlight.decrementAndGet();
+                dropped.incrementAndGet();
+            } else {
+                executor.execute(() -> {
+                    try {
+                        runIteration(phase, intendedStart);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+            nextOffsetNs += intervalNs;
+        }
+    }
+
+    private void runClosed(ExecutorService executor, long start) throws InterruptedException {
+        long total = profile.totalNanos();
+        int users = profile.concurrency();
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            final int userIndex = i;
+            running.add(executor.submit(() -> {
+                long thinkNs = TimeUnit.MILLISECONDS.toNanos(profile.thinkTimeMs());
+                //moving average of the user's iteration plus think time, unknown until its first iteration
+                double expectedIntervalNs = 0;
+                long elapsed;
+                while ((elapsed = System.nanoTime() - start) < total) {
+                    //user is active while its index is below the number of users required at this moment
+                    if (userIndex >= Math.ceil(users * profile.intensityAt(elapsed))) {
+                        LockSupport.parkNanos(IDLE_USER_PARK_NS);
+                        continue;
+                    }
+                    long iterationStart = System.nanoTime();
+                    if (expectedIntervalNs > 0) {
+                        LatencyRecorder.global().setExpectedInterval((long) expectedIntervalNs);
+                    }
+                    try {
+                        runIteration(profile.phaseAt(elapsed), iterationStart);
+                    } finally {
+                        LatencyRecorder.global().clearExpectedInterval();
+                    }
+                    long intervalNs = System.nanoTime() - iterationStart + thinkNs;
+                    expectedIntervalNs = expectedIntervalNs == 0 ? intervalNs
+                            : expectedIntervalNs + INTERVAL_SMOOTHING * (intervalNs - expectedIntervalNs);
+                    if (thinkNs > 0) {
+                        LockSupport.parkNanos(thinkNs);
+                    }
+                }
+            }));
+        }
+        //phase bookkeeping for endpoint statistics
+        long elapsed;
+        while ((elapsed = System.nanoTime() - start) < total) {
+            enterPhase(profile.phaseAt(elapsed));
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                logger.error("Load user failed", kv("cause_message", e.getCause().getMessage()));
+            }
+        }
+    }
+
+    private void enterPhase(LoadPhase phase) {
+        stats.setCurrentPhase(phase);
+        if (phase != profiledPhase) {
+            QueryProfiler.global().end(phaseCapture);
+            phaseCapture = QueryProfiler.global().begin("load " + phase);
+            profiledPhase = phase;
+        }
+    }
+
+    //iteration time is counted from its intended start, so that a late start caused by saturation is not hidden
+    private void runIteration(LoadPhase phase, long intendedStart) {
+        Scenario scenario = pickScenario();
+        long start = intendedStart;
+        boolean failed = false;
+        try {
+            scenario.logic().run();
+        } catch (AssertionError | Exception e) {
+            failed = true;
+            logger.debug("Scenario {} failed: {}", scenario.name(), e.getMessage());
+        }
+        long durationNs = System.nanoTime() - start;
+        stats.recordScenario(phase, scenario.name(), durationNs, failed);
+        //only steady state iterations are comparable between runs
+        if (!failed && phase == LoadPhase.STEADY) {
+            TestTimings.global().record("scenario " + scenario.name(), durationNs);
+        }
+    }
+
+    private Scenario pickScenario() {
+        int point = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return scenarios.get(i);
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
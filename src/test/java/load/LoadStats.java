@@ -0,0 +1,43 @@
+package load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//per phase statistics of endpoints (e.g. 'GET /owners/{ownerId}') and scenarios
+public class LoadStats {
+    private final Map<LoadPhase, Map<String, EndpointStats>> endpoints = new EnumMap<>(LoadPhase.class);
+    private final Map<LoadPhase, Map<String, EndpointStats>> scenarios = new EnumMap<>(LoadPhase.class);
+    private volatile LoadPhase currentPhase = LoadPhase.RAMP_UP;
+
+    public LoadStats() {
+        for (LoadPhase phase : LoadPhase.values()) {
+            endpoints.put(phase, new ConcurrentHashMap<>());
+            scenarios.put(phase, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void setCurrentPhase(LoadPhase phase) {
+        currentPhase = phase;
+    }
+
+    public LoadPhase getCurrentPhase() {
+        return currentPhase;
+    }
+
+    public void recordEndpoint(String endpoint, long durationNanos, boolean error) {
+        endpoints.get(currentPhase).computeIfAbsent(endpoint, k -> new EndpointStats()).record(durationNanos, error);
+    }
+
+    public void recordScenario(LoadPhase phase, String scenario, long durationNanos, boolean failed) {
+        scenarios.get(phase).computeIfAbsent(scenario, k -> new EndpointStats()).record(durationNanos, failed);
+    }
+
+    public Map<String, EndpointStats> getEndpoints(LoadPhase phase) {
+        return endpoints.get(phase);
+    }
+
+    public Map<String, EndpointStats> getScenarios(LoadPhase phase) {
+        return scenarios.get(phase);
+    }
+}
@@ -0,0 +1,32 @@
+package load;
+
+import base.TestLogic;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//named unit of traffic, picked for every iteration proportionally to its weight
+public record Scenario(String name, int weight, TestLogic logic) {
+    public Scenario {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Scenario weight must not be negative, given " + weight + " for " + name);
+        }
+    }
+
+    //parses 'name:weight' pairs separated with commas, e.g. 'create:2,read:4'
+    public static Map<String, Integer> parseWeights(String weights) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (String pair : weights.split(",")) {
+            String trimmed = pair.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = trimmed.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Scenario weight must be given as 'name:weight', got '%s'".formatted(trimmed));
+            }
+            result.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Executor running every task on its own virtual thread when the JVM supports them (Java 21+).
+    Build targets Java 17, so virtual thread executor is looked up reflectively and platform threads are used
+    as a fallback on older runtimes.
+ */
+public class VirtualThreads {
+    private final static Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+    private final static Method VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+
+    public static boolean isSupported() {
+        return VIRTUAL_EXECUTOR_FACTORY != null;
+    }
+
+    public static ExecutorService newPerTaskExecutor(String threadName, boolean preferVirtual) {
+        if (preferVirtual && isSupported()) {
+            try {
+                logger.info("Using virtual threads for {}", threadName, kv("virtual_threads", true));
+                return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Could not create virtual thread executor, falling back to platform threads",
+                        kv("cause_message", e.getMessage()));
+            }
+        }
+        logger.info("Using platform threads for {}", threadName, kv("virtual_threads", false));
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, threadName + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
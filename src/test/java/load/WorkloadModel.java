@@ -0,0 +1,8 @@
+package load;
+
+public enum WorkloadModel {
+    //new scenario iterations arrive at the target rate regardless of how fast the system responds
+    OPEN,
+    //fixed number of virtual users, each starts next iteration only after the previous one finished
+    CLOSED
+}
@@ -1,6 +1,7 @@
 package mapper;
 
 import model.Owner;
+import model.OwnerRecord;
 
 import java.util.Map;
 import java.util.Optional;
@@ -20,4 +21,42 @@ public class OwnerMapper {
 
         return owner;
     }
+
+    //same for data keyed by API field names, as test data and payloads are
+    public static Owner fromApiKeyValues(Map<String, Object> data) {
+        Owner owner = new Owner();
+        Optional.ofNullable((String)data.get(Owner.FIELD_FIRSTNAME)).ifPresent(owner::setFirstName);
+        Optional.ofNullable((String)data.get(Owner.FIELD_LASTNAME)).ifPresent(owner::setLastName);
+        Optional.ofNullable((String)data.get(Owner.FIELD_ADDRESS)).ifPresent(owner::setAddress);
+        Optional.ofNullable((String)data.get(Owner.FIELD_CITY)).ifPresent(owner::setCity);
+        Optional.ofNullable((String)data.get(Owner.FIELD_TELEPHONE)).ifPresent(owner::setTelephone);
+        Optional.ofNullable((Integer)data.get(Owner.FIELD_ID)).ifPresent(owner::setId);
+
+        return owner;
+    }
+
+    //database values are trusted, so Owner's validating setters (regex matching) are skipped
+    public static Owner fromRecord(OwnerRecord record) {
+        Owner owner = new Owner();
+        owner.setIdNoValidation(record.id());
+        owner.setFirstNameNoValidation(record.firstName());
+        owner.setLastNameNoValidation(record.lastName());
+        owner.setAddressNoValidation(record.address());
+        owner.setCityNoValidation(record.city());
+        owner.setTelephoneNoValidation(record.telephone());
+
+        return owner;
+    }
+
+    //expected state from data keyed by API field names; id is -1 when the data has none
+    public static OwnerRecord toRecord(Map<String, Object> data) {
+        Object id = data.get(Owner.FIELD_ID);
+        return new OwnerRecord(
+                id instanceof Integer value ? value : -1,
+                (String) data.get(Owner.FIELD_FIRSTNAME),
+                (String) data.get(Owner.FIELD_LASTNAME),
+                (String) data.get(Owner.FIELD_ADDRESS),
+                (String) data.get(Owner.FIELD_CITY),
+                (String) data.get(Owner.FIELD_TELEPHONE));
+    }
 }
@@ -0,0 +1,80 @@
+package mapper;
+
+import model.OwnerRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static db.DatabaseConstants.OwnerTable.*;
+
+/*
+    Maps owners table rows selected with SELECT_COLUMNS to OwnerRecord. Columns are read by their fixed position
+    in SELECT_COLUMNS instead of by name, so there is no per-row column lookup, map or boxing. Stateless, one
+    instance is shared.
+    Selecting named columns hides columns added to the table, which a check of the whole row would report;
+    columnDrift() compares the table with COLUMNS instead, OwnerFactory runs it before the first typed read
+ */
+public class OwnerRowMapper implements RowMapper<OwnerRecord> {
+    public final static OwnerRowMapper INSTANCE = new OwnerRowMapper();
+
+    public final static List<String> COLUMNS = List.of(
+            ID_COL_NAME, FIRSTNAME_COL_NAME, LASTNAME_COL_NAME, ADDRESS_COL_NAME, CITY_COL_NAME, TELEPHONE_COL_NAME);
+    public final static String SELECT_COLUMNS = String.join(", ", COLUMNS);
+
+    private final static int ID_INDEX = 1;
+    private final static int FIRSTNAME_INDEX = 2;
+    private final static int LASTNAME_INDEX = 3;
+    private final static int ADDRESS_INDEX = 4;
+    private final static int CITY_INDEX = 5;
+    private final static int TELEPHONE_INDEX = 6;
+
+    private OwnerRowMapper() {
+    }
+
+    //differences between columns of the owners table and COLUMNS, empty when they match
+    public static List<String> columnDrift(JdbcTemplate template) {
+        return columnDrift(template, "owners");
+    }
+
+    //same for a table shaped like owners, tests run the check against a scratch table
+    public static List<String> columnDrift(JdbcTemplate template, String table) {
+        Set<String> tableColumns = template.query("SELECT * FROM " + table + " LIMIT 0", rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            Set<String> columns = new LinkedHashSet<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columns.add(metaData.getColumnName(i).toLowerCase());
+            }
+            return columns;
+        });
+        List<String> drift = new ArrayList<>();
+        for (String column : tableColumns) {
+            if (!COLUMNS.contains(column)) {
+                drift.add("unexpected column '%s'".formatted(column));
+            }
+        }
+        for (String column : COLUMNS) {
+            if (!tableColumns.contains(column)) {
+                drift.add("missing column '%s'".formatted(column));
+            }
+        }
+        return drift;
+    }
+
+    @Override
+    public OwnerRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new OwnerRecord(
+                rs.getInt(ID_INDEX),
+                rs.getString(FIRSTNAME_INDEX),
+                rs.getString(LASTNAME_INDEX),
+                rs.getString(ADDRESS_INDEX),
+                rs.getString(CITY_INDEX),
+                rs.getString(TELEPHONE_INDEX));
+    }
+}
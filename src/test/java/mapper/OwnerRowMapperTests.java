@@ -0,0 +1,57 @@
+package mapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import util.DatabaseUtils;
+
+import static config.ApiConfig.STUB_ENABLED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/*
+    Column drift check of typed owner reads. The owners table of the application is never altered: drift is made up
+    on a scratch table nothing else uses, so no lock is held on owners and DDL needn't be transactional
+ */
+public class OwnerRowMapperTests {
+    private final static String SCRATCH_TABLE = "owner_column_drift";
+
+    private JdbcTemplate template;
+
+    @BeforeEach
+    public void createScratchTable() {
+        assumeFalse(STUB_ENABLED, "Stub has no database");
+        template = DatabaseUtils.createTemplate();
+        template.execute("DROP TABLE IF EXISTS " + SCRATCH_TABLE);
+        //owners without the telephone column
+        template.execute("CREATE TABLE " + SCRATCH_TABLE
+                + " (id INTEGER, first_name VARCHAR(30), last_name VARCHAR(30), address VARCHAR(255), city VARCHAR(80))");
+    }
+
+    @AfterEach
+    public void dropScratchTable() {
+        if (template != null) {
+            template.execute("DROP TABLE IF EXISTS " + SCRATCH_TABLE);
+        }
+    }
+
+    @Test
+    public void ownersTableMatchesColumns() {
+        assertThat(OwnerRowMapper.columnDrift(template)).isEmpty();
+    }
+
+    @Test
+    public void missingColumnIsReported() {
+        assertThat(OwnerRowMapper.columnDrift(template, SCRATCH_TABLE)).containsExactly("missing column 'telephone'");
+    }
+
+    @Test
+    public void unexpectedColumnIsReported() {
+        template.execute("ALTER TABLE " + SCRATCH_TABLE + " ADD COLUMN telephone VARCHAR(20)");
+        assertThat(OwnerRowMapper.columnDrift(template, SCRATCH_TABLE)).isEmpty();
+
+        template.execute("ALTER TABLE " + SCRATCH_TABLE + " ADD COLUMN drift_check VARCHAR(20)");
+        assertThat(OwnerRowMapper.columnDrift(template, SCRATCH_TABLE)).containsExactly("unexpected column 'drift_check'");
+    }
+}
@@ -0,0 +1,8 @@
+package model;
+
+/*
+    Owner as stored in the owners table, for database checks: plain values, no validation on construction
+    (rows are already constrained by the schema), compared field by field by OwnerChecker
+ */
+public record OwnerRecord(int id, String firstName, String lastName, String address, String city, String telephone) {
+}
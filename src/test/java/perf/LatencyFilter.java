@@ -0,0 +1,45 @@
+package perf;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/*
+    Records latency of every request into the run-wide histograms, requests failing without response go under status 0.
+    Requests sent while warming up are handed to WarmupController instead, so that they don't skew reported timings.
+ */
+public class LatencyFilter implements Filter {
+    public final static int NO_RESPONSE_STATUS = 0;
+
+    private final LatencyRecorder recorder;
+
+    public LatencyFilter(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext context) {
+        String endpoint = requestSpec.getMethod() + " " + requestSpec.getUserDefinedPath();
+        long start = System.nanoTime();
+        try {
+            Response response = context.next(requestSpec, responseSpec);
+            record(endpoint, response.getStatusCode(), System.nanoTime() - start);
+            return response;
+        } catch (RuntimeException e) {
+            record(endpoint, NO_RESPONSE_STATUS, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private void record(String endpoint, int status, long durationNanos) {
+        if (WarmupController.isWarmingUp()) {
+            WarmupController.record(endpoint, durationNanos);
+        } else {
+            recorder.record(endpoint, status, durationNanos);
+        }
+    }
+}
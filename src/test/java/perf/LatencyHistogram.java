@@ -0,0 +1,174 @@
+package perf;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    Lock-free log-linear histogram of nanosecond values in the spirit of HdrHistogram:
+    values below 128 are counted exactly, above that every power of two is split into 64 linear sub-buckets,
+    so any recorded value is reported with a relative error below 1.6% (in the worst case, usually much less).
+    Values above ~18 minutes (2^40 ns) are clamped into the last bucket.
+ */
+public class LatencyHistogram {
+    private final static int LINEAR_LIMIT = 128;
+    private final static int SUB_BUCKETS = 64;
+    private final static int SUB_BUCKET_BITS = 6;
+    private final static int MAX_MAGNITUDE = 40;
+    private final static int BUCKETS = LINEAR_LIMIT + (MAX_MAGNITUDE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    public final static long MAX_TRACKABLE_NANOS = (1L << MAX_MAGNITUDE) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long valueNanos) {
+        long value = Math.min(Math.max(valueNanos, 0), MAX_TRACKABLE_NANOS);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        sum.add(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /*
+        Coordinated omission correction: when requests are supposed to be issued every expectedIntervalNanos,
+        a response slower than that interval delayed the requests that should have been sent meanwhile.
+        Those missing samples are back-filled with linearly decreasing latencies, as HdrHistogram does.
+     */
+    public void recordCorrected(long valueNanos, long expectedIntervalNanos) {
+        record(valueNanos);
+        if (expectedIntervalNanos <= 0 || valueNanos <= expectedIntervalNanos) {
+            return;
+        }
+        for (long missing = valueNanos - expectedIntervalNanos; missing >= expectedIntervalNanos; missing -= expectedIntervalNanos) {
+            record(missing);
+        }
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.getCount());
+        sum.add(other.sum.sum());
+        if (other.getCount() > 0) {
+            min.accumulateAndGet(other.min.get(), Math::min);
+            max.accumulateAndGet(other.max.get(), Math::max);
+        }
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMinNanos() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public double getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0.0 : (double) sum.sum() / count;
+    }
+
+    //value at the given percentile (0..100), reported as the upper bound of the bucket it falls into
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    //share of recorded values not greater than the given value, 0..1
+    public double getFractionAtOrBelow(long valueNanos) {
+        long count = getCount();
+        if (count == 0) {
+            return 1.0;
+        }
+        int limit = indexOf(Math.min(Math.max(valueNanos, 0), MAX_TRACKABLE_NANOS));
+        long seen = 0;
+        for (int i = 0; i <= limit; i++) {
+            seen += counts.get(i);
+        }
+        return (double) seen / count;
+    }
+
+    //non-empty buckets by index, enough to store the histogram (e.g. in a run baseline) and restore it later
+    public Map<Integer, Long> getBucketCounts() {
+        Map<Integer, Long> buckets = new TreeMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                buckets.put(i, count);
+            }
+        }
+        return buckets;
+    }
+
+    //histogram restored from bucket counts, min, max and mean are approximated by bucket upper bounds
+    public static LatencyHistogram fromBucketCounts(Map<Integer, Long> bucketCounts) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        bucketCounts.forEach((index, count) -> {
+            if (index < 0 || index >= BUCKETS || count < 0) {
+                throw new IllegalArgumentException("Invalid histogram bucket %d with count %d".formatted(index, count));
+            }
+            if (count == 0) {
+                return;
+            }
+            long value = highestEquivalentValue(index);
+            histogram.counts.addAndGet(index, count);
+            histogram.totalCount.add(count);
+            histogram.sum.add(value * count);
+            histogram.min.accumulateAndGet(value, Math::min);
+            histogram.max.accumulateAndGet(value, Math::max);
+        });
+        return histogram;
+    }
+
+    static int bucketCount() {
+        return BUCKETS;
+    }
+
+    long getCountAt(int index) {
+        return counts.get(index);
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
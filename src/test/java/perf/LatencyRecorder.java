@@ -0,0 +1,62 @@
+package perf;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    Run-wide registry of latency histograms, keyed by endpoint (e.g. 'GET /owners/{ownerId}') and response status.
+    Load runner sets the expected interval of the current virtual user's iterations when running closed workload,
+    so samples recorded on that thread are corrected for coordinated omission.
+ */
+public class LatencyRecorder {
+    private final static LatencyRecorder global = new LatencyRecorder();
+
+    private final Map<String, Map<Integer, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> expectedIntervalNanos = new ThreadLocal<>();
+
+    public static LatencyRecorder global() {
+        return global;
+    }
+
+    public void record(String endpoint, int status, long durationNanos) {
+        LatencyHistogram histogram = histograms
+                .computeIfAbsent(endpoint, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, k -> new LatencyHistogram());
+        Long interval = expectedIntervalNanos.get();
+        if (interval == null) {
+            histogram.record(durationNanos);
+        } else {
+            histogram.recordCorrected(durationNanos, interval);
+        }
+    }
+
+    public void setExpectedInterval(long intervalNanos) {
+        expectedIntervalNanos.set(intervalNanos);
+    }
+
+    public void clearExpectedInterval() {
+        expectedIntervalNanos.remove();
+    }
+
+    //histograms by endpoint and status, sorted for stable reports
+    public Map<String, Map<Integer, LatencyHistogram>> getHistograms() {
+        Map<String, Map<Integer, LatencyHistogram>> result = new TreeMap<>();
+        histograms.forEach((endpoint, byStatus) -> result.put(endpoint, new TreeMap<>(byStatus)));
+        return result;
+    }
+
+    //all statuses of the endpoint merged together
+    public LatencyHistogram getEndpointHistogram(String endpoint) {
+        LatencyHistogram merged = new LatencyHistogram();
+        Map<Integer, LatencyHistogram> byStatus = histograms.get(endpoint);
+        if (byStatus != null) {
+            byStatus.values().forEach(merged::add);
+        }
+        return merged;
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+}
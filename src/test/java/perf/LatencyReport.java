@@ -0,0 +1,66 @@
+package perf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.JsonUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+//prints percentile summary of the recorded histograms and exports it as JSON
+public class LatencyReport {
+    private final static Logger logger = LoggerFactory.getLogger(LatencyReport.class);
+    private final static double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static void logSummary(LatencyRecorder recorder) {
+        recorder.getHistograms().forEach((endpoint, byStatus) -> byStatus.forEach((status, histogram) ->
+                logger.info("{} [{}]: n={} p50={} ms p90={} ms p99={} ms p99.9={} ms max={} ms", endpoint, status,
+                        histogram.getCount(),
+                        millis(histogram.getValueAtPercentile(50)),
+                        millis(histogram.getValueAtPercentile(90)),
+                        millis(histogram.getValueAtPercentile(99)),
+                        millis(histogram.getValueAtPercentile(99.9)),
+                        millis(histogram.getMaxNanos()),
+                        kv("latency_endpoint", endpoint),
+                        kv("latency_status", status),
+                        kv("latency", toMap(histogram)))));
+    }
+
+    public static void exportJson(LatencyRecorder recorder, Path file) {
+        Map<String, Map<String, Object>> export = new LinkedHashMap<>();
+        recorder.getHistograms().forEach((endpoint, byStatus) -> {
+            Map<String, Object> statuses = new LinkedHashMap<>();
+            byStatus.forEach((status, histogram) -> statuses.put(String.valueOf(status), toMap(histogram)));
+            export.put(endpoint, statuses);
+        });
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            JsonUtils.PRETTY_WRITER.writeValue(file.toFile(), export);
+            logger.info("Latency histograms exported to {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Could not export latency histograms", kv("file", file), kv("cause_message", e.getMessage()));
+        }
+    }
+
+    public static Map<String, Object> toMap(LatencyHistogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getCount());
+        values.put("min_ms", millis(histogram.getMinNanos()));
+        values.put("mean_ms", histogram.getMeanNanos() / 1_000_000.0);
+        for (double percentile : PERCENTILES) {
+            values.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)) + "_ms",
+                    millis(histogram.getValueAtPercentile(percentile)));
+        }
+        values.put("max_ms", millis(histogram.getMaxNanos()));
+        return values;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
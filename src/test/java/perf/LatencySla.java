@@ -0,0 +1,48 @@
+package perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+    Latency objective of one endpoint, e.g. 'GET /owners/{ownerId}:p95<50@200' -
+    95th percentile of the endpoint latency must be below 50 ms, evaluated only when at least 200 samples were recorded.
+    Sample count part is optional, default minimum is used then.
+ */
+public record LatencySla(String endpoint, double percentile, double thresholdMs, long minSamples) {
+    private final static Pattern SLA_PATTERN = Pattern.compile("^(.+):p(\\d+(?:\\.\\d+)?)<(\\d+(?:\\.\\d+)?)(?:ms)?(?:@(\\d+))?$");
+
+    public static List<LatencySla> parse(String definitions, long defaultMinSamples) {
+        List<LatencySla> result = new ArrayList<>();
+        for (String definition : definitions.split(";")) {
+            String trimmed = definition.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Matcher matcher = SLA_PATTERN.matcher(trimmed);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Latency SLA must look like 'GET /owners/{ownerId}:p95<50@200', got '%s'".formatted(trimmed));
+            }
+            double percentile = Double.parseDouble(matcher.group(2));
+            if (percentile <= 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in (0, 100], got " + percentile);
+            }
+            result.add(new LatencySla(
+                    matcher.group(1).trim(),
+                    percentile,
+                    Double.parseDouble(matcher.group(3)),
+                    matcher.group(4) == null ? defaultMinSamples : Long.parseLong(matcher.group(4))));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "%s p%s < %s ms (min %d samples)".formatted(endpoint, format(percentile), format(thresholdMs), minSamples);
+    }
+
+    static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,67 @@
+package perf;
+
+/*
+    Mann-Whitney U test of two latency histograms: tells whether latencies of one run tend to be larger than of
+    another without assuming any distribution, unlike comparing means, so a few outliers don't decide the outcome.
+    Values are compared by histogram bucket, values in the same bucket are ties. U is computed in one pass over
+    the buckets; p-values come from the normal approximation with tie and continuity corrections, which is accurate
+    for the sample sizes (tens and more) it's used with.
+ */
+public class MannWhitney {
+
+    /*
+        u - U statistic of the first sample (pairs where its value is larger, ties counted as half)
+        pGreater - one-sided p-value for the first sample being stochastically larger (slower) than the second
+        pLess - one-sided p-value for the first sample being stochastically smaller (faster)
+     */
+    public record Result(double u, double z, double pGreater, double pLess) {
+    }
+
+    public static Result test(LatencyHistogram first, LatencyHistogram second) {
+        double n1 = first.getCount();
+        double n2 = second.getCount();
+        if (n1 == 0 || n2 == 0) {
+            return new Result(0, 0, 1, 1);
+        }
+        double u = 0;
+        double secondBelow = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < LatencyHistogram.bucketCount(); i++) {
+            double a = first.getCountAt(i);
+            double b = second.getCountAt(i);
+            if (a == 0 && b == 0) {
+                continue;
+            }
+            u += a * (secondBelow + b / 2);
+            secondBelow += b;
+            double ties = a + b;
+            tieTerm += ties * ties * ties - ties;
+        }
+        double n = n1 + n2;
+        double mean = n1 * n2 / 2;
+        double variance = n1 * n2 / 12 * ((n + 1) - tieTerm / (n * (n - 1)));
+        if (variance <= 0) {
+            //all values in one bucket, samples are indistinguishable
+            return new Result(u, 0, 1, 1);
+        }
+        double sd = Math.sqrt(variance);
+        double pGreater = upperTail((u - mean - 0.5) / sd);
+        double pLess = 1 - upperTail((u - mean + 0.5) / sd);
+        return new Result(u, (u - mean) / sd, pGreater, pLess);
+    }
+
+    //P(Z > z) for standard normal Z
+    static double upperTail(double z) {
+        return 0.5 * erfc(z / Math.sqrt(2));
+    }
+
+    //complementary error function, Chebyshev fit from Numerical Recipes with fractional error below 1.2e-7
+    private static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double ans = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? ans : 2 - ans;
+    }
+}
@@ -0,0 +1,149 @@
+package perf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Process-wide counters, timers and gauges of test and load runs, exposed in the Prometheus text format
+    (version 0.0.4) through MetricsServer and dumped to PERF_METRICS_FILE at the end of the run.
+    A meter is identified by its name and label values, given as key/value pairs: counter("x_total", "help", "status", "201").
+    Timers are LatencyHistograms exposed as summaries in seconds, with quantiles over the whole run.
+ */
+public class MetricsRegistry {
+    private final static Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+    private final static double[] QUANTILES = {0.5, 0.95, 0.99};
+    private final static MetricsRegistry global = new MetricsRegistry();
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry global() {
+        return global;
+    }
+
+    public LongAdder counter(String name, String help, String... labels) {
+        return (LongAdder) family(name, help, "counter").meters.computeIfAbsent(labels(labels), k -> new LongAdder());
+    }
+
+    public LatencyHistogram timer(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, "summary").meters.computeIfAbsent(labels(labels), k -> new LatencyHistogram());
+    }
+
+    //value is read on every scrape, registering the same gauge again replaces its supplier
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").meters.put(labels(labels), value);
+    }
+
+    //for meters of an owner that goes away (e.g. a closed client), so that the registry doesn't keep it reachable
+    public void unregister(String name, String... labels) {
+        families.computeIfPresent(name, (n, family) -> {
+            family.meters.remove(labels(labels));
+            return family.meters.isEmpty() ? null : family;
+        });
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, n -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric '%s' is already registered as %s".formatted(name, family.type));
+        }
+        return family;
+    }
+
+    public String scrape() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Family> entry : new TreeMap<>(families).entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            sb.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> meter : new TreeMap<>(family.meters).entrySet()) {
+                String labels = meter.getKey();
+                if (meter.getValue() instanceof LongAdder counter) {
+                    sample(sb, name, labels, counter.sum());
+                } else if (meter.getValue() instanceof DoubleSupplier gauge) {
+                    sample(sb, name, labels, gauge.getAsDouble());
+                } else if (meter.getValue() instanceof LatencyHistogram timer) {
+                    for (double quantile : QUANTILES) {
+                        String quantileLabel = "quantile=\"" + quantile + "\"";
+                        sample(sb, name, labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel,
+                                timer.getValueAtPercentile(quantile * 100) / 1e9);
+                    }
+                    sample(sb, name + "_sum", labels, timer.getMeanNanos() * timer.getCount() / 1e9);
+                    sample(sb, name + "_count", labels, timer.getCount());
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    public void writeTo(Path file) {
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            Files.writeString(file, scrape(), StandardCharsets.UTF_8);
+            logger.info("Metrics written to {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Could not write metrics", kv("file", file), kv("cause_message", e.getMessage()));
+        }
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            sb.append((long) value);
+        } else {
+            sb.append(value);
+        }
+        sb.append('\n');
+    }
+
+    //rendered label set is the meter key, so the same labels always resolve to the same meter
+    private static String labels(String... keyValues) {
+        if (keyValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as key/value pairs");
+        }
+        List<String> labels = new ArrayList<>(keyValues.length / 2);
+        for (int i = 0; i < keyValues.length; i += 2) {
+            labels.add(keyValues[i] + "=\"" + escape(keyValues[i + 1]) + "\"");
+        }
+        return String.join(",", labels);
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    //meters sharing a name, keyed by their rendered labels
+    private static class Family {
+        private final String help;
+        private final String type;
+        private final Map<String, Object> meters = new ConcurrentHashMap<>();
+
+        Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
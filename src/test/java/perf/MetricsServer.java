@@ -0,0 +1,68 @@
+package perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static config.PerfConfig.METRICS_PORT;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+//pull endpoint GET /metrics for Prometheus, serves MetricsRegistry.global() on PERF_METRICS_PORT while tests run
+public class MetricsServer {
+    private final static Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+    private final static String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static volatile MetricsServer shared;
+
+    private final HttpServer server;
+    private final MetricsRegistry registry;
+
+    public MetricsServer(int port, MetricsRegistry registry) throws IOException {
+        this.registry = registry;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", this::handle);
+    }
+
+    //started once per JVM, does nothing unless PERF_METRICS_PORT is set
+    public static void startShared() {
+        if (METRICS_PORT <= 0 || shared != null) {
+            return;
+        }
+        synchronized (MetricsServer.class) {
+            if (shared != null) {
+                return;
+            }
+            try {
+                MetricsServer server = new MetricsServer(METRICS_PORT, MetricsRegistry.global());
+                server.server.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> server.server.stop(0), "metrics-server-shutdown"));
+                shared = server;
+                logger.info("Metrics endpoint started on port {}", METRICS_PORT, kv("metrics_port", METRICS_PORT));
+            } catch (IOException e) {
+                //metrics are not worth failing the run, file dump is still written at the end
+                logger.error("Could not start metrics endpoint", kv("metrics_port", METRICS_PORT), kv("cause_message", e.getMessage()));
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package perf;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import util.DatabaseUtils;
+
+import java.nio.file.Path;
+
+import static config.ApiConfig.LATENCY_SLA;
+import static config.ApiConfig.LATENCY_SLA_MIN_SAMPLES;
+import static config.PerfConfig.*;
+
+/*
+    Hooks end-of-run reporting and database cleanup into JUnit: a resource is put into the root context store on the first test class,
+    JUnit closes it once all tests of the run have finished.
+    Also tells DatabaseUtils whether tests run in parallel, as configured for JUnit, before any database reset.
+ */
+public class PerformanceExtension implements BeforeAllCallback {
+    private final static ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(PerformanceExtension.class);
+    private final static String PARALLEL_ENABLED_PARAMETER = "junit.jupiter.execution.parallel.enabled";
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        DatabaseUtils.configureParallelExecution(context.getConfigurationParameter(PARALLEL_ENABLED_PARAMETER)
+                .map(Boolean::parseBoolean).orElse(false));
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(RunEnd.class, k -> new RunEnd(), RunEnd.class);
+    }
+
+    static class RunEnd implements AutoCloseable {
+        @Override
+        public void close() {
+            LatencyRecorder recorder = LatencyRecorder.global();
+            LatencyReport.logSummary(recorder);
+            LatencyReport.exportJson(recorder, Path.of(REPORT_DIR, "latency-histograms.json"));
+            QueryProfiler.global().writeReport(Path.of(REPORT_DIR, "query-profile.json"));
+            //final state of the run, the pull endpoint is gone once the JVM exits
+            if (!METRICS_FILE.isEmpty()) {
+                MetricsRegistry.global().writeTo(Path.of(METRICS_FILE));
+            }
+            //scoped reset leaves data created outside any test's scope until now
+            DatabaseUtils.resetAfterRun();
+            //failures here are reported by JUnit as a failure of the run, both gates are evaluated anyway
+            AssertionError failure = null;
+            try {
+                SlaEvaluator.assertSlas(recorder, LatencySla.parse(LATENCY_SLA, LATENCY_SLA_MIN_SAMPLES));
+            } catch (AssertionError e) {
+                failure = e;
+            }
+            //run that violated SLAs is kept, but never used as a baseline
+            RunBaseline current = RunBaseline.capture(RUN_ID, recorder, TestTimings.global()).withPassed(failure == null);
+            try {
+                RegressionGate.assertNoRegressions(current,
+                        RunBaseline.findPrevious(Path.of(BASELINE_DIR), RUN_ID, BASELINE_COMPARE_TO).orElse(null));
+            } catch (AssertionError e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package perf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import util.DatabaseUtils;
+import util.JsonUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static config.ApiConfig.STUB_ENABLED;
+import static config.PerfConfig.*;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Server-side view of the SQL issued while a test or a load phase runs, taken from pg_stat_statements.
+    Statistics are reset once per run, then snapshotted when a capture begins and ends; the difference per normalized
+    statement (calls, total/mean execution time, rows, shared buffers hit/read) is logged with the test id from MDC.
+    pg_stat_statements is server-wide, so statements of the test harness itself (resets, checks) are counted too and
+    captures of tests running in parallel overlap: a capture's delta includes statements of the tests running
+    alongside it, so deltas are only logged. Run totals, written to PERF_REPORT_DIR/query-profile.json at the end
+    of the run, are the difference between one snapshot taken at the start of the run and one taken at its end.
+    Needs the extension preloaded (shared_preload_libraries=pg_stat_statements); without it profiling turns itself off.
+ */
+public class QueryProfiler {
+    private final static Logger logger = LoggerFactory.getLogger(QueryProfiler.class);
+    private final static QueryProfiler global = new QueryProfiler(QUERY_PROFILE && !STUB_ENABLED);
+
+    //own statements are left out by their text, everything else of the current database is captured
+    private final static String SNAPSHOT_SQL = """
+            SELECT userid, queryid, query, calls, total_exec_time, rows, shared_blks_hit, shared_blks_read
+            FROM pg_stat_statements
+            WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database())
+              AND queryid IS NOT NULL
+              AND query NOT ILIKE '%pg_stat_statements%'
+              AND query NOT ILIKE 'EXPLAIN %'""";
+
+    private volatile boolean enabled;
+    private volatile boolean initialized;
+    //taken right after the reset, the base run totals are counted from
+    private volatile Map<String, StatementStats> runStart;
+
+    //statistics of one normalized statement over a capture or the whole run
+    public record StatementStats(String query, long calls, double totalMs, long rows, long sharedBlocksHit, long sharedBlocksRead) {
+        public double meanMs() {
+            return calls == 0 ? 0 : totalMs / calls;
+        }
+
+        StatementStats minus(StatementStats before) {
+            return before == null ? this : new StatementStats(query, calls - before.calls, totalMs - before.totalMs,
+                    rows - before.rows, sharedBlocksHit - before.sharedBlocksHit, sharedBlocksRead - before.sharedBlocksRead);
+        }
+    }
+
+    public record Capture(String label, String testId, Map<String, StatementStats> before) {
+    }
+
+    QueryProfiler(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static QueryProfiler global() {
+        return global;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //null when profiling is off, end() accepts it
+    public Capture begin(String label) {
+        if (!enabled || !initialize()) {
+            return null;
+        }
+        Map<String, StatementStats> before = snapshot();
+        return before == null ? null : new Capture(label, MDC.get("test_id"), before);
+    }
+
+    public Map<String, StatementStats> end(Capture capture) {
+        if (capture == null || !enabled) {
+            return Map.of();
+        }
+        Map<String, StatementStats> after = snapshot();
+        if (after == null) {
+            return Map.of();
+        }
+        Map<String, StatementStats> delta = difference(capture.before(), after);
+        log(capture, delta);
+        return delta;
+    }
+
+    //statements called between the two snapshots
+    private static Map<String, StatementStats> difference(Map<String, StatementStats> before, Map<String, StatementStats> after) {
+        Map<String, StatementStats> delta = new HashMap<>();
+        for (Map.Entry<String, StatementStats> entry : after.entrySet()) {
+            StatementStats stats = entry.getValue().minus(before.get(entry.getKey()));
+            if (stats.calls() > 0) {
+                delta.put(entry.getKey(), stats);
+            }
+        }
+        return delta;
+    }
+
+    private void log(Capture capture, Map<String, StatementStats> delta) {
+        long calls = delta.values().stream().mapToLong(StatementStats::calls).sum();
+        double totalMs = delta.values().stream().mapToDouble(StatementStats::totalMs).sum();
+        logger.info("{}: {} statements, {} calls, {} ms in database", capture.label(), delta.size(), calls,
+                Math.round(totalMs * 100) / 100.0,
+                kv("profile_label", capture.label()),
+                kv("profile_test_id", capture.testId()),
+                kv("profile_statements", delta.size()),
+                kv("profile_calls", calls),
+                kv("profile_total_ms", totalMs));
+        for (StatementStats stats : top(delta)) {
+            logger.debug("Statement of {}", capture.label(),
+                    kv("profile_label", capture.label()),
+                    kv("profile_test_id", capture.testId()),
+                    kv("profile_query", stats.query()),
+                    kv("profile_calls", stats.calls()),
+                    kv("profile_total_ms", stats.totalMs()),
+                    kv("profile_mean_ms", stats.meanMs()),
+                    kv("profile_rows", stats.rows()),
+                    kv("profile_shared_blks_hit", stats.sharedBlocksHit()),
+                    kv("profile_shared_blks_read", stats.sharedBlocksRead()));
+        }
+    }
+
+    //top PERF_QUERY_PROFILE_TOP statements of the run by total time, with plans when PERF_QUERY_PROFILE_EXPLAIN is set
+    public void writeReport(Path file) {
+        Map<String, StatementStats> start = runStart;
+        if (!enabled || start == null) {
+            return;
+        }
+        Map<String, StatementStats> end = snapshot();
+        if (end == null) {
+            return;
+        }
+        Map<String, StatementStats> totals = difference(start, end);
+        if (totals.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> statements = new ArrayList<>();
+        for (StatementStats stats : top(totals)) {
+            Map<String, Object> statement = new LinkedHashMap<>();
+            statement.put("query", stats.query());
+            statement.put("calls", stats.calls());
+            statement.put("total_ms", stats.totalMs());
+            statement.put("mean_ms", stats.meanMs());
+            statement.put("rows", stats.rows());
+            statement.put("shared_blks_hit", stats.sharedBlocksHit());
+            statement.put("shared_blks_read", stats.sharedBlocksRead());
+            if (QUERY_PROFILE_EXPLAIN) {
+                statement.put("plan", explain(stats.query()));
+            }
+            statements.add(statement);
+            logger.info("Top statement: {} calls, {} ms total, {} ms mean: {}", stats.calls(), Math.round(stats.totalMs()),
+                    Math.round(stats.meanMs() * 1000) / 1000.0, stats.query());
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            JsonUtils.PRETTY_WRITER.writeValue(file.toFile(), Map.of("statements", statements));
+            logger.info("Query profile exported to {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Could not export query profile", kv("file", file), kv("cause_message", e.getMessage()));
+        }
+    }
+
+    private static List<StatementStats> top(Map<String, StatementStats> stats) {
+        return stats.values().stream()
+                .sorted(Comparator.comparingDouble(StatementStats::totalMs).reversed())
+                .limit(QUERY_PROFILE_TOP)
+                .toList();
+    }
+
+    /*
+        Statements without parameters are run with EXPLAIN (ANALYZE, BUFFERS), so only SELECTs are explained.
+        Normalized statements have their constants replaced with $n, those get the generic plan (PostgreSQL 16+) instead
+     */
+    private static String explain(String query) {
+        String normalized = query.strip().toLowerCase();
+        if (!normalized.startsWith("select") || normalized.contains(" for update") || normalized.contains(" for share")) {
+            return null;
+        }
+        String explain = query.contains("$1") ? "EXPLAIN (GENERIC_PLAN) " : "EXPLAIN (ANALYZE, BUFFERS) ";
+        try {
+            return String.join("\n", DatabaseUtils.createTemplate().queryForList(explain + query, String.class));
+        } catch (DataAccessException e) {
+            logger.debug("Could not explain statement", kv("profile_query", query), kv("cause_message", e.getMessage()));
+            return null;
+        }
+    }
+
+    //statistics are reset once, so that totals of the run don't include earlier activity
+    private synchronized boolean initialize() {
+        if (initialized) {
+            return enabled;
+        }
+        initialized = true;
+        try {
+            JdbcTemplate template = DatabaseUtils.createTemplate();
+            template.execute("CREATE EXTENSION IF NOT EXISTS pg_stat_statements");
+            template.query("SELECT pg_stat_statements_reset()", rs -> {
+            });
+            runStart = snapshot();
+            if (runStart == null) {
+                enabled = false;
+                return false;
+            }
+            logger.info("Query profiling with pg_stat_statements enabled");
+        } catch (DataAccessException e) {
+            enabled = false;
+            logger.warn("Query profiling disabled, pg_stat_statements is not available (is it in shared_preload_libraries?)",
+                    kv("cause_message", e.getMessage()));
+        }
+        return enabled;
+    }
+
+    private Map<String, StatementStats> snapshot() {
+        try {
+            Map<String, StatementStats> snapshot = new HashMap<>();
+            DatabaseUtils.createTemplate().query(SNAPSHOT_SQL, rs -> {
+                snapshot.put(rs.getLong("userid") + ":" + rs.getLong("queryid"), new StatementStats(rs.getString("query"),
+                        rs.getLong("calls"), rs.getDouble("total_exec_time"), rs.getLong("rows"),
+                        rs.getLong("shared_blks_hit"), rs.getLong("shared_blks_read")));
+            });
+            return snapshot;
+        } catch (DataAccessException e) {
+            logger.warn("Could not read pg_stat_statements", kv("cause_message", e.getMessage()));
+            return null;
+        }
+    }
+}
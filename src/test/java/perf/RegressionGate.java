@@ -0,0 +1,115 @@
+package perf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static config.PerfConfig.*;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Compares the current run with a baseline run, endpoint by endpoint and test by test.
+    A timing is REGRESSED when the Mann-Whitney test says it's slower with p < PERF_REGRESSION_ALPHA and its median
+    grew by more than PERF_REGRESSION_THRESHOLD: significance alone flags negligible shifts on large samples,
+    the threshold alone flags noise on small ones. IMPROVED is the mirror case.
+ */
+public class RegressionGate {
+    private final static Logger logger = LoggerFactory.getLogger(RegressionGate.class);
+
+    public enum Verdict {
+        REGRESSED,
+        IMPROVED,
+        UNCHANGED,
+        //fewer samples than PERF_REGRESSION_MIN_SAMPLES in one of the runs or timing missing in the baseline
+        NOT_EVALUATED
+    }
+
+    public record Result(String kind, String name, Verdict verdict, long baselineCount, long currentCount,
+                         double baselineMedianMs, double currentMedianMs, double change, double pValue) {
+    }
+
+    public static List<Result> compare(RunBaseline baseline, RunBaseline current) {
+        List<Result> results = new ArrayList<>();
+        compare("endpoint", baseline.endpoints(), current.endpoints(), results);
+        compare("test", baseline.tests(), current.tests(), results);
+        return results;
+    }
+
+    private static void compare(String kind, Map<String, LatencyHistogram> baseline, Map<String, LatencyHistogram> current,
+                                List<Result> results) {
+        current.forEach((name, histogram) -> {
+            LatencyHistogram previous = baseline.getOrDefault(name, new LatencyHistogram());
+            double baselineMedianMs = previous.getValueAtPercentile(50) / 1_000_000.0;
+            double currentMedianMs = histogram.getValueAtPercentile(50) / 1_000_000.0;
+            double change = baselineMedianMs == 0 ? 0 : currentMedianMs / baselineMedianMs - 1;
+            if (previous.getCount() < REGRESSION_MIN_SAMPLES || histogram.getCount() < REGRESSION_MIN_SAMPLES) {
+                results.add(new Result(kind, name, Verdict.NOT_EVALUATED, previous.getCount(), histogram.getCount(),
+                        baselineMedianMs, currentMedianMs, change, Double.NaN));
+                return;
+            }
+            MannWhitney.Result test = MannWhitney.test(histogram, previous);
+            Verdict verdict;
+            double pValue;
+            if (test.pGreater() < REGRESSION_ALPHA && change > REGRESSION_THRESHOLD) {
+                verdict = Verdict.REGRESSED;
+                pValue = test.pGreater();
+            } else if (test.pLess() < REGRESSION_ALPHA && change < -REGRESSION_THRESHOLD) {
+                verdict = Verdict.IMPROVED;
+                pValue = test.pLess();
+            } else {
+                verdict = Verdict.UNCHANGED;
+                pValue = Math.min(test.pGreater(), test.pLess());
+            }
+            results.add(new Result(kind, name, verdict, previous.getCount(), histogram.getCount(),
+                    baselineMedianMs, currentMedianMs, change, pValue));
+        });
+    }
+
+    public static String report(String baselineRunId, String currentRunId, List<Result> results) {
+        StringBuilder sb = new StringBuilder("Performance comparison of run %s with baseline %s:".formatted(currentRunId, baselineRunId));
+        for (Result result : results) {
+            sb.append(System.lineSeparator()).append(String.format("  %-14s %-8s %s: median %.3f -> %.3f ms (%+.1f%%), n=%d/%d, p=%.4g",
+                    result.verdict(), result.kind(), result.name(), result.baselineMedianMs(), result.currentMedianMs(),
+                    result.change() * 100, result.baselineCount(), result.currentCount(), result.pValue()));
+        }
+        return sb.toString();
+    }
+
+    /*
+        Compares the current run with the previous one and saves it as baseline. The run is saved as not passed
+        when it regressed with PERF_REGRESSION_FAIL on, so that it never becomes a baseline for later runs.
+     */
+    public static void assertNoRegressions(RunBaseline current, RunBaseline previous) {
+        if (previous == null) {
+            logger.info("No baseline to compare run {} with", current.runId(), kv("perf_run_id", current.runId()));
+            current.write(Path.of(BASELINE_DIR));
+            return;
+        }
+        List<Result> results = compare(previous, current);
+        for (Result result : results) {
+            logger.info("{} {} {}", result.verdict(), result.kind(), result.name(),
+                    kv("perf_run_id", current.runId()),
+                    kv("perf_baseline_run_id", previous.runId()),
+                    kv("perf_kind", result.kind()),
+                    kv("perf_name", result.name()),
+                    kv("perf_verdict", result.verdict()),
+                    kv("perf_median_change", result.change()),
+                    kv("perf_p_value", result.pValue()));
+        }
+        String report = report(previous.runId(), current.runId(), results);
+        boolean regressed = results.stream().anyMatch(r -> r.verdict() == Verdict.REGRESSED);
+        current.withPassed(current.passed() && !(regressed && REGRESSION_FAIL)).write(Path.of(BASELINE_DIR));
+        if (!regressed) {
+            logger.info(report, kv("perf_regression_status", "PASSED"));
+        } else if (REGRESSION_FAIL) {
+            logger.error(report, kv("perf_regression_status", "FAILED"));
+            throw new AssertionError(report);
+        } else {
+            logger.warn(report, kv("perf_regression_status", "REGRESSED"));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.JsonUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Timings of one run: endpoint latencies and test/scenario durations as histograms, stored as <run id>.json
+    in PERF_BASELINE_DIR. Besides the percentile summary every histogram keeps its non-empty buckets,
+    so later runs can be compared with it sample by sample (see MannWhitney), not just by aggregates.
+ */
+public record RunBaseline(String runId, Instant created, boolean passed,
+                          Map<String, LatencyHistogram> endpoints, Map<String, LatencyHistogram> tests) {
+    private final static Logger logger = LoggerFactory.getLogger(RunBaseline.class);
+
+    public static RunBaseline capture(String runId, LatencyRecorder recorder, TestTimings timings) {
+        Map<String, LatencyHistogram> endpoints = new TreeMap<>();
+        for (String endpoint : recorder.getHistograms().keySet()) {
+            endpoints.put(endpoint, recorder.getEndpointHistogram(endpoint));
+        }
+        return new RunBaseline(runId, Instant.now(), true, endpoints, timings.getHistograms());
+    }
+
+    public RunBaseline withPassed(boolean passed) {
+        return new RunBaseline(runId, created, passed, endpoints, tests);
+    }
+
+    public void write(Path dir) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("run_id", runId);
+        json.put("created", created.toString());
+        json.put("passed", passed);
+        json.put("endpoints", toJson(endpoints));
+        json.put("tests", toJson(tests));
+        Path file = fileOf(dir, runId);
+        try {
+            Files.createDirectories(dir.toAbsolutePath());
+            JsonUtils.PRETTY_WRITER.writeValue(file.toFile(), json);
+            logger.info("Run baseline saved to {}", file.toAbsolutePath(), kv("perf_run_id", runId));
+        } catch (IOException e) {
+            logger.error("Could not save run baseline", kv("file", file), kv("cause_message", e.getMessage()));
+        }
+    }
+
+    public static RunBaseline read(Path file) throws IOException {
+        JsonNode json = JsonUtils.MAPPER.readTree(file.toFile());
+        return new RunBaseline(json.path("run_id").asText(), Instant.parse(json.path("created").asText()),
+                json.path("passed").asBoolean(), fromJson(json.path("endpoints")), fromJson(json.path("tests")));
+    }
+
+    /*
+        Baseline to compare the current run with: the one of compareTo run id when given,
+        otherwise the latest baseline of a passed run other than the current one.
+     */
+    public static Optional<RunBaseline> findPrevious(Path dir, String currentRunId, String compareTo) {
+        if (!compareTo.isEmpty()) {
+            Path file = fileOf(dir, compareTo);
+            try {
+                return Optional.of(read(file));
+            } catch (IOException e) {
+                logger.warn("Baseline of run {} not readable", compareTo, kv("file", file), kv("cause_message", e.getMessage()));
+                return Optional.empty();
+            }
+        }
+        if (!Files.isDirectory(dir)) {
+            return Optional.empty();
+        }
+        RunBaseline latest = null;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".json"))::iterator) {
+                try {
+                    RunBaseline baseline = read(file);
+                    if (baseline.passed() && !baseline.runId().equals(currentRunId)
+                            && (latest == null || baseline.created().isAfter(latest.created()))) {
+                        latest = baseline;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Skipping unreadable baseline {}", file, kv("cause_message", e.getMessage()));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not list baselines", kv("dir", dir), kv("cause_message", e.getMessage()));
+        }
+        return Optional.ofNullable(latest);
+    }
+
+    private static Path fileOf(Path dir, String runId) {
+        //run ids come from CI variables, keep them file name safe
+        return dir.resolve(runId.replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+    }
+
+    private static Map<String, Object> toJson(Map<String, LatencyHistogram> histograms) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) -> {
+            Map<String, Object> values = LatencyReport.toMap(histogram);
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            histogram.getBucketCounts().forEach((index, count) -> buckets.put(String.valueOf(index), count));
+            values.put("buckets", buckets);
+            json.put(name, values);
+        });
+        return json;
+    }
+
+    private static Map<String, LatencyHistogram> fromJson(JsonNode json) {
+        Map<String, LatencyHistogram> histograms = new TreeMap<>();
+        for (Map.Entry<String, JsonNode> entry : json.properties()) {
+            Map<Integer, Long> buckets = new TreeMap<>();
+            for (Map.Entry<String, JsonNode> bucket : entry.getValue().path("buckets").properties()) {
+                buckets.put(Integer.parseInt(bucket.getKey()), bucket.getValue().asLong());
+            }
+            histograms.put(entry.getKey(), LatencyHistogram.fromBucketCounts(buckets));
+        }
+        return histograms;
+    }
+}
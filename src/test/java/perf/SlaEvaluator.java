@@ -0,0 +1,72 @@
+package perf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+//checks latency SLAs against histograms aggregated over the whole run (or load scenario)
+public class SlaEvaluator {
+    private final static Logger logger = LoggerFactory.getLogger(SlaEvaluator.class);
+
+    public enum Verdict {
+        PASSED,
+        FAILED,
+        //fewer samples than required, percentile would not be meaningful
+        NOT_EVALUATED
+    }
+
+    public record Result(LatencySla sla, Verdict verdict, long samples, double actualMs) {
+    }
+
+    public static List<Result> evaluate(LatencyRecorder recorder, List<LatencySla> slas) {
+        List<Result> results = new ArrayList<>();
+        for (LatencySla sla : slas) {
+            LatencyHistogram histogram = recorder.getEndpointHistogram(sla.endpoint());
+            long samples = histogram.getCount();
+            double actualMs = histogram.getValueAtPercentile(sla.percentile()) / 1_000_000.0;
+            Verdict verdict;
+            if (samples < sla.minSamples()) {
+                verdict = Verdict.NOT_EVALUATED;
+            } else if (actualMs < sla.thresholdMs()) {
+                verdict = Verdict.PASSED;
+            } else {
+                verdict = Verdict.FAILED;
+            }
+            results.add(new Result(sla, verdict, samples, actualMs));
+        }
+        return results;
+    }
+
+    public static String report(List<Result> results) {
+        StringBuilder sb = new StringBuilder("Latency SLA report:");
+        for (Result result : results) {
+            sb.append(System.lineSeparator()).append(String.format("  %-14s %s: actual p%s = %.3f ms over %d samples",
+                    result.verdict(), result.sla(), LatencySla.format(result.sla().percentile()), result.actualMs(), result.samples()));
+        }
+        return sb.toString();
+    }
+
+    //logs the report and fails with it when any SLA is violated
+    public static void assertSlas(LatencyRecorder recorder, List<LatencySla> slas) {
+        if (slas.isEmpty()) {
+            return;
+        }
+        List<Result> results = evaluate(recorder, slas);
+        String report = report(results);
+        boolean failed = results.stream().anyMatch(r -> r.verdict() == Verdict.FAILED);
+        for (Result result : results) {
+            if (result.verdict() == Verdict.NOT_EVALUATED) {
+                logger.warn("Latency SLA not evaluated, only {} samples: {}", result.samples(), result.sla());
+            }
+        }
+        if (failed) {
+            logger.error(report, kv("latency_sla_status", "FAILED"));
+            throw new AssertionError(report);
+        }
+        logger.info(report, kv("latency_sla_status", "PASSED"));
+    }
+}
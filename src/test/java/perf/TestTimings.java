@@ -0,0 +1,28 @@
+package perf;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    Run-wide durations of successfully finished tests and load scenario iterations, keyed by name
+    (e.g. 'createOwner', 'scenario read'). Together with endpoint latencies they make up the run baseline.
+ */
+public class TestTimings {
+    private final static TestTimings global = new TestTimings();
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public static TestTimings global() {
+        return global;
+    }
+
+    public void record(String name, long durationNanos) {
+        histograms.computeIfAbsent(name, k -> new LatencyHistogram()).record(durationNanos);
+    }
+
+    //sorted for stable reports
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+}
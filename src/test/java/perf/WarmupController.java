@@ -0,0 +1,186 @@
+package perf;
+
+import base.TestLogic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static config.PerfConfig.*;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Warms up endpoints before measured tests run, once per endpoint and JVM (JIT of client and server, connections,
+    server-side caches). The action calling the endpoint is repeated until the latency of the endpoint is steady:
+    coefficient of variation (stddev / mean) over the last PERF_WARMUP_WINDOW iterations at most PERF_WARMUP_MAX_CV,
+    after at least PERF_WARMUP_MIN_ITERATIONS; or until the iteration/duration limit is hit.
+    Requests sent while warming up are not recorded into run-wide latency histograms (see LatencyFilter).
+ */
+public class WarmupController {
+    private final static Logger logger = LoggerFactory.getLogger(WarmupController.class);
+    //<endpoint>:<max iterations>[@<max duration ms>]
+    private final static Pattern OVERRIDE_PATTERN = Pattern.compile("^(.+):(\\d+)(?:@(\\d+))?$");
+    private final static WarmupController global = new WarmupController();
+    private final static ThreadLocal<Session> session = new ThreadLocal<>();
+
+    private final Map<String, Result> warmedUp = new ConcurrentHashMap<>();
+    private final Map<String, Settings> overrides = parseOverrides(WARMUP_ENDPOINTS);
+
+    public record Settings(int minIterations, int maxIterations, long maxDurationMs, int window, double maxCv) {
+    }
+
+    public record Result(String endpoint, int iterations, boolean steady, double cv, double meanMs, long durationMs, int failures) {
+    }
+
+    public static WarmupController global() {
+        return global;
+    }
+
+    public static boolean isWarmingUp() {
+        return session.get() != null;
+    }
+
+    //latency of a request sent while warming up on this thread
+    static void record(String endpoint, long durationNanos) {
+        Session current = session.get();
+        if (current != null && current.endpoint.equals(endpoint)) {
+            current.endpointNanos += durationNanos;
+            current.endpointRequests++;
+        }
+    }
+
+    public Settings settingsFor(String endpoint) {
+        return overrides.getOrDefault(endpoint, new Settings(WARMUP_MIN_ITERATIONS, WARMUP_MAX_ITERATIONS,
+                WARMUP_MAX_DURATION_MS, WARMUP_WINDOW, WARMUP_MAX_CV));
+    }
+
+    /*
+        Runs the action until the endpoint is warm, returns the result of the first warmup of the endpoint
+        on later calls. Synchronized, tests of other classes starting in parallel wait for the warmup to end.
+     */
+    public synchronized Result warmUp(String endpoint, TestLogic action) {
+        Result previous = warmedUp.get(endpoint);
+        if (previous != null) {
+            return previous;
+        }
+        if (!WARMUP_ENABLED) {
+            Result skipped = new Result(endpoint, 0, false, Double.NaN, Double.NaN, 0, 0);
+            warmedUp.put(endpoint, skipped);
+            return skipped;
+        }
+        Result result = run(endpoint, action, settingsFor(endpoint));
+        warmedUp.put(endpoint, result);
+        logger.info("Endpoint {} warmed up in {} iterations ({} ms), steady: {}", endpoint, result.iterations(), result.durationMs(),
+                result.steady(),
+                kv("warmup_endpoint", endpoint),
+                kv("warmup_iterations", result.iterations()),
+                kv("warmup_steady", result.steady()),
+                kv("warmup_cv", result.cv()),
+                kv("warmup_mean_ms", result.meanMs()),
+                kv("warmup_duration_ms", result.durationMs()),
+                kv("warmup_failures", result.failures()));
+        return result;
+    }
+
+    private static Result run(String endpoint, TestLogic action, Settings settings) {
+        int window = Math.max(2, settings.window());
+        int minIterations = Math.max(settings.minIterations(), window);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.maxDurationMs());
+        long start = System.nanoTime();
+        Deque<Long> recent = new ArrayDeque<>(window);
+        Session current = new Session(endpoint);
+        int iterations = 0;
+        int failures = 0;
+        double cv = Double.NaN;
+        boolean steady = false;
+        session.set(current);
+        try {
+            while (iterations < settings.maxIterations() && System.nanoTime() < deadline) {
+                current.endpointNanos = 0;
+                current.endpointRequests = 0;
+                long iterationStart = System.nanoTime();
+                try {
+                    action.run();
+                } catch (AssertionError | Exception e) {
+                    //a broken endpoint isn't going to warm up, tests will report the failure
+                    failures++;
+                    logger.warn("Warmup iteration of {} failed: {}", endpoint, e.getMessage(), kv("warmup_endpoint", endpoint));
+                    break;
+                }
+                //endpoint latency when the action called it, whole iteration otherwise
+                long sample = current.endpointRequests > 0 ? current.endpointNanos / current.endpointRequests
+                        : System.nanoTime() - iterationStart;
+                iterations++;
+                if (recent.size() == window) {
+                    recent.removeFirst();
+                }
+                recent.addLast(sample);
+                if (recent.size() == window) {
+                    cv = coefficientOfVariation(recent);
+                    if (iterations >= minIterations && cv <= settings.maxCv()) {
+                        steady = true;
+                        break;
+                    }
+                }
+            }
+        } finally {
+            session.remove();
+        }
+        double meanMs = recent.stream().mapToLong(Long::longValue).average().orElse(Double.NaN) / 1_000_000.0;
+        if (!steady && failures == 0) {
+            logger.warn("Endpoint {} not steady after warmup, last CV {}", endpoint, cv, kv("warmup_endpoint", endpoint));
+        }
+        return new Result(endpoint, iterations, steady, cv, meanMs, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failures);
+    }
+
+    private static double coefficientOfVariation(Deque<Long> samples) {
+        double mean = samples.stream().mapToLong(Long::longValue).average().orElse(0);
+        if (mean == 0) {
+            return 0;
+        }
+        double variance = 0;
+        for (long sample : samples) {
+            variance += (sample - mean) * (sample - mean);
+        }
+        return Math.sqrt(variance / (samples.size() - 1)) / mean;
+    }
+
+    private static Map<String, Settings> parseOverrides(String overrides) {
+        Map<String, Settings> result = new HashMap<>();
+        if (overrides == null || overrides.isBlank()) {
+            return result;
+        }
+        for (String entry : overrides.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            Matcher matcher = OVERRIDE_PATTERN.matcher(entry.trim());
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid warmup override '%s', expected <endpoint>:<max iterations>[@<max duration ms>]".formatted(entry));
+            }
+            int maxIterations = Integer.parseInt(matcher.group(2));
+            long maxDurationMs = matcher.group(3) == null ? WARMUP_MAX_DURATION_MS : Long.parseLong(matcher.group(3));
+            result.put(matcher.group(1).trim(), new Settings(Math.min(WARMUP_MIN_ITERATIONS, maxIterations), maxIterations,
+                    maxDurationMs, WARMUP_WINDOW, WARMUP_MAX_CV));
+        }
+        return result;
+    }
+
+    //warmup in progress on a thread
+    private static class Session {
+        private final String endpoint;
+        private long endpointNanos;
+        private int endpointRequests;
+
+        Session(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+}
@@ -0,0 +1,608 @@
+package stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import load.VirtualThreads;
+import model.Owner;
+import model.Pet;
+import model.PetType;
+import model.Visit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.JsonUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+
+import static config.ApiConfig.*;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    In-process stand-in for spring-petclinic-rest (API_STUB=true), so the suite runs without Docker and harness
+    overhead can be measured against a server that answers in microseconds.
+    Serves owners, pets, visits and pet types under BASE_URL + BASE_API_PATH with the JSON shapes of the real
+    application (owner.json, pet.json, visit.json, pet_type.json) and RFC 9457 problem bodies (rfc9457.json)
+    for errors; data lives in StubStore. Every exchange runs on its own virtual thread when the runtime has them.
+ */
+public class PetClinicStub {
+    private final static Logger logger = LoggerFactory.getLogger(PetClinicStub.class);
+    private final static TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+    private final static String CONTENT_TYPE_JSON = "application/json";
+    private final static int BACKLOG = 1024;
+
+    //constraints of the real application's DTOs, same as in owner.json and model.Owner
+    private final static Pattern FIRSTNAME_PATTERN = Pattern.compile("^[\\p{L}]+([ '-][\\p{L}]+){0,2}$");
+    private final static Pattern LASTNAME_PATTERN = Pattern.compile("^[\\p{L}]+([ '-][\\p{L}]+){0,2}\\.?$");
+    private final static Pattern TELEPHONE_PATTERN = Pattern.compile("^[0-9]*$");
+
+    private static volatile PetClinicStub shared;
+
+    static {
+        //JDK server writes headers and body separately, with Nagle's algorithm every response waits for a delayed ACK;
+        //read once by the JDK when the first server is created
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final StubStore store;
+    private final String apiUrl;
+    private final String contextPath;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public PetClinicStub(String apiUrl, StubStore store) throws IOException {
+        URI uri = URI.create(apiUrl);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+        this.store = store;
+        this.apiUrl = apiUrl;
+        this.contextPath = uri.getPath().isEmpty() ? "/" : uri.getPath();
+        this.server = HttpServer.create(new InetSocketAddress(uri.getHost(), port), BACKLOG);
+        this.executor = VirtualThreads.newPerTaskExecutor("petclinic-stub", true);
+        server.createContext(contextPath, this::handle);
+        server.setExecutor(executor);
+    }
+
+    //one stub per JVM for BASE_URL + BASE_API_PATH, started on first call and stopped on JVM shutdown
+    public static PetClinicStub startShared() {
+        PetClinicStub stub = shared;
+        if (stub == null) {
+            synchronized (PetClinicStub.class) {
+                stub = shared;
+                if (stub == null) {
+                    try {
+                        stub = new PetClinicStub(BASE_URL + BASE_API_PATH, StubStore.global());
+                    } catch (IOException e) {
+                        logger.error("Error starting PetClinic stub",
+                                kv("stub_url", BASE_URL + BASE_API_PATH),
+                                kv("cause_message", e.getMessage()));
+                        throw new IllegalStateException("Could not start PetClinic stub on " + BASE_URL + BASE_API_PATH, e);
+                    }
+                    stub.start();
+                    Runtime.getRuntime().addShutdownHook(new Thread(stub::stop, "petclinic-stub-shutdown"));
+                    shared = stub;
+                }
+            }
+        }
+        return stub;
+    }
+
+    public void start() {
+        server.start();
+        logger.info("PetClinic stub started on {}", apiUrl, kv("stub_url", apiUrl));
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(contextPath.length());
+        try {
+            route(exchange, path);
+        } catch (StubError e) {
+            problem(exchange, path, e.status, e.title, e.getMessage());
+        } catch (JsonProcessingException e) {
+            problem(exchange, path, 400, "Bad Request", "Malformed JSON request body");
+        } catch (RuntimeException e) {
+            logger.error("PetClinic stub failed to handle {} {}", exchange.getRequestMethod(), path,
+                    kv("cause_message", e.getMessage()));
+            problem(exchange, path, 500, "Internal Server Error", String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, String path) throws IOException {
+        String[] segments = path.replaceAll("^/+|/+$", "").split("/");
+        String method = exchange.getRequestMethod();
+        switch (segments[0]) {
+            case "owners" -> routeOwners(exchange, method, segments);
+            case "pets" -> routePets(exchange, method, segments);
+            case "visits" -> routeVisits(exchange, method, segments);
+            case "pettypes" -> routeTypes(exchange, method, segments);
+            default -> throw notFound("No endpoint " + method + " " + path);
+        }
+    }
+
+    //owners
+
+    private void routeOwners(HttpExchange exchange, String method, String[] segments) throws IOException {
+        switch (segments.length) {
+            case 1 -> {
+                switch (method) {
+                    case "GET" -> {
+                        List<Object> owners = new ArrayList<>();
+                        for (StubStore.OwnerRow owner : store.findOwners(queryParameter(exchange, "lastName"))) {
+                            owners.add(ownerJson(owner));
+                        }
+                        json(exchange, 200, owners);
+                    }
+                    case "POST" -> {
+                        StubStore.OwnerRow owner = parseOwner(readBody(exchange), 0);
+                        owner = store.insertOwner(owner.firstName(), owner.lastName(), owner.address(), owner.city(), owner.telephone());
+                        exchange.getResponseHeaders().add("Location", apiUrl + "/owners/" + owner.id());
+                        json(exchange, 201, ownerJson(owner));
+                    }
+                    default -> throw methodNotAllowed(method);
+                }
+            }
+            case 2 -> {
+                int ownerId = id(segments[1]);
+                switch (method) {
+                    case "GET" -> json(exchange, 200, ownerJson(existingOwner(ownerId)));
+                    case "PUT" -> {
+                        existingOwner(ownerId);
+                        if (!store.updateOwner(parseOwner(readBody(exchange), ownerId))) {
+                            throw notFound("Owner " + ownerId + " not found");
+                        }
+                        //real application answers 204 to updates, still with JSON content type
+                        noContent(exchange, true);
+                    }
+                    case "DELETE" -> {
+                        if (!store.deleteOwner(ownerId)) {
+                            throw notFound("Owner " + ownerId + " not found");
+                        }
+                        noContent(exchange, false);
+                    }
+                    default -> throw methodNotAllowed(method);
+                }
+            }
+            case 3, 4 -> {
+                if (!"pets".equals(segments[2])) {
+                    throw notFound("No endpoint " + method + " " + String.join("/", segments));
+                }
+                int ownerId = id(segments[1]);
+                existingOwner(ownerId);
+                if (segments.length == 3) {
+                    if (!"POST".equals(method)) {
+                        throw methodNotAllowed(method);
+                    }
+                    StubStore.PetRow pet = parsePet(readBody(exchange), 0, ownerId);
+                    pet = store.insertPet(pet.name(), pet.birthDate(), pet.typeId(), ownerId);
+                    json(exchange, 201, petJson(pet));
+                    return;
+                }
+                int petId = id(segments[3]);
+                StubStore.PetRow pet = existingPet(petId);
+                if (pet.ownerId() != ownerId) {
+                    throw notFound("Pet " + petId + " of owner " + ownerId + " not found");
+                }
+                switch (method) {
+                    case "GET" -> json(exchange, 200, petJson(pet));
+                    case "PUT" -> {
+                        store.updatePet(parsePet(readBody(exchange), petId, ownerId));
+                        noContent(exchange, true);
+                    }
+                    default -> throw methodNotAllowed(method);
+                }
+            }
+            case 5 -> {
+                if (!"pets".equals(segments[2]) || !"visits".equals(segments[4])) {
+                    throw notFound("No endpoint " + method + " " + String.join("/", segments));
+                }
+                if (!"POST".equals(method)) {
+                    throw methodNotAllowed(method);
+                }
+                int ownerId = id(segments[1]);
+                int petId = id(segments[3]);
+                existingOwner(ownerId);
+                if (existingPet(petId).ownerId() != ownerId) {
+                    throw notFound("Pet " + petId + " of owner " + ownerId + " not found");
+                }
+                StubStore.VisitRow visit = parseVisit(readBody(exchange), 0, petId);
+                visit = store.insertVisit(petId, visit.date(), visit.description());
+                json(exchange, 201, visitJson(visit));
+            }
+            default -> throw notFound("No endpoint " + method + " " + String.join("/", segments));
+        }
+    }
+
+    private StubStore.OwnerRow parseOwner(Map<String, Object> body, int id) {
+        List<String> violations = new ArrayList<>();
+        String firstName = text(body, Owner.FIELD_FIRSTNAME, 1, 30, FIRSTNAME_PATTERN, violations);
+        String lastName = text(body, Owner.FIELD_LASTNAME, 1, 30, LASTNAME_PATTERN, violations);
+        String address = text(body, Owner.FIELD_ADDRESS, 1, 255, null, violations);
+        String city = text(body, Owner.FIELD_CITY, 1, 80, null, violations);
+        String telephone = text(body, Owner.FIELD_TELEPHONE, 1, 20, TELEPHONE_PATTERN, violations);
+        validated(violations);
+        return new StubStore.OwnerRow(id, firstName, lastName, address, city, telephone);
+    }
+
+    private Map<String, Object> ownerJson(StubStore.OwnerRow owner) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put(Owner.FIELD_FIRSTNAME, owner.firstName());
+        json.put(Owner.FIELD_LASTNAME, owner.lastName());
+        json.put(Owner.FIELD_ADDRESS, owner.address());
+        json.put(Owner.FIELD_CITY, owner.city());
+        json.put(Owner.FIELD_TELEPHONE, owner.telephone());
+        json.put(Owner.FIELD_ID, owner.id());
+        List<Object> pets = new ArrayList<>();
+        for (StubStore.PetRow pet : store.findPetsOfOwner(owner.id())) {
+            pets.add(petJson(pet));
+        }
+        json.put(Owner.FIELD_PETS, pets);
+        return json;
+    }
+
+    private StubStore.OwnerRow existingOwner(int ownerId) {
+        StubStore.OwnerRow owner = store.findOwner(ownerId);
+        if (owner == null) {
+            throw notFound("Owner " + ownerId + " not found");
+        }
+        return owner;
+    }
+
+    //pets
+
+    private void routePets(HttpExchange exchange, String method, String[] segments) throws IOException {
+        if (segments.length == 1) {
+            switch (method) {
+                case "GET" -> {
+                    List<Object> pets = new ArrayList<>();
+                    for (StubStore.PetRow pet : store.findPets()) {
+                        pets.add(petJson(pet));
+                    }
+                    json(exchange, 200, pets);
+                }
+                case "POST" -> {
+                    Map<String, Object> body = readBody(exchange);
+                    int ownerId = number(body, Pet.FIELD_OWNERID);
+                    existingOwner(ownerId);
+                    StubStore.PetRow pet = parsePet(body, 0, ownerId);
+                    pet = store.insertPet(pet.name(), pet.birthDate(), pet.typeId(), ownerId);
+                    json(exchange, 201, petJson(pet));
+                }
+                default -> throw methodNotAllowed(method);
+            }
+            return;
+        }
+        if (segments.length != 2) {
+            throw notFound("No endpoint " + method + " " + String.join("/", segments));
+        }
+        int petId = id(segments[1]);
+        StubStore.PetRow pet = existingPet(petId);
+        switch (method) {
+            case "GET" -> json(exchange, 200, petJson(pet));
+            case "PUT" -> {
+                store.updatePet(parsePet(readBody(exchange), petId, pet.ownerId()));
+                noContent(exchange, true);
+            }
+            case "DELETE" -> {
+                store.deletePet(petId);
+                noContent(exchange, false);
+            }
+            default -> throw methodNotAllowed(method);
+        }
+    }
+
+    private StubStore.PetRow parsePet(Map<String, Object> body, int id, int ownerId) {
+        List<String> violations = new ArrayList<>();
+        String name = text(body, Pet.FIELD_NAME, 1, 30, null, violations);
+        String birthDate = date(body, Pet.FIELD_BIRTHDATE, true, violations);
+        int typeId = -1;
+        if (body.get(Pet.FIELD_TYPE) instanceof Map<?, ?> type && type.get(PetType.FIELD_ID) instanceof Integer value) {
+            typeId = value;
+            if (store.findType(typeId) == null) {
+                violations.add("type: pet type " + typeId + " doesn't exist");
+            }
+        } else {
+            violations.add("type: must be a pet type with id");
+        }
+        validated(violations);
+        return new StubStore.PetRow(id, name, birthDate, typeId, ownerId);
+    }
+
+    private Map<String, Object> petJson(StubStore.PetRow pet) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put(Pet.FIELD_NAME, pet.name());
+        json.put(Pet.FIELD_BIRTHDATE, pet.birthDate());
+        StubStore.TypeRow type = store.findType(pet.typeId());
+        json.put(Pet.FIELD_TYPE, type == null ? null : typeJson(type));
+        json.put(Pet.FIELD_ID, pet.id());
+        json.put(Pet.FIELD_OWNERID, pet.ownerId());
+        List<Object> visits = new ArrayList<>();
+        for (StubStore.VisitRow visit : store.findVisitsOfPet(pet.id())) {
+            visits.add(visitJson(visit));
+        }
+        json.put(Pet.FIELD_VISITS, visits);
+        return json;
+    }
+
+    private StubStore.PetRow existingPet(int petId) {
+        StubStore.PetRow pet = store.findPet(petId);
+        if (pet == null) {
+            throw notFound("Pet " + petId + " not found");
+        }
+        return pet;
+    }
+
+    //visits
+
+    private void routeVisits(HttpExchange exchange, String method, String[] segments) throws IOException {
+        if (segments.length == 1) {
+            switch (method) {
+                case "GET" -> {
+                    List<Object> visits = new ArrayList<>();
+                    for (StubStore.VisitRow visit : store.findVisits()) {
+                        visits.add(visitJson(visit));
+                    }
+                    json(exchange, 200, visits);
+                }
+                case "POST" -> {
+                    Map<String, Object> body = readBody(exchange);
+                    int petId = number(body, Visit.FIELD_PETID);
+                    existingPet(petId);
+                    StubStore.VisitRow visit = parseVisit(body, 0, petId);
+                    visit = store.insertVisit(petId, visit.date(), visit.description());
+                    json(exchange, 201, visitJson(visit));
+                }
+                default -> throw methodNotAllowed(method);
+            }
+            return;
+        }
+        if (segments.length != 2) {
+            throw notFound("No endpoint " + method + " " + String.join("/", segments));
+        }
+        int visitId = id(segments[1]);
+        StubStore.VisitRow visit = store.findVisit(visitId);
+        if (visit == null) {
+            throw notFound("Visit " + visitId + " not found");
+        }
+        switch (method) {
+            case "GET" -> json(exchange, 200, visitJson(visit));
+            case "PUT" -> {
+                store.updateVisit(parseVisit(readBody(exchange), visitId, visit.petId()));
+                noContent(exchange, true);
+            }
+            case "DELETE" -> {
+                store.deleteVisit(visitId);
+                noContent(exchange, false);
+            }
+            default -> throw methodNotAllowed(method);
+        }
+    }
+
+    private StubStore.VisitRow parseVisit(Map<String, Object> body, int id, int petId) {
+        List<String> violations = new ArrayList<>();
+        //visit date defaults to today like in the real application
+        String date = date(body, Visit.FIELD_DATE, false, violations);
+        String description = text(body, Visit.FIELD_DESCRIPTION, 1, 255, null, violations);
+        validated(violations);
+        return new StubStore.VisitRow(id, petId, date == null ? LocalDate.now().toString() : date, description);
+    }
+
+    private static Map<String, Object> visitJson(StubStore.VisitRow visit) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put(Visit.FIELD_DATE, visit.date());
+        json.put(Visit.FIELD_DESCRIPTION, visit.description());
+        json.put(Visit.FIELD_ID, visit.id());
+        json.put(Visit.FIELD_PETID, visit.petId());
+        return json;
+    }
+
+    //pet types
+
+    private void routeTypes(HttpExchange exchange, String method, String[] segments) throws IOException {
+        if (segments.length == 1) {
+            switch (method) {
+                case "GET" -> {
+                    List<Object> types = new ArrayList<>();
+                    for (StubStore.TypeRow type : store.findTypes()) {
+                        types.add(typeJson(type));
+                    }
+                    json(exchange, 200, types);
+                }
+                case "POST" -> json(exchange, 201, typeJson(store.insertType(parseTypeName(readBody(exchange)))));
+                default -> throw methodNotAllowed(method);
+            }
+            return;
+        }
+        if (segments.length != 2) {
+            throw notFound("No endpoint " + method + " " + String.join("/", segments));
+        }
+        int typeId = id(segments[1]);
+        StubStore.TypeRow type = store.findType(typeId);
+        if (type == null) {
+            throw notFound("Pet type " + typeId + " not found");
+        }
+        switch (method) {
+            case "GET" -> json(exchange, 200, typeJson(type));
+            case "PUT" -> {
+                store.updateType(new StubStore.TypeRow(typeId, parseTypeName(readBody(exchange))));
+                noContent(exchange, true);
+            }
+            case "DELETE" -> {
+                store.deleteType(typeId);
+                noContent(exchange, false);
+            }
+            default -> throw methodNotAllowed(method);
+        }
+    }
+
+    private static String parseTypeName(Map<String, Object> body) {
+        List<String> violations = new ArrayList<>();
+        String name = text(body, PetType.FIELD_NAME, 1, 80, null, violations);
+        validated(violations);
+        return name;
+    }
+
+    private static Map<String, Object> typeJson(StubStore.TypeRow type) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put(PetType.FIELD_NAME, type.name());
+        json.put(PetType.FIELD_ID, type.id());
+        return json;
+    }
+
+    //request parsing and validation
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readAllBytes();
+            if (bytes.length == 0) {
+                throw badRequest("Request body is missing");
+            }
+            return JsonUtils.MAPPER.readValue(bytes, JSON_OBJECT);
+        }
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static String text(Map<String, Object> body, String field, int minLength, int maxLength, Pattern pattern,
+                               List<String> violations) {
+        Object value = body.get(field);
+        if (!(value instanceof String text)) {
+            violations.add(field + ": must be a string");
+            return null;
+        }
+        if (text.length() < minLength || text.length() > maxLength) {
+            violations.add("%s: size must be between %d and %d".formatted(field, minLength, maxLength));
+        } else if (pattern != null && !pattern.matcher(text).matches()) {
+            violations.add("%s: must match \"%s\"".formatted(field, pattern.pattern()));
+        }
+        return text;
+    }
+
+    private static String date(Map<String, Object> body, String field, boolean required, List<String> violations) {
+        Object value = body.get(field);
+        if (value == null && !required) {
+            return null;
+        }
+        if (value instanceof String text) {
+            try {
+                return LocalDate.parse(text).toString();
+            } catch (DateTimeParseException e) {
+                //reported below
+            }
+        }
+        violations.add(field + ": must be a date in yyyy-MM-dd format");
+        return null;
+    }
+
+    private static int number(Map<String, Object> body, String field) {
+        if (body.get(field) instanceof Integer number) {
+            return number;
+        }
+        throw badRequest(field + ": must be an integer");
+    }
+
+    private static void validated(List<String> violations) {
+        if (!violations.isEmpty()) {
+            throw badRequest("Validation failed: " + String.join("; ", violations));
+        }
+    }
+
+    private static int id(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw badRequest("Invalid id '" + segment + "'");
+        }
+    }
+
+    //responses
+
+    private static void json(HttpExchange exchange, int status, Object body) throws IOException {
+        send(exchange, status, JsonUtils.MAPPER.writeValueAsBytes(body), CONTENT_TYPE_JSON);
+    }
+
+    private static void noContent(HttpExchange exchange, boolean jsonContentType) throws IOException {
+        if (jsonContentType) {
+            exchange.getResponseHeaders().add("Content-Type", CONTENT_TYPE_JSON);
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    //RFC 9457 problem, type is the request URL like in the real application
+    private void problem(HttpExchange exchange, String path, int status, String title, String detail) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", apiUrl + path);
+        body.put("title", title);
+        body.put("status", status);
+        body.put("detail", detail);
+        body.put("instance", contextPath + path);
+        body.put("timestamp", Instant.now().toString());
+        send(exchange, status, JsonUtils.MAPPER.writeValueAsBytes(body), CONTENT_TYPE_JSON);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body, String contentType) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static StubError badRequest(String detail) {
+        return new StubError(400, "Bad Request", detail);
+    }
+
+    private static StubError notFound(String detail) {
+        return new StubError(404, "Not Found", detail);
+    }
+
+    private static StubError methodNotAllowed(String method) {
+        return new StubError(405, "Method Not Allowed", "Method " + method + " is not supported");
+    }
+
+    private static class StubError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+        private final String title;
+
+        StubError(int status, String title, String detail) {
+            super(detail, null, false, false);
+            this.status = status;
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package stub;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import static db.DatabaseConstants.*;
+import static db.DatabaseConstants.OwnerTable.*;
+
+/*
+    In-memory replacement of the petclinic database used by PetClinicStub and, in stub mode, by the database helpers.
+    Rows are immutable records replaced on update; pets and visits are indexed by their parent, so reading an owner
+    with its pets and visits doesn't scan the whole store. Deleting an owner removes its pets and their visits,
+    same as the cascade of the real application.
+ */
+public class StubStore {
+    private final static StubStore global = new StubStore();
+
+    public record OwnerRow(int id, String firstName, String lastName, String address, String city, String telephone) {
+        //same keys as JdbcTemplate.queryForMap() on the owners table
+        public Map<String, Object> toDbRow() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(ID_COL_NAME, id);
+            row.put(FIRSTNAME_COL_NAME, firstName);
+            row.put(LASTNAME_COL_NAME, lastName);
+            row.put(ADDRESS_COL_NAME, address);
+            row.put(CITY_COL_NAME, city);
+            row.put(TELEPHONE_COL_NAME, telephone);
+            return row;
+        }
+    }
+
+    public record PetRow(int id, String name, String birthDate, int typeId, int ownerId) {
+        public Map<String, Object> toDbRow() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(PetTable.ID_COL_NAME, id);
+            row.put(PetTable.NAME_COL_NAME, name);
+            row.put(PetTable.BIRTHDATE_COL_NAME, birthDate);
+            row.put(PetTable.TYPE_ID_COL_NAME, typeId);
+            row.put(PetTable.OWNER_ID_COL_NAME, ownerId);
+            return row;
+        }
+    }
+
+    public record VisitRow(int id, int petId, String date, String description) {
+        public Map<String, Object> toDbRow() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(VisitTable.ID_COL_NAME, id);
+            row.put(VisitTable.PET_ID_COL_NAME, petId);
+            row.put(VisitTable.DATE_COL_NAME, date);
+            row.put(VisitTable.DESCRIPTION_COL_NAME, description);
+            return row;
+        }
+    }
+
+    public record TypeRow(int id, String name) {
+        public Map<String, Object> toDbRow() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(TypeTable.ID_COL_NAME, id);
+            row.put(TypeTable.NAME_COL_NAME, name);
+            return row;
+        }
+    }
+
+    private final Map<Integer, OwnerRow> owners = new ConcurrentHashMap<>();
+    private final Map<Integer, PetRow> pets = new ConcurrentHashMap<>();
+    private final Map<Integer, VisitRow> visits = new ConcurrentHashMap<>();
+    private final Map<Integer, TypeRow> types = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Integer>> petsByOwner = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Integer>> visitsByPet = new ConcurrentHashMap<>();
+    private final AtomicInteger ownerIds = new AtomicInteger();
+    private final AtomicInteger petIds = new AtomicInteger();
+    private final AtomicInteger visitIds = new AtomicInteger();
+    private final AtomicInteger typeIds = new AtomicInteger();
+
+    public static StubStore global() {
+        return global;
+    }
+
+    //same as TRUNCATE ... RESTART IDENTITY of all tables
+    public synchronized void clear() {
+        owners.clear();
+        pets.clear();
+        visits.clear();
+        types.clear();
+        petsByOwner.clear();
+        visitsByPet.clear();
+        ownerIds.set(0);
+        petIds.set(0);
+        visitIds.set(0);
+        typeIds.set(0);
+    }
+
+    //owners
+
+    public OwnerRow insertOwner(String firstName, String lastName, String address, String city, String telephone) {
+        OwnerRow owner = new OwnerRow(ownerIds.incrementAndGet(), firstName, lastName, address, city, telephone);
+        owners.put(owner.id(), owner);
+        return owner;
+    }
+
+    public OwnerRow findOwner(int id) {
+        return owners.get(id);
+    }
+
+    public boolean updateOwner(OwnerRow owner) {
+        return owners.replace(owner.id(), owner) != null;
+    }
+
+    public boolean deleteOwner(int id) {
+        if (owners.remove(id) == null) {
+            return false;
+        }
+        Set<Integer> ownerPets = petsByOwner.remove(id);
+        if (ownerPets != null) {
+            for (int petId : ownerPets) {
+                deletePet(petId);
+            }
+        }
+        return true;
+    }
+
+    //removes owners of a DataScope, telephone prefix is what SQL LIKE 'prefix%' matches
+    public int deleteOwnersByTelephonePrefix(String prefix) {
+        int deleted = 0;
+        for (OwnerRow owner : owners.values()) {
+            if (owner.telephone() != null && owner.telephone().startsWith(prefix) && deleteOwner(owner.id())) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    //null or empty prefix lists all owners, ordered by id like the database does by default for this table
+    public List<OwnerRow> findOwners(String lastNamePrefix) {
+        Predicate<OwnerRow> filter = lastNamePrefix == null || lastNamePrefix.isEmpty()
+                ? owner -> true
+                : owner -> owner.lastName().startsWith(lastNamePrefix);
+        return sorted(owners.values(), filter, OwnerRow::id);
+    }
+
+    public int ownerCount() {
+        return owners.size();
+    }
+
+    //pets
+
+    public PetRow insertPet(String name, String birthDate, int typeId, int ownerId) {
+        PetRow pet = new PetRow(petIds.incrementAndGet(), name, birthDate, typeId, ownerId);
+        pets.put(pet.id(), pet);
+        petsByOwner.computeIfAbsent(ownerId, id -> ConcurrentHashMap.newKeySet()).add(pet.id());
+        return pet;
+    }
+
+    public PetRow findPet(int id) {
+        return pets.get(id);
+    }
+
+    public boolean updatePet(PetRow pet) {
+        PetRow previous = pets.replace(pet.id(), pet);
+        if (previous == null) {
+            return false;
+        }
+        if (previous.ownerId() != pet.ownerId()) {
+            Set<Integer> previousOwnerPets = petsByOwner.get(previous.ownerId());
+            if (previousOwnerPets != null) {
+                previousOwnerPets.remove(pet.id());
+            }
+            petsByOwner.computeIfAbsent(pet.ownerId(), id -> ConcurrentHashMap.newKeySet()).add(pet.id());
+        }
+        return true;
+    }
+
+    public boolean deletePet(int id) {
+        PetRow pet = pets.remove(id);
+        if (pet == null) {
+            return false;
+        }
+        Set<Integer> ownerPets = petsByOwner.get(pet.ownerId());
+        if (ownerPets != null) {
+            ownerPets.remove(id);
+        }
+        Set<Integer> petVisits = visitsByPet.remove(id);
+        if (petVisits != null) {
+            petVisits.forEach(visits::remove);
+        }
+        return true;
+    }
+
+    public List<PetRow> findPets() {
+        return sorted(pets.values(), pet -> true, PetRow::id);
+    }
+
+    public List<PetRow> findPetsOfOwner(int ownerId) {
+        return byIds(petsByOwner.get(ownerId), pets);
+    }
+
+    //visits
+
+    public VisitRow insertVisit(int petId, String date, String description) {
+        VisitRow visit = new VisitRow(visitIds.incrementAndGet(), petId, date, description);
+        visits.put(visit.id(), visit);
+        visitsByPet.computeIfAbsent(petId, id -> ConcurrentHashMap.newKeySet()).add(visit.id());
+        return visit;
+    }
+
+    public VisitRow findVisit(int id) {
+        return visits.get(id);
+    }
+
+    public boolean updateVisit(VisitRow visit) {
+        VisitRow previous = visits.replace(visit.id(), visit);
+        if (previous == null) {
+            return false;
+        }
+        if (previous.petId() != visit.petId()) {
+            Set<Integer> previousPetVisits = visitsByPet.get(previous.petId());
+            if (previousPetVisits != null) {
+                previousPetVisits.remove(visit.id());
+            }
+            visitsByPet.computeIfAbsent(visit.petId(), id -> ConcurrentHashMap.newKeySet()).add(visit.id());
+        }
+        return true;
+    }
+
+    public boolean deleteVisit(int id) {
+        VisitRow visit = visits.remove(id);
+        if (visit == null) {
+            return false;
+        }
+        Set<Integer> petVisits = visitsByPet.get(visit.petId());
+        if (petVisits != null) {
+            petVisits.remove(id);
+        }
+        return true;
+    }
+
+    public List<VisitRow> findVisits() {
+        return sorted(visits.values(), visit -> true, VisitRow::id);
+    }
+
+    public List<VisitRow> findVisitsOfPet(int petId) {
+        return byIds(visitsByPet.get(petId), visits);
+    }
+
+    //pet types
+
+    public TypeRow insertType(String name) {
+        TypeRow type = new TypeRow(typeIds.incrementAndGet(), name);
+        types.put(type.id(), type);
+        return type;
+    }
+
+    public TypeRow findType(int id) {
+        return types.get(id);
+    }
+
+    public boolean updateType(TypeRow type) {
+        return types.replace(type.id(), type) != null;
+    }
+
+    //pets of the type are removed too, as the foreign key doesn't allow them to stay
+    public boolean deleteType(int id) {
+        if (types.remove(id) == null) {
+            return false;
+        }
+        for (PetRow pet : pets.values()) {
+            if (pet.typeId() == id) {
+                deletePet(pet.id());
+            }
+        }
+        return true;
+    }
+
+    public TypeRow findTypeByName(String name) {
+        for (TypeRow type : types.values()) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public List<TypeRow> findTypes() {
+        return sorted(types.values(), type -> true, TypeRow::id);
+    }
+
+    private static <T> List<T> sorted(Iterable<T> rows, Predicate<T> filter, ToIntFunction<T> id) {
+        List<T> result = new ArrayList<>();
+        for (T row : rows) {
+            if (filter.test(row)) {
+                result.add(row);
+            }
+        }
+        result.sort(Comparator.comparingInt(id));
+        return result;
+    }
+
+    private static <T> List<T> byIds(Set<Integer> ids, Map<Integer, T> rows) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> sortedIds = new ArrayList<>(ids);
+        sortedIds.sort(null);
+        List<T> result = new ArrayList<>(sortedIds.size());
+        for (int id : sortedIds) {
+            T row = rows.get(id);
+            if (row != null) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+}
@@ -53,9 +53,85 @@ public class ConfigUtils {
             case "DB_VENDOR" -> props.getProperty("db.vendor", defaultValue);
             case "DB_HOST" -> props.getProperty("db.host", defaultValue);
             case "DB_PORT" -> props.getProperty("db.port", defaultValue);
+            case "DB_NAME" -> props.getProperty("db.name", defaultValue);
+            case "DB_POOL_MIN_SIZE" -> props.getProperty("db.pool.min.size", defaultValue);
+            case "DB_POOL_MAX_SIZE" -> props.getProperty("db.pool.max.size", defaultValue);
+            case "DB_POOL_BORROW_TIMEOUT_MS" -> props.getProperty("db.pool.borrow.timeout.ms", defaultValue);
+            case "DB_POOL_VALIDATION_TIMEOUT_SEC" -> props.getProperty("db.pool.validation.timeout.sec", defaultValue);
+            case "DB_POOL_LEAK_THRESHOLD_MS" -> props.getProperty("db.pool.leak.threshold.ms", defaultValue);
+            case "DB_POOL_LEAK_TRACE" -> props.getProperty("db.pool.leak.trace", defaultValue);
+            case "DB_RESET_STRATEGY" -> props.getProperty("db.reset.strategy", defaultValue);
+            case "DB_RESET_TEMPLATE" -> props.getProperty("db.reset.template", defaultValue);
+            case "DB_SEED_MODE" -> props.getProperty("db.seed.mode", defaultValue);
+            case "DB_SEED_BATCH_SIZE" -> props.getProperty("db.seed.batch.size", defaultValue);
+            case "DATA_POOL_SIZE" -> props.getProperty("data.pool.size", defaultValue);
+            case "DATA_SEED" -> props.getProperty("data.seed", defaultValue);
+            case "DATA_GRAPH_PETS" -> props.getProperty("data.graph.pets", defaultValue);
+            case "DATA_GRAPH_VISITS" -> props.getProperty("data.graph.visits", defaultValue);
+            case "DATA_GRAPH_SHAPES" -> props.getProperty("data.graph.shapes", defaultValue);
+            case "DATA_GRAPH_READS" -> props.getProperty("data.graph.reads", defaultValue);
+            case "DATA_SNAPSHOT_DIR" -> props.getProperty("data.snapshot.dir", defaultValue);
             case "BASE_URL" -> props.getProperty("base.url", defaultValue);
             case "BASE_API_PATH" -> props.getProperty("base.api.path", defaultValue);
             case "API_RESPONSE_TIME" -> props.getProperty("base.response.time.ms", defaultValue);
+            case "LATENCY_SLA" -> props.getProperty("base.latency.sla", defaultValue);
+            case "LATENCY_SLA_MIN_SAMPLES" -> props.getProperty("base.latency.sla.min.samples", defaultValue);
+            case "API_STUB" -> props.getProperty("base.stub", defaultValue);
+            case "API_HTTP_MAX_CONNECTIONS" -> props.getProperty("base.http.max.connections", defaultValue);
+            case "API_HTTP_MAX_PER_ROUTE" -> props.getProperty("base.http.max.per.route", defaultValue);
+            case "API_HTTP_LEASE_TIMEOUT_MS" -> props.getProperty("base.http.lease.timeout.ms", defaultValue);
+            case "API_HTTP_KEEP_ALIVE_MS" -> props.getProperty("base.http.keep.alive.ms", defaultValue);
+            case "API_HTTP_IDLE_EVICT_MS" -> props.getProperty("base.http.idle.evict.ms", defaultValue);
+            case "API_HTTP_CONNECT_TIMEOUT_MS" -> props.getProperty("base.http.connect.timeout.ms", defaultValue);
+            case "API_HTTP_SOCKET_TIMEOUT_MS" -> props.getProperty("base.http.socket.timeout.ms", defaultValue);
+            case "PERF_REPORT_DIR" -> props.getProperty("perf.report.dir", defaultValue);
+            case "PERF_BASELINE_DIR" -> props.getProperty("perf.baseline.dir", defaultValue);
+            case "PERF_BASELINE_COMPARE_TO" -> props.getProperty("perf.baseline.compare.to", defaultValue);
+            case "PERF_REGRESSION_THRESHOLD" -> props.getProperty("perf.regression.threshold", defaultValue);
+            case "PERF_REGRESSION_ALPHA" -> props.getProperty("perf.regression.alpha", defaultValue);
+            case "PERF_REGRESSION_MIN_SAMPLES" -> props.getProperty("perf.regression.min.samples", defaultValue);
+            case "PERF_REGRESSION_FAIL" -> props.getProperty("perf.regression.fail", defaultValue);
+            case "PERF_WARMUP" -> props.getProperty("perf.warmup", defaultValue);
+            case "PERF_WARMUP_MIN_ITERATIONS" -> props.getProperty("perf.warmup.min.iterations", defaultValue);
+            case "PERF_WARMUP_MAX_ITERATIONS" -> props.getProperty("perf.warmup.max.iterations", defaultValue);
+            case "PERF_WARMUP_MAX_DURATION_MS" -> props.getProperty("perf.warmup.max.duration.ms", defaultValue);
+            case "PERF_WARMUP_WINDOW" -> props.getProperty("perf.warmup.window", defaultValue);
+            case "PERF_WARMUP_MAX_CV" -> props.getProperty("perf.warmup.max.cv", defaultValue);
+            case "PERF_WARMUP_ENDPOINTS" -> props.getProperty("perf.warmup.endpoints", defaultValue);
+            case "PERF_METRICS_PORT" -> props.getProperty("perf.metrics.port", defaultValue);
+            case "PERF_METRICS_FILE" -> props.getProperty("perf.metrics.file", defaultValue);
+            case "PERF_BENCH_ENABLED" -> props.getProperty("perf.bench.enabled", defaultValue);
+            case "PERF_BENCH_SIZES" -> props.getProperty("perf.bench.sizes", defaultValue);
+            case "PERF_BENCH_PETS" -> props.getProperty("perf.bench.pets", defaultValue);
+            case "PERF_BENCH_VISITS" -> props.getProperty("perf.bench.visits", defaultValue);
+            case "PERF_BENCH_READS" -> props.getProperty("perf.bench.reads", defaultValue);
+            case "PERF_BENCH_SEARCH_PREFIXES" -> props.getProperty("perf.bench.search.prefixes", defaultValue);
+            case "PERF_QUERY_PROFILE" -> props.getProperty("perf.query.profile", defaultValue);
+            case "PERF_QUERY_PROFILE_TOP" -> props.getProperty("perf.query.profile.top", defaultValue);
+            case "PERF_QUERY_PROFILE_EXPLAIN" -> props.getProperty("perf.query.profile.explain", defaultValue);
+            case "LOG_HTTP_SUCCESS_SAMPLE_RATE" -> props.getProperty("log.http.success.sample.rate", defaultValue);
+            case "LOG_HTTP_MAX_BODY_CHARS" -> props.getProperty("log.http.max.body.chars", defaultValue);
+            case "LOG_HTTP_HEADERS" -> props.getProperty("log.http.headers", defaultValue);
+            case "LOG_HTTP_ASYNC" -> props.getProperty("log.http.async", defaultValue);
+            case "LOG_HTTP_QUEUE_SIZE" -> props.getProperty("log.http.queue.size", defaultValue);
+            case "LOAD_ENABLED" -> props.getProperty("load.enabled", defaultValue);
+            case "LOAD_MODEL" -> props.getProperty("load.model", defaultValue);
+            case "LOAD_RATE" -> props.getProperty("load.rate", defaultValue);
+            case "LOAD_CONCURRENCY" -> props.getProperty("load.concurrency", defaultValue);
+            case "LOAD_MAX_CONCURRENCY" -> props.getProperty("load.max.concurrency", defaultValue);
+            case "LOAD_RAMP_UP_SEC" -> props.getProperty("load.ramp.up.sec", defaultValue);
+            case "LOAD_STEADY_SEC" -> props.getProperty("load.steady.sec", defaultValue);
+            case "LOAD_RAMP_DOWN_SEC" -> props.getProperty("load.ramp.down.sec", defaultValue);
+            case "LOAD_THINK_TIME_MS" -> props.getProperty("load.think.time.ms", defaultValue);
+            case "LOAD_SCENARIOS" -> props.getProperty("load.scenarios", defaultValue);
+            case "LOAD_MAX_ERROR_RATE" -> props.getProperty("load.max.error.rate", defaultValue);
+            case "LOAD_VIRTUAL_THREADS" -> props.getProperty("load.virtual.threads", defaultValue);
+            case "LOAD_HTTP_MAX_CONNECTIONS" -> props.getProperty("load.http.max.connections", defaultValue);
+            case "LOAD_HTTP_LEASE_TIMEOUT_MS" -> props.getProperty("load.http.lease.timeout.ms", defaultValue);
+            case "LOAD_VERIFY_ASYNC" -> props.getProperty("load.verify.async", defaultValue);
+            case "LOAD_VERIFY_BATCH_SIZE" -> props.getProperty("load.verify.batch.size", defaultValue);
+            case "LOAD_VERIFY_INTERVAL_MS" -> props.getProperty("load.verify.interval.ms", defaultValue);
+            case "LOAD_VERIFY_DELAY_MS" -> props.getProperty("load.verify.delay.ms", defaultValue);
             default -> defaultValue;
         };
     }
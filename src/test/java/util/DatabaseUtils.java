@@ -1,28 +1,49 @@
 package util;
 
+import db.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
-import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 import org.springframework.transaction.support.TransactionTemplate;
+import perf.MetricsRegistry;
 
-import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static config.ApiConfig.STUB_ENABLED;
 import static config.DatabaseConfig.*;
+import static db.DatabaseConstants.APP_TABLES;
+import static util.ConfigUtils.getValue;
 import static net.logstash.logback.argument.StructuredArguments.kv;
 
 public class DatabaseUtils {
 
     private final static Logger logger = LoggerFactory.getLogger(DatabaseUtils.class);
+    private final static String PARALLEL_ENABLED_PROPERTY = "junit.jupiter.execution.parallel.enabled";
+
+    //process-wide pool, created on first use and closed on JVM shutdown
+    private static volatile PooledDataSource dataSource;
+    private static volatile JdbcTemplate jdbcTemplate;
+
+    private final static DirtyTrackingResetStrategy dirtyTracking = new DirtyTrackingResetStrategy();
+    //selected on first use, when PerformanceExtension has passed the JUnit configuration
+    private static volatile ResetStrategy resetStrategy;
+    private static volatile Boolean parallelExecution;
+    private final static AtomicLong resetCount = new AtomicLong();
+    private final static AtomicLong resetTotalNs = new AtomicLong();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseUtils::logResetSummary, "db-reset-summary"));
+    }
 
     public static Connection getConnection() {
         try {
-            return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+            return getDataSource().getConnection();
         } catch (SQLException e) {
             logger.error("Error connecting to database",
                     kv("db_url", URL),
@@ -32,20 +53,70 @@ public class DatabaseUtils {
         }
     }
 
+    //JdbcTemplate is thread-safe once configured, so a single instance over the pool is shared
     public static JdbcTemplate createTemplate() {
-        DataSource dataSource = createDataSource();
-        return new JdbcTemplate(dataSource);
+        JdbcTemplate template = jdbcTemplate;
+        if (template == null) {
+            synchronized (DatabaseUtils.class) {
+                template = jdbcTemplate;
+                if (template == null) {
+                    template = new JdbcTemplate(getDataSource());
+                    jdbcTemplate = template;
+                }
+            }
+        }
+        return template;
+    }
+
+    /*
+        Server-side execution time of the query in milliseconds, as reported by EXPLAIN ANALYZE (planning excluded).
+        The query is really executed, so it's meant for SELECTs only
+     */
+    public static double explainAnalyzeMs(String sql, Object... args) {
+        List<String> plan = createTemplate().queryForList("EXPLAIN (ANALYZE, FORMAT TEXT) " + sql, String.class, args);
+        for (String line : plan) {
+            if (line.startsWith("Execution Time:")) {
+                return Double.parseDouble(line.substring("Execution Time:".length()).replace("ms", "").trim());
+            }
+        }
+        throw new IllegalStateException("No execution time in plan of: " + sql);
     }
 
     public static TransactionTemplate createTransactionTemplate() {
-        DataSource dataSource = createDataSource();
-        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(getDataSource());
         return new TransactionTemplate(transactionManager);
     }
 
-    private static DataSource createDataSource() {
+    public static PooledDataSource.PoolMetrics getPoolMetrics() {
+        return getDataSource().getMetrics();
+    }
+
+    private static PooledDataSource getDataSource() {
+        PooledDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (DatabaseUtils.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = createDataSource();
+                    dataSource = ds;
+                    registerPoolGauges(ds);
+                    Runtime.getRuntime().addShutdownHook(new Thread(ds::close, "db-pool-shutdown"));
+                }
+            }
+        }
+        return ds;
+    }
+
+    private static PooledDataSource createDataSource() {
         try {
-            return new SingleConnectionDataSource(URL, USERNAME, PASSWORD, true);
+            PooledDataSource ds = new PooledDataSource(URL, USERNAME, PASSWORD,
+                    POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_BORROW_TIMEOUT_MS,
+                    POOL_VALIDATION_TIMEOUT_SEC, POOL_LEAK_THRESHOLD_MS, POOL_LEAK_TRACE);
+            logger.info("Database connection pool created",
+                    kv("db_url", URL),
+                    kv("db_pool_min_size", POOL_MIN_SIZE),
+                    kv("db_pool_max_size", POOL_MAX_SIZE));
+            return ds;
         } catch (Exception e) {
             logger.error("Error connecting to datasource",
                     kv("db_url", URL),
@@ -55,24 +126,163 @@ public class DatabaseUtils {
         }
     }
 
+    //pool state read on every metrics scrape
+    private static void registerPoolGauges(PooledDataSource ds) {
+        MetricsRegistry metrics = MetricsRegistry.global();
+        String connections = "petclinic_db_pool_connections";
+        String connectionsHelp = "Connections of the test database pool by state";
+        metrics.gauge(connections, connectionsHelp, () -> ds.getMetrics().active(), "state", "active");
+        metrics.gauge(connections, connectionsHelp, () -> ds.getMetrics().idle(), "state", "idle");
+        metrics.gauge(connections, connectionsHelp, () -> ds.getMetrics().total(), "state", "total");
+        metrics.gauge(connections, connectionsHelp, () -> ds.getMetrics().max(), "state", "max");
+        metrics.gauge("petclinic_db_pool_waiting_threads", "Threads waiting for a connection", () -> ds.getMetrics().waiting());
+        metrics.gauge("petclinic_db_pool_borrows", "Connections borrowed since pool start", () -> ds.getMetrics().borrowed());
+        metrics.gauge("petclinic_db_pool_borrow_wait_avg_seconds", "Average wait for a connection",
+                () -> ds.getMetrics().avgBorrowWaitUs() / 1e6);
+        metrics.gauge("petclinic_db_pool_timeouts", "Borrows that timed out since pool start", () -> ds.getMetrics().timeouts());
+        metrics.gauge("petclinic_db_pool_leaks", "Connections reported as leaked since pool start", () -> ds.getMetrics().leaksDetected());
+    }
+
+    /*
+        Parallel execution as JUnit resolves it (system property, junit-platform.properties or launcher configuration),
+        set by PerformanceExtension before the first test class. Without it only the system property/environment is read
+     */
+    public static void configureParallelExecution(boolean parallel) {
+        parallelExecution = parallel;
+    }
+
+    private static ResetStrategy resetStrategy() {
+        ResetStrategy strategy = resetStrategy;
+        if (strategy == null) {
+            synchronized (DatabaseUtils.class) {
+                strategy = resetStrategy;
+                if (strategy == null) {
+                    strategy = selectResetStrategy();
+                    resetStrategy = strategy;
+                    logger.info("Database reset strategy selected", kv("db_reset_strategy", strategy.name()));
+                }
+            }
+        }
+        return strategy;
+    }
+
+    private static ResetStrategy selectResetStrategy() {
+        Boolean configured = parallelExecution;
+        boolean parallel = configured != null ? configured : Boolean.parseBoolean(getValue(PARALLEL_ENABLED_PROPERTY, "false"));
+        //no database behind the stub, its in-memory store is reset instead
+        if (STUB_ENABLED) {
+            return new StubResetStrategy(parallel || "scoped".equalsIgnoreCase(RESET_STRATEGY));
+        }
+        //whole-database strategies would wipe data of concurrently running tests
+        if (parallel && !"scoped".equalsIgnoreCase(RESET_STRATEGY)) {
+            logger.warn("Parallel execution is enabled, using 'scoped' database reset instead of '{}'", RESET_STRATEGY);
+            return new ScopedResetStrategy();
+        }
+        return createResetStrategy(RESET_STRATEGY);
+    }
+
+    private static ResetStrategy createResetStrategy(String name) {
+        return switch (name.toLowerCase()) {
+            case "delete" -> new DeleteResetStrategy();
+            case "truncate" -> new TruncateResetStrategy();
+            case "template" -> new TemplateCloneResetStrategy();
+            case "rollback" -> new RollbackResetStrategy(dirtyTracking);
+            case "dirty" -> dirtyTracking;
+            case "scoped" -> new ScopedResetStrategy();
+            default -> throw new IllegalArgumentException("Unknown database reset strategy '%s'".formatted(name));
+        };
+    }
+
+    //called from @BeforeEach, brings database to the clean state using configured strategy
+    public static void resetBeforeTest() {
+        ResetStrategy strategy = resetStrategy();
+        timedReset(strategy, "before_test", strategy::beforeTest);
+    }
+
+    //called from @AfterEach
+    public static void resetAfterTest() {
+        ResetStrategy strategy = resetStrategy();
+        timedReset(strategy, "after_test", strategy::afterTest);
+    }
+
+    //called once at the end of the run, only if some test has reset the database
+    public static void resetAfterRun() {
+        ResetStrategy strategy = resetStrategy;
+        if (strategy != null) {
+            timedReset(strategy, "after_run", strategy::afterRun);
+        }
+    }
+
+    /*
+        Called before test data is written straight to the database for the application to read. With the 'rollback'
+        strategy such rows stay uncommitted in the transaction of the test thread and the application never sees them,
+        so the test fails here rather than with a 404 from the API later
+     */
+    public static void requireSeedingVisibleToApi(String table) {
+        if (resetStrategy() instanceof RollbackResetStrategy) {
+            throw new IllegalStateException(("Test seeds '%s' through the database, which the application can't see with "
+                    + "the 'rollback' reset strategy; use 'dirty' or 'truncate' for this suite").formatted(table));
+        }
+    }
+
+    //marks tables changed outside the API so that dirty tracking reset cleans them
+    public static void markDirty(String... tables) {
+        dirtyTracking.markDirty(tables);
+    }
+
+    private static void timedReset(ResetStrategy resetStrategy, String phase, Runnable reset) {
+        long start = System.nanoTime();
+        try {
+            reset.run();
+        } catch (Exception e) {
+            logger.error("Error resetting database",
+                    kv("db_reset_strategy", resetStrategy.name()),
+                    kv("db_reset_phase", phase),
+                    kv("cause_message", e.getMessage()));
+            throw e;
+        }
+        long durationNs = System.nanoTime() - start;
+        MetricsRegistry.global().timer("petclinic_db_reset_duration_seconds", "Duration of database resets around tests",
+                "strategy", resetStrategy.name(), "phase", phase).record(durationNs);
+        resetCount.incrementAndGet();
+        resetTotalNs.addAndGet(durationNs);
+        logger.info("Database reset done",
+                kv("db_reset_strategy", resetStrategy.name()),
+                kv("db_reset_phase", phase),
+                kv("db_reset_duration_ms", TimeUnit.NANOSECONDS.toMillis(durationNs)),
+                kv("db_reset_duration_ns", durationNs));
+    }
+
+    private static void logResetSummary() {
+        long count = resetCount.get();
+        ResetStrategy resetStrategy = DatabaseUtils.resetStrategy;
+        if (count == 0 || resetStrategy == null) {
+            return;
+        }
+        long totalNs = resetTotalNs.get();
+        logger.info("Database reset summary: {} resets with strategy '{}' took {} ms in total", count, resetStrategy.name(),
+                TimeUnit.NANOSECONDS.toMillis(totalNs),
+                kv("db_reset_strategy", resetStrategy.name()),
+                kv("db_reset_count", count),
+                kv("db_reset_total_ms", TimeUnit.NANOSECONDS.toMillis(totalNs)),
+                kv("db_reset_avg_us", TimeUnit.NANOSECONDS.toMicros(totalNs / count)));
+    }
+
     public static void cleanDatabase() {
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement()) {
 
             // Disable foreign key checks
             stmt.execute("SET session_replication_role = 'replica'");
-
-            // Clean tables in correct order to respect foreign keys
-            stmt.execute("DELETE FROM visits");
-            stmt.execute("DELETE FROM pets");
-            stmt.execute("DELETE FROM owners");
-            stmt.execute("DELETE FROM vet_specialties");
-            stmt.execute("DELETE FROM specialties");
-            stmt.execute("DELETE FROM types");
-            stmt.execute("DELETE FROM vets");
-
-            // Re-enable foreign key checks
-            stmt.execute("SET session_replication_role = 'origin'");
+            try {
+                // Clean tables in correct order to respect foreign keys
+                for (String table : APP_TABLES) {
+                    stmt.execute("DELETE FROM " + table);
+                }
+            } finally {
+                // Re-enable foreign key checks, connection goes back to the pool and must not keep session settings
+                stmt.execute("SET session_replication_role = 'origin'");
+            }
         } catch (Exception e) {
             logger.error("Error cleaning database",
                     kv("db_url", URL),
@@ -0,0 +1,33 @@
+package util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class JsonUtils {
+    //ObjectMapper is thread-safe once configured and expensive to create, one instance is shared by the whole suite
+    public final static ObjectMapper MAPPER = new ObjectMapper();
+    public final static ObjectWriter PRETTY_WRITER = MAPPER.writerWithDefaultPrettyPrinter();
+    private final static TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    //request bodies are encoded with the shared mapper instead of the one REST Assured creates
+    public static byte[] toBytes(Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Value can't be encoded to JSON", e);
+        }
+    }
+
+    public static Map<String, Object> toMap(byte[] json) {
+        try {
+            return MAPPER.readValue(json, JSON_OBJECT);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not a JSON object: " + e.getMessage(), e);
+        }
+    }
+}
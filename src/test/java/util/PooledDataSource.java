@@ -0,0 +1,390 @@
+package util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+    Minimal bounded connection pool shared by all JdbcTemplate/TransactionTemplate instances.
+    Borrowed connections are handed out as proxies, close() returns the physical connection to the idle queue.
+    Validation is done on borrow (Connection.isValid), connections kept longer than the leak threshold are
+    reported with the borrowing thread, and with the stack trace of the borrowing code when leak tracing is on
+    (capturing it on every borrow is too costly to be the default).
+    A slot is reserved in total before a connection is opened, so borrowers and the background pre-fill
+    never open more than maxSize connections together.
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(PooledDataSource.class);
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final int validationTimeoutSec;
+    private final long leakThresholdMs;
+    private final boolean leakTrace;
+
+    private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private final Map<Connection, Lease> leased = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService leakDetector;
+    private volatile boolean closed = false;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitNs = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public PooledDataSource(String url, String username, String password,
+                            int minSize, int maxSize, long borrowTimeoutMs,
+                            int validationTimeoutSec, long leakThresholdMs, boolean leakTrace) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool size must satisfy 0 <= min <= max and max >= 1, given min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.leakThresholdMs = leakThresholdMs;
+        this.leakTrace = leakTrace && leakThresholdMs > 0;
+        this.permits = new Semaphore(maxSize, true);
+
+        leakDetector = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (leakThresholdMs > 0) {
+            long period = Math.max(leakThresholdMs / 2, 100);
+            leakDetector.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        }
+        leakDetector.execute(this::fillToMinimum);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMs + " ms waiting for a database connection " + getMetrics());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        try {
+            Connection physical = takeValidConnection(start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs));
+            leased.put(physical, new Lease(System.currentTimeMillis(), Thread.currentThread().getName(),
+                    leakTrace ? new Throwable("Connection borrowed here") : null));
+            borrowCount.incrementAndGet();
+            borrowWaitNs.addAndGet(System.nanoTime() - start);
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool is bound to the configured database user");
+    }
+
+    private Connection takeValidConnection(long deadlineNs) throws SQLException {
+        while (true) {
+            Connection candidate = idle.pollFirst();
+            if (candidate == null) {
+                if (reserveSlot(maxSize)) {
+                    return createConnection();
+                }
+                //all slots are taken by connections being opened for the idle queue, one of them arrives shortly
+                candidate = pollIdle(deadlineNs);
+            }
+            if (isValid(candidate)) {
+                return candidate;
+            }
+            validationFailures.incrementAndGet();
+            discard(candidate);
+        }
+    }
+
+    private Connection pollIdle(long deadlineNs) throws SQLException {
+        try {
+            Connection connection = idle.pollFirst(Math.max(deadlineNs - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            if (connection == null) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMs + " ms waiting for a database connection " + getMetrics());
+            }
+            return connection;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean reserveSlot(int limit) {
+        int current;
+        do {
+            current = total.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!total.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    //slot has to be reserved with reserveSlot() first, it's given back if the connection can't be opened
+    private Connection createConnection() throws SQLException {
+        try {
+            Connection connection = DriverManager.getConnection(url, username, password);
+            createdCount.incrementAndGet();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void release(Connection physical) {
+        Lease lease = leased.remove(physical);
+        if (lease == null) {
+            return;
+        }
+        try {
+            if (closed) {
+                discard(physical);
+                return;
+            }
+            // leave connection in the state the next borrower expects
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+            idle.offerFirst(physical);
+        } catch (SQLException e) {
+            logger.warn("Discarding broken pooled connection", kv("cause_message", e.getMessage()));
+            discard(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(Connection physical) {
+        total.decrementAndGet();
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+            //connection is already unusable
+        }
+    }
+
+    private void fillToMinimum() {
+        try {
+            while (!closed && reserveSlot(minSize)) {
+                idle.offerLast(createConnection());
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not pre-fill connection pool",
+                    kv("db_url", url),
+                    kv("cause_message", e.getMessage()));
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (Lease lease : leased.values()) {
+            if (!lease.reported && now - lease.borrowedAt > leakThresholdMs) {
+                lease.reported = true;
+                leaksDetected.incrementAndGet();
+                logger.warn("Possible connection leak: connection held for {} ms by thread {}", now - lease.borrowedAt, lease.thread,
+                        kv("db_pool_leak_ms", now - lease.borrowedAt),
+                        kv("db_pool_leak_origin", lease.origin == null ? "set DB_POOL_LEAK_TRACE=true to capture"
+                                : Arrays.stream(lease.origin.getStackTrace())
+                                .limit(12)
+                                .map(StackTraceElement::toString)
+                                .collect(Collectors.joining(" <- "))));
+            }
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                PooledDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    public PoolMetrics getMetrics() {
+        long borrowed = borrowCount.get();
+        return new PoolMetrics(
+                total.get(),
+                leased.size(),
+                idle.size(),
+                waiting.get(),
+                maxSize,
+                borrowed,
+                borrowed == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(borrowWaitNs.get() / borrowed),
+                createdCount.get(),
+                validationFailures.get(),
+                leaksDetected.get(),
+                timeouts.get());
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        leakDetector.shutdownNow();
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+        logger.info("Connection pool closed", kv("db_pool", getMetrics()));
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    public record PoolMetrics(int total, int active, int idle, int waiting, int max,
+                              long borrowed, long avgBorrowWaitUs, long created,
+                              long validationFailures, long leaksDetected, long timeouts) {
+    }
+
+    private static class Lease {
+        final long borrowedAt;
+        final String thread;
+        //null unless leak tracing is on
+        final Throwable origin;
+        volatile boolean reported = false;
+
+        Lease(long borrowedAt, String thread, Throwable origin) {
+            this.borrowedAt = borrowedAt;
+            this.thread = thread;
+            this.origin = origin;
+        }
+    }
+
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private volatile boolean returned = false;
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    Loads and compiles JSON schemas once and shares them between all tests and load users.
+    JsonSchemaValidator.matchesJsonSchemaInClasspath() resolves and parses the schema (and every $ref) on each call,
+    compiled JsonSchema instances are immutable, so they're safe to use from many threads.
+    Schemas are loaded by their classpath URL, so that relative references like "pet.json" resolve as before.
+ */
+public class SchemaRegistry {
+    private final static JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
+    private final static Map<String, JsonSchema> schemas = new ConcurrentHashMap<>();
+
+    static {
+        for (String schemaPath : List.of(
+                ValidationUtils.OWNER_SCHEMA,
+                ValidationUtils.PET_SCHEMA,
+                ValidationUtils.VISIT_SCHEMA,
+                ValidationUtils.PET_TYPE_SCHEMA,
+                ValidationUtils.API_PROBLEM_SCHEMA)) {
+            getSchema(schemaPath);
+        }
+    }
+
+    public static JsonSchema getSchema(String schemaPath) {
+        return schemas.computeIfAbsent(schemaPath, SchemaRegistry::compile);
+    }
+
+    //same semantics as JsonSchemaValidator.matchesJsonSchemaInClasspath(), but with the compiled schema
+    public static Matcher<String> matchesSchema(String schemaPath) {
+        return new SchemaMatcher(schemaPath, getSchema(schemaPath));
+    }
+
+    private static JsonSchema compile(String schemaPath) {
+        URL resource = Thread.currentThread().getContextClassLoader().getResource(schemaPath);
+        if (resource == null) {
+            throw new IllegalArgumentException("JSON schema not found in classpath: " + schemaPath);
+        }
+        try {
+            return factory.getJsonSchema(resource.toURI().toString());
+        } catch (ProcessingException | URISyntaxException e) {
+            throw new IllegalStateException("Could not load JSON schema " + schemaPath, e);
+        }
+    }
+
+    private static class SchemaMatcher extends TypeSafeMatcher<String> {
+        private final String schemaPath;
+        private final JsonSchema schema;
+        private ProcessingReport report;
+
+        SchemaMatcher(String schemaPath, JsonSchema schema) {
+            this.schemaPath = schemaPath;
+            this.schema = schema;
+        }
+
+        @Override
+        protected boolean matchesSafely(String content) {
+            try {
+                JsonNode node = JsonLoader.fromString(content);
+                report = schema.validate(node);
+                return report.isSuccess();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Response body is not valid JSON", e);
+            } catch (ProcessingException e) {
+                throw new IllegalStateException("Could not validate response against " + schemaPath, e);
+            }
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            if (report != null) {
+                description.appendText("The content to match the given JSON schema " + schemaPath + ".\n");
+                description.appendText(report.toString());
+            } else {
+                description.appendText("The content to match the given JSON schema " + schemaPath);
+            }
+        }
+    }
+}
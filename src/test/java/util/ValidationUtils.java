@@ -2,5 +2,8 @@ package util;
 
 public class ValidationUtils {
     public static String OWNER_SCHEMA = "json/schema/owner.json";
+    public static String PET_SCHEMA = "json/schema/pet.json";
+    public static String VISIT_SCHEMA = "json/schema/visit.json";
+    public static String PET_TYPE_SCHEMA = "json/schema/pet_type.json";
     public static String API_PROBLEM_SCHEMA = "json/schema/rfc9457.json";
 }